@@ -1,7 +1,9 @@
 package com.github.sebersole.gradle.quarkus;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.Locale;
@@ -60,6 +62,21 @@ public class Helper {
 		Logging.LOGGER.debug( "Unable to ensure File existence {}", file.getAbsolutePath() );
 	}
 
+	/**
+	 * Read the remaining bytes from the stream.  Does not close the stream
+	 */
+	public static byte[] readAllBytes(InputStream stream) throws IOException {
+		final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		final byte[] chunk = new byte[ 8 * 1024 ];
+
+		int read;
+		while ( ( read = stream.read( chunk ) ) != -1 ) {
+			buffer.write( chunk, 0, read );
+		}
+
+		return buffer.toByteArray();
+	}
+
 	private Helper() {
 		// disallow direct instantiation
 	}
@@ -10,6 +10,7 @@ import org.gradle.api.tasks.TaskState;
 import org.gradle.util.GradleVersion;
 
 import com.github.sebersole.gradle.quarkus.dsl.QuarkusConfig;
+import com.github.sebersole.gradle.quarkus.indexing.JandexTransform;
 import com.github.sebersole.gradle.quarkus.service.Services;
 import com.github.sebersole.gradle.quarkus.task.AugmentationTask;
 import com.github.sebersole.gradle.quarkus.task.GenerateFatJarTask;
@@ -37,6 +38,8 @@ public class QuarkusPlugin implements Plugin<Project> {
 				services
 		);
 
+		JandexTransform.register( project, services.getBuildDetails().getIndexingConfigProvider() );
+
 		final JandexTask jandexTask = JandexTask.applyTo( project, services );
 		jandexTask.setGroup( QUARKUS );
 		jandexTask.setDescription( "Perform Quarkus-related Jandex indexing" );
@@ -75,9 +78,9 @@ public class QuarkusPlugin implements Plugin<Project> {
 					public void afterExecute(Task task, TaskState state) {
 						if ( task.getName().equals( JandexTask.REGISTRATION_NAME ) ) {
 							if ( ! state.getDidWork() ) {
-								// the Jandex task was not run.  Force the IndexingService to
-								// load all indexes
-								project.getLogger().lifecycle( "Re-loading Jandex indexes" );
+								// the Jandex task was not run.  Make the IndexingService aware of
+								// all indexes; they are loaded on first use
+								project.getLogger().debug( "Registering up-to-date Jandex indexes" );
 								services.getIndexingService().loadIndexes();
 							}
 						}
@@ -88,9 +91,9 @@ public class QuarkusPlugin implements Plugin<Project> {
 	}
 
 	private void verifyGradleVersion() {
-		if ( GradleVersion.current().compareTo( GradleVersion.version( "5.0" ) ) < 0 ) {
+		if ( GradleVersion.current().compareTo( GradleVersion.version( "6.1" ) ) < 0 ) {
 			throw new GradleException(
-					"Quarkus plugin requires Gradle 5.0 or later. Current version is: " + GradleVersion.current()
+					"Quarkus plugin requires Gradle 6.1 or later. Current version is: " + GradleVersion.current()
 			);
 		}
 	}
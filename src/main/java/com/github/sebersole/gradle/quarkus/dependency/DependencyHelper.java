@@ -28,7 +28,8 @@ public class DependencyHelper {
 						return new ExternalDependency(
 								artifactIdentifier,
 								resolvedArtifactFile,
-								resolvedDependency -> services.getIndexingService().registerArtifactToIndex( resolvedDependency )
+								resolvedDependency -> services.getIndexingService().registerArtifactToIndex( resolvedDependency ),
+								services.getArchiveAccess()
 						);
 					}
 					else {
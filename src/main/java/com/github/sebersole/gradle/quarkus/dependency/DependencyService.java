@@ -67,7 +67,8 @@ public class DependencyService implements Service<DependencyService>, Serializab
 		final ResolvedDependency dependency = new ExternalDependency(
 				moduleVersionIdentifier,
 				resolvedArtifact.getFile(),
-				resolvedDependency1 -> services.getIndexingService().registerArtifactToIndex( resolvedDependency1 )
+				resolvedDependency1 -> services.getIndexingService().registerArtifactToIndex( resolvedDependency1 ),
+				services.getArchiveAccess()
 		);
 
 		resolvedDependencies.put( moduleVersionIdentifier, dependency );
@@ -11,9 +11,12 @@ import java.util.jar.JarFile;
 import java.util.zip.ZipEntry;
 
 import org.gradle.api.GradleException;
+import org.gradle.api.provider.Provider;
 
 import com.github.sebersole.gradle.quarkus.Helper;
 import com.github.sebersole.gradle.quarkus.indexing.IndexAccess;
+import com.github.sebersole.gradle.quarkus.service.ArchiveAccess;
+import com.github.sebersole.gradle.quarkus.service.ArtifactProbe;
 
 /**
  * Resolved representation of an external dependency
@@ -22,15 +25,18 @@ public class ExternalDependency implements ResolvedDependency, Serializable {
 	private final ModuleVersionIdentifier moduleVersionIdentifier;
 	private final File dependencyArtifactFile;
 	private final IndexAccess indexAccess;
+	private final transient Provider<ArchiveAccess> archiveAccess;
 
 	private Properties extensionProperties;
 
 	public ExternalDependency(
 			ModuleVersionIdentifier moduleVersionIdentifier,
 			File dependencyArtifactFile,
-			Function<ResolvedDependency, IndexAccess> indexAccessCreator) {
+			Function<ResolvedDependency, IndexAccess> indexAccessCreator,
+			Provider<ArchiveAccess> archiveAccess) {
 		this.moduleVersionIdentifier = moduleVersionIdentifier;
 		this.dependencyArtifactFile = dependencyArtifactFile;
+		this.archiveAccess = archiveAccess;
 		this.indexAccess = indexAccessCreator.apply( this );
 	}
 
@@ -51,19 +57,29 @@ public class ExternalDependency implements ResolvedDependency, Serializable {
 
 	private Properties resolveExtensionProperties() {
 		if ( extensionProperties == null ) {
-			extensionProperties = readExtensionProperties( dependencyArtifactFile );
+			extensionProperties = archiveAccess == null
+					? readExtensionProperties( dependencyArtifactFile )
+					: probeExtensionProperties( dependencyArtifactFile, archiveAccess.get() );
 		}
 
 		return extensionProperties;
 	}
 
+	private static Properties probeExtensionProperties(File dependencyArtifactFile, ArchiveAccess archiveAccess) {
+		final ArtifactProbe probe = archiveAccess.probe( dependencyArtifactFile );
+		if ( probe == null ) {
+			throw new GradleException( "Unable to treat dependency as a JAR : " + dependencyArtifactFile.getAbsolutePath() );
+		}
+
+		return probe.toExtensionProperties();
+	}
+
 	private static Properties readExtensionProperties(File dependencyArtifactFile) {
 		try {
-			final JarFile jarFile = new JarFile( dependencyArtifactFile );
-			return readExtensionProperties( jarFile );
+			return ArchiveAccess.withArchive( null, dependencyArtifactFile, ExternalDependency::readExtensionProperties );
 		}
 		catch (IOException e) {
-			throw new GradleException( "Unable to treat " );
+			throw new GradleException( "Unable to treat dependency as a JAR : " + dependencyArtifactFile.getAbsolutePath(), e );
 		}
 	}
 
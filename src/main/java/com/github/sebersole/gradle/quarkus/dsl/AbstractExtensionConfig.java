@@ -84,6 +84,17 @@ public abstract class AbstractExtensionConfig implements ExtensionConfig, Conver
 		action.execute( artifact( notation ) );
 	}
 
+	@Override
+	public void includePackages(String... packageNames) {
+		// the patterns of all extensions are collected into the single, global filter
+		buildDetails.getIndexingConfigProvider().get().includePackages( packageNames );
+	}
+
+	@Override
+	public void excludePackages(String... packageNames) {
+		buildDetails.getIndexingConfigProvider().get().excludePackages( packageNames );
+	}
+
 	@Override
 	public Extension convert(Services services) {
 		final ResolvedDependency resolvedRuntimeDependency = resolveRuntimeArtifact( runtimeArtifact, runtimeDependencies, services );
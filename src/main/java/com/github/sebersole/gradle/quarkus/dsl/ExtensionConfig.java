@@ -28,4 +28,14 @@ public interface ExtensionConfig extends Named {
 	Dependency artifact(Object notation);
 	void artifact(Object notation, Closure<Dependency> closure);
 	void artifact(Object notation, Action<Dependency> action);
+
+	/**
+	 * Packages from external artifacts the extension needs indexed when sparse indexing is enabled
+	 */
+	void includePackages(String... packageNames);
+
+	/**
+	 * Packages from external artifacts the extension does not need indexed when sparse indexing is enabled
+	 */
+	void excludePackages(String... packageNames);
 }
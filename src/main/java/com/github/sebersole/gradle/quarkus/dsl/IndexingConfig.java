@@ -0,0 +1,234 @@
+package com.github.sebersole.gradle.quarkus.dsl;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Configuration for the Jandex indexing performed by the plugin
+ */
+public class IndexingConfig implements Serializable {
+	/**
+	 * Default maximum size, in megabytes, of the shared index store
+	 */
+	public static final long DEFAULT_SHARED_CACHE_SIZE = 1024;
+
+	/**
+	 * Default number of class bytes buffered between reading and indexing
+	 */
+	public static final int DEFAULT_INDEXING_QUEUE_DEPTH = 512;
+
+	/**
+	 * Default heap budget, in megabytes, for parsed indexes kept in memory across builds
+	 */
+	public static final long DEFAULT_PARSED_INDEX_CACHE_SIZE = 256;
+
+	private boolean sharedCacheEnabled = true;
+	private long sharedCacheSize = DEFAULT_SHARED_CACHE_SIZE;
+
+	private long parsedIndexCacheSize = DEFAULT_PARSED_INDEX_CACHE_SIZE;
+
+	private boolean compressIndexes;
+
+	private int indexingThreads = Runtime.getRuntime().availableProcessors();
+	private int indexingQueueDepth = DEFAULT_INDEXING_QUEUE_DEPTH;
+
+	private Integer maxParallelIndexing;
+
+	private String indexProfile = "full";
+
+	private boolean offHeapIndex;
+
+	private boolean sparseIndexing;
+	private final Set<String> includedPackages = new LinkedHashSet<>();
+	private final Set<String> excludedPackages = new LinkedHashSet<>();
+
+	public IndexingConfig() {
+	}
+
+	/**
+	 * Whether indexes for external artifacts should be shared across builds through
+	 * a store in the Gradle user home
+	 */
+	public boolean isSharedCacheEnabled() {
+		return sharedCacheEnabled;
+	}
+
+	public void setSharedCacheEnabled(boolean sharedCacheEnabled) {
+		this.sharedCacheEnabled = sharedCacheEnabled;
+	}
+
+	public void sharedCacheEnabled(boolean sharedCacheEnabled) {
+		setSharedCacheEnabled( sharedCacheEnabled );
+	}
+
+	/**
+	 * The maximum size, in megabytes, of the shared index store.  Least recently
+	 * used entries are evicted once this size is exceeded
+	 */
+	public long getSharedCacheSize() {
+		return sharedCacheSize;
+	}
+
+	public void setSharedCacheSize(long sharedCacheSize) {
+		this.sharedCacheSize = sharedCacheSize;
+	}
+
+	public void sharedCacheSize(long sharedCacheSize) {
+		setSharedCacheSize( sharedCacheSize );
+	}
+
+	/**
+	 * The approximate heap budget, in megabytes, for parsed indexes kept in memory by the
+	 * Gradle daemon across builds.  A value of 0 disables the cache
+	 */
+	public long getParsedIndexCacheSize() {
+		return parsedIndexCacheSize;
+	}
+
+	public void setParsedIndexCacheSize(long parsedIndexCacheSize) {
+		this.parsedIndexCacheSize = parsedIndexCacheSize;
+	}
+
+	public void parsedIndexCacheSize(long parsedIndexCacheSize) {
+		setParsedIndexCacheSize( parsedIndexCacheSize );
+	}
+
+	/**
+	 * Whether index files written by the plugin should be compressed.  Trades CPU for
+	 * disk space; disabled by default
+	 */
+	public boolean isCompressIndexes() {
+		return compressIndexes;
+	}
+
+	public void setCompressIndexes(boolean compressIndexes) {
+		this.compressIndexes = compressIndexes;
+	}
+
+	public void compressIndexes(boolean compressIndexes) {
+		setCompressIndexes( compressIndexes );
+	}
+
+	/**
+	 * The number of threads used to index the classes from a single jar or classes
+	 * directory.  Defaults to the number of available processors; a value of 1 indexes
+	 * the classes on the calling thread
+	 */
+	public int getIndexingThreads() {
+		return indexingThreads;
+	}
+
+	public void setIndexingThreads(int indexingThreads) {
+		this.indexingThreads = indexingThreads;
+	}
+
+	public void indexingThreads(int indexingThreads) {
+		setIndexingThreads( indexingThreads );
+	}
+
+	/**
+	 * The maximum number of read, but not yet indexed, classes buffered between the
+	 * reading and indexing of a jar or classes directory
+	 */
+	public int getIndexingQueueDepth() {
+		return indexingQueueDepth;
+	}
+
+	public void setIndexingQueueDepth(int indexingQueueDepth) {
+		this.indexingQueueDepth = indexingQueueDepth;
+	}
+
+	public void indexingQueueDepth(int indexingQueueDepth) {
+		setIndexingQueueDepth( indexingQueueDepth );
+	}
+
+	/**
+	 * The detail kept in the indexes of external artifacts - `full` (the default) or `slim`.  `slim`
+	 * keeps member (field, method) detail only for classes using annotations
+	 */
+	public String getIndexProfile() {
+		return indexProfile;
+	}
+
+	public void setIndexProfile(String indexProfile) {
+		this.indexProfile = indexProfile;
+	}
+
+	public void indexProfile(String indexProfile) {
+		setIndexProfile( indexProfile );
+	}
+
+	/**
+	 * Whether the composite index should be served from memory-mapped lookup tables rather
+	 * than a single in-heap index.  Meant for very large classpaths; disabled by default
+	 */
+	public boolean isOffHeapIndex() {
+		return offHeapIndex;
+	}
+
+	public void setOffHeapIndex(boolean offHeapIndex) {
+		this.offHeapIndex = offHeapIndex;
+	}
+
+	public void offHeapIndex(boolean offHeapIndex) {
+		setOffHeapIndex( offHeapIndex );
+	}
+
+	/**
+	 * Whether only the classes from the included (and not excluded) packages of external
+	 * artifacts should be indexed.  Disabled by default
+	 */
+	public boolean isSparseIndexing() {
+		return sparseIndexing;
+	}
+
+	public void setSparseIndexing(boolean sparseIndexing) {
+		this.sparseIndexing = sparseIndexing;
+	}
+
+	public void sparseIndexing(boolean sparseIndexing) {
+		setSparseIndexing( sparseIndexing );
+	}
+
+	/**
+	 * Packages (and their sub-packages) to index from external artifacts when sparse indexing is
+	 * enabled.  If none are included, all packages not explicitly excluded are indexed
+	 */
+	public Set<String> getIncludedPackages() {
+		return includedPackages;
+	}
+
+	public void includePackages(String... packageNames) {
+		includedPackages.addAll( Arrays.asList( packageNames ) );
+	}
+
+	/**
+	 * Packages (and their sub-packages) to skip from external artifacts when sparse indexing is enabled
+	 */
+	public Set<String> getExcludedPackages() {
+		return excludedPackages;
+	}
+
+	public void excludePackages(String... packageNames) {
+		excludedPackages.addAll( Arrays.asList( packageNames ) );
+	}
+
+	/**
+	 * The maximum number of projects indexing at the same time, through the indexes shared across
+	 * the build.  Unlimited ({@code null}) by default.  In multi-project builds, the value from the
+	 * first project applying the plugin is used
+	 */
+	public Integer getMaxParallelIndexing() {
+		return maxParallelIndexing;
+	}
+
+	public void setMaxParallelIndexing(Integer maxParallelIndexing) {
+		this.maxParallelIndexing = maxParallelIndexing;
+	}
+
+	public void maxParallelIndexing(Integer maxParallelIndexing) {
+		setMaxParallelIndexing( maxParallelIndexing );
+	}
+}
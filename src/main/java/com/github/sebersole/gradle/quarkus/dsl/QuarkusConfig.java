@@ -51,6 +51,14 @@ public class QuarkusConfig {
 		action.execute( buildDetails.getNativeArgumentsProvider().get() );
 	}
 
+	public void indexing(Closure<IndexingConfig> closure) {
+		ConfigureUtil.configure( closure, buildDetails.getIndexingConfigProvider().get() );
+	}
+
+	public void indexing(Action<IndexingConfig> action) {
+		action.execute( buildDetails.getIndexingConfigProvider().get() );
+	}
+
 	public void platforms(Closure closure) {
 		// NOTE : PlatformsConfigGroovyDelegate adds support for specifying "well known" platforms.  i.e.
 		//		platforms {
@@ -1,12 +1,10 @@
 package com.github.sebersole.gradle.quarkus.extension;
 
 import java.io.File;
-import java.io.IOException;
 import java.util.Locale;
 import java.util.Objects;
 import java.util.Properties;
 import java.util.Set;
-import java.util.zip.ZipFile;
 
 import org.gradle.api.GradleException;
 import org.gradle.api.Project;
@@ -16,6 +14,7 @@ import org.gradle.api.artifacts.Dependency;
 import org.gradle.api.artifacts.ProjectDependency;
 import org.gradle.api.artifacts.ResolvedArtifact;
 
+import com.github.sebersole.gradle.quarkus.service.ArtifactProbe;
 import com.github.sebersole.gradle.quarkus.service.BuildDetails;
 import com.github.sebersole.gradle.quarkus.Helper;
 import com.github.sebersole.gradle.quarkus.Logging;
@@ -53,8 +52,7 @@ public class ExtensionCreationSupport {
 			//		really we should never have conflicting "module versions", right?
 			if ( Objects.equals( artifactIdentifier, extensionRuntimeArtifact.getModuleVersionIdentifier() ) ) {
 				// `resolvedArtifact` is the extension's runtime artifact
-				final Object marker = extractExtensionMarker( resolvedArtifact );
-				if ( marker == null ) {
+				if ( ! hasExtensionMarker( resolvedArtifact, services ) ) {
 					Logging.LOGGER.warn(
 							String.format(
 									Locale.ROOT,
@@ -66,7 +64,7 @@ public class ExtensionCreationSupport {
 					);
 				}
 			}
-			else if ( isExtension( resolvedArtifact ) ) {
+			else if ( isExtension( resolvedArtifact, services ) ) {
 				// `resolvedArtifact` is an implied extension - create an extension if
 				// 		there is not already one
 
@@ -89,38 +87,25 @@ public class ExtensionCreationSupport {
 	}
 
 
-	private static boolean isExtension(ResolvedArtifact resolvedArtifact) {
+	private static boolean isExtension(ResolvedArtifact resolvedArtifact, Services services) {
 		if ( ! "pom".equals( resolvedArtifact.getClassifier() ) ) {
-			final Object marker = extractExtensionMarker( resolvedArtifact );
-			return marker != null;
+			return hasExtensionMarker( resolvedArtifact, services );
 		}
 
 		return false;
 	}
 
-	private static Object extractExtensionMarker(ResolvedArtifact resolvedArtifact) {
+	private static boolean hasExtensionMarker(ResolvedArtifact resolvedArtifact, Services services) {
 		final File artifactFile = resolvedArtifact.getFile();
 
 		if ( artifactFile.isDirectory() ) {
 			// try to find it relative to the directory
-			final File marker = new File( artifactFile, EXTENSION_PROP_FILE );
-			if ( marker.exists() ) {
-				return marker;
-			}
-
-			return null;
-		}
-
-		// try as a JAR
-		try {
-			final ZipFile zipFile = new ZipFile( artifactFile );
-			return zipFile.getEntry( EXTENSION_PROP_FILE );
-		}
-		catch ( IOException e ) {
-			// not a jar
+			return new File( artifactFile, EXTENSION_PROP_FILE ).exists();
 		}
 
-		return null;
+		// try as a JAR - non-JARs simply do not have the marker
+		final ArtifactProbe probe = services.getArchiveAccess().get().probe( artifactFile );
+		return probe != null && probe.isExtension();
 	}
 
 	public static Configuration createRuntimeDependencyConfiguration(String name, BuildDetails buildDetails) {
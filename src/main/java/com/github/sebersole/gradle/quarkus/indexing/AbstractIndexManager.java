@@ -0,0 +1,175 @@
+package com.github.sebersole.gradle.quarkus.indexing;
+
+import java.io.File;
+import java.lang.ref.SoftReference;
+
+import org.gradle.api.GradleException;
+
+import org.jboss.jandex.Index;
+
+import com.github.sebersole.gradle.quarkus.Logging;
+
+/**
+ * Base support for IndexManager implementations.
+ *
+ * @implNote The resolved index is only softly held, so it may be dropped under memory
+ * pressure; it is transparently re-read from the index file the next time it is needed.
+ * The same applies to an index which was never resolved during this build, but whose
+ * index file is available from a previous one.
+ */
+public abstract class AbstractIndexManager implements IndexManager {
+	private final File indexFile;
+	private final boolean compressIndex;
+
+	private transient SoftReference<Index> indexReference;
+	private transient IndexSummary summary;
+	private boolean resolved;
+
+	protected AbstractIndexManager(File indexFile) {
+		this( indexFile, false );
+	}
+
+	/**
+	 * @param compressIndex Whether the index file is written compressed (see IndexFiles)
+	 */
+	protected AbstractIndexManager(File indexFile, boolean compressIndex) {
+		this.indexFile = indexFile;
+		this.compressIndex = compressIndex;
+	}
+
+	@Override
+	public File getIndexFile() {
+		return indexFile;
+	}
+
+	@Override
+	public File getSummaryFile() {
+		return IndexSummary.summaryFile( indexFile );
+	}
+
+	@Override
+	public synchronized IndexSummary getSummary() {
+		if ( summary == null ) {
+			final Index held = indexReference == null ? null : indexReference.get();
+			summary = held != null ? IndexSummary.from( held ) : IndexSummary.read( getSummaryFile() );
+		}
+
+		return summary;
+	}
+
+	@Override
+	public boolean isResolved() {
+		return resolved;
+	}
+
+	@Override
+	public Resolution resolve() {
+		return generateIndex() == null ? Resolution.NONE : Resolution.GENERATED;
+	}
+
+	@Override
+	public synchronized Index getIndex() {
+		final Index held = indexReference == null ? null : indexReference.get();
+		if ( held != null ) {
+			return held;
+		}
+
+		if ( ! indexFile.exists() ) {
+			if ( resolved ) {
+				// resolution did not produce an index (not a jar, e.g.)
+				return null;
+			}
+
+			throw new GradleException( "Jandex index is not yet resolved : " + indexFile.getAbsolutePath() );
+		}
+
+		Logging.LOGGER.debug( "Loading Jandex index on demand : {}", indexFile.getAbsolutePath() );
+		return loadOrRegenerateIndex();
+	}
+
+	@Override
+	public synchronized Index getHeldIndex() {
+		return indexReference == null ? null : indexReference.get();
+	}
+
+	/**
+	 * Load the index from the index file, regenerating it if the index file was found to be
+	 * corrupt (see IndexFiles)
+	 */
+	protected synchronized Index loadOrRegenerateIndex() {
+		final Index loaded = loadIndex();
+		if ( loaded != null || indexFile.exists() ) {
+			return registerResolved( loaded );
+		}
+
+		// the corrupt index file was discarded
+		Logging.LOGGER.debug( "Regenerating Jandex index : {}", indexFile.getAbsolutePath() );
+		resolved = false;
+
+		return registerResolved( generateIndex() );
+	}
+
+	/**
+	 * Load the index from the index file
+	 */
+	protected Index loadIndex() {
+		return JandexHelper.readJandexIndex( indexFile );
+	}
+
+	/**
+	 * Write the index, along with its summary, to the index file
+	 */
+	protected void writeIndex(Index index) {
+		JandexHelper.writeIndexToFile( indexFile, index, compressIndex );
+		writeSummary( index );
+	}
+
+	/**
+	 * Write the summary of the index next to the index file
+	 */
+	protected synchronized void writeSummary(Index index) {
+		summary = IndexSummary.from( index );
+		summary.write( getSummaryFile() );
+	}
+
+	/**
+	 * Write the summary of the index if the index is currently held but has no summary file (an embedded
+	 * index copied verbatim, e.g.).  Only called by the Jandex task, whose output the summary is - an index
+	 * parsed outside the task is never summarized then
+	 */
+	public synchronized void writeMissingSummary() {
+		final Index held = indexReference == null ? null : indexReference.get();
+		if ( held != null && ! getSummaryFile().exists() ) {
+			writeSummary( held );
+		}
+	}
+
+	/**
+	 * Remove the summary, which would otherwise be stale
+	 */
+	protected synchronized void deleteSummary() {
+		summary = null;
+		//noinspection ResultOfMethodCallIgnored
+		getSummaryFile().delete();
+	}
+
+	/**
+	 * Register that the index file was resolved without holding on to the index itself.  The
+	 * index is loaded on first use
+	 */
+	protected synchronized void registerResolvedFile() {
+		this.indexReference = null;
+		this.summary = null;
+		this.resolved = true;
+	}
+
+	/**
+	 * Register the resolved index.  The index is softly held
+	 */
+	protected synchronized Index registerResolved(Index index) {
+		this.indexReference = index == null ? null : new SoftReference<>( index );
+		this.resolved = true;
+
+		return index;
+	}
+}
@@ -0,0 +1,194 @@
+package com.github.sebersole.gradle.quarkus.indexing;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import org.gradle.api.GradleException;
+
+import com.github.sebersole.gradle.quarkus.Logging;
+
+/**
+ * Cheap fingerprint of an archive's contents, computed from its ZIP central directory (the
+ * name, CRC-32 and sizes of each entry, plus the entry count) rather than from the complete
+ * archive.  Only the end of the archive is read - the central directory is located by seeking
+ * to the "end of central directory" record.
+ *
+ * @implNote Falls back to hashing the complete file for archives the central directory
+ * cannot be used for (ZIP64, e.g.) and for non-archives
+ */
+public class ArchiveFingerprint {
+	private static final int EOCD_SIGNATURE = 0x06054b50;
+	private static final int EOCD_MIN_LENGTH = 22;
+	private static final int MAX_COMMENT_LENGTH = 0xFFFF;
+
+	private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+	private static final int CENTRAL_HEADER_LENGTH = 46;
+
+	private static final int MAX_ENTRY_COUNT = 0xFFFF;
+	private static final long MAX_ENTRY_SIZE = 0xFFFFFFFFL;
+
+	private static final String CENTRAL_DIRECTORY_PREFIX = "cd-";
+	private static final String FULL_HASH_PREFIX = "sha-";
+
+	private ArchiveFingerprint() {
+		// disallow direct instantiation
+	}
+
+	/**
+	 * Compute the fingerprint for the given archive
+	 *
+	 * @return The fingerprint, or {@code null} if the file could not be read
+	 */
+	public static String of(File archive) {
+		try {
+			final String centralDirectoryFingerprint = fromCentralDirectory( archive );
+			if ( centralDirectoryFingerprint != null ) {
+				return centralDirectoryFingerprint;
+			}
+
+			return fromContents( archive );
+		}
+		catch (IOException e) {
+			Logging.LOGGER.debug( "Unable to fingerprint archive `{}` : {}", archive.getAbsolutePath(), e.getMessage() );
+			return null;
+		}
+	}
+
+	private static String fromCentralDirectory(File archive) throws IOException {
+		try ( final RandomAccessFile file = new RandomAccessFile( archive, "r" ) ) {
+			final long length = file.length();
+			if ( length < EOCD_MIN_LENGTH ) {
+				return null;
+			}
+
+			// the EOCD record is at the very end of the archive, followed only by the (optional) archive comment
+			final int tailLength = (int) Math.min( length, EOCD_MIN_LENGTH + MAX_COMMENT_LENGTH );
+			final byte[] tail = new byte[ tailLength ];
+			file.seek( length - tailLength );
+			file.readFully( tail );
+
+			final ByteBuffer tailBuffer = ByteBuffer.wrap( tail ).order( ByteOrder.LITTLE_ENDIAN );
+			int eocdPosition = -1;
+			for ( int i = tailLength - EOCD_MIN_LENGTH; i >= 0; i-- ) {
+				if ( tailBuffer.getInt( i ) == EOCD_SIGNATURE ) {
+					eocdPosition = i;
+					break;
+				}
+			}
+
+			if ( eocdPosition < 0 ) {
+				// not an archive
+				return null;
+			}
+
+			final int entryCount = tailBuffer.getShort( eocdPosition + 10 ) & 0xFFFF;
+			final long directorySize = tailBuffer.getInt( eocdPosition + 12 ) & 0xFFFFFFFFL;
+			final long directoryOffset = tailBuffer.getInt( eocdPosition + 16 ) & 0xFFFFFFFFL;
+
+			if ( entryCount == MAX_ENTRY_COUNT || directorySize == MAX_ENTRY_SIZE || directoryOffset == MAX_ENTRY_SIZE ) {
+				// ZIP64
+				return null;
+			}
+
+			if ( directoryOffset + directorySize > length || directorySize > Integer.MAX_VALUE ) {
+				return null;
+			}
+
+			final byte[] directory = new byte[ (int) directorySize ];
+			file.seek( directoryOffset );
+			file.readFully( directory );
+
+			return digestCentralDirectory( ByteBuffer.wrap( directory ).order( ByteOrder.LITTLE_ENDIAN ), entryCount );
+		}
+	}
+
+	private static String digestCentralDirectory(ByteBuffer directory, int entryCount) {
+		final MessageDigest digest = sha256();
+		final ByteBuffer values = ByteBuffer.allocate( 8 * 3 );
+
+		int position = 0;
+		for ( int i = 0; i < entryCount; i++ ) {
+			if ( position + CENTRAL_HEADER_LENGTH > directory.limit() || directory.getInt( position ) != CENTRAL_HEADER_SIGNATURE ) {
+				// corrupt (or unexpected) central directory
+				return null;
+			}
+
+			final long crc = directory.getInt( position + 16 ) & 0xFFFFFFFFL;
+			final long compressedSize = directory.getInt( position + 20 ) & 0xFFFFFFFFL;
+			final long size = directory.getInt( position + 24 ) & 0xFFFFFFFFL;
+			final int nameLength = directory.getShort( position + 28 ) & 0xFFFF;
+			final int extraLength = directory.getShort( position + 30 ) & 0xFFFF;
+			final int commentLength = directory.getShort( position + 32 ) & 0xFFFF;
+
+			if ( position + CENTRAL_HEADER_LENGTH + nameLength > directory.limit() ) {
+				return null;
+			}
+
+			digest.update( directory.array(), position + CENTRAL_HEADER_LENGTH, nameLength );
+			digestEntryValues( digest, values, crc, compressedSize, size );
+
+			position += CENTRAL_HEADER_LENGTH + nameLength + extraLength + commentLength;
+		}
+
+		return CENTRAL_DIRECTORY_PREFIX + entryCount + "-" + toHex( digest.digest() );
+	}
+
+	private static void digestEntryValues(MessageDigest digest, ByteBuffer values, long crc, long compressedSize, long size) {
+		values.clear();
+		values.putLong( crc ).putLong( compressedSize ).putLong( size );
+		digest.update( values.array() );
+	}
+
+	private static String fromContents(File file) throws IOException {
+		try ( final InputStream stream = new FileInputStream( file ) ) {
+			final MessageDigest digest = sha256();
+			final byte[] buffer = new byte[ 64 * 1024 ];
+
+			int read;
+			while ( ( read = stream.read( buffer ) ) != -1 ) {
+				digest.update( buffer, 0, read );
+			}
+
+			return FULL_HASH_PREFIX + toHex( digest.digest() );
+		}
+	}
+
+	/**
+	 * Digest the fingerprint, along with an optional discriminator (the indexing filter, e.g.),
+	 * into a fixed-length hex key
+	 */
+	public static String toKey(String fingerprint, String discriminator) {
+		final MessageDigest digest = sha256();
+		digest.update( fingerprint.getBytes( StandardCharsets.UTF_8 ) );
+		if ( discriminator != null ) {
+			digest.update( discriminator.getBytes( StandardCharsets.UTF_8 ) );
+		}
+		return toHex( digest.digest() );
+	}
+
+	private static MessageDigest sha256() {
+		try {
+			return MessageDigest.getInstance( "SHA-256" );
+		}
+		catch (NoSuchAlgorithmException e) {
+			throw new GradleException( "SHA-256 MessageDigest not available", e );
+		}
+	}
+
+	private static String toHex(byte[] bytes) {
+		final StringBuilder buffer = new StringBuilder( bytes.length * 2 );
+		for ( int i = 0; i < bytes.length; i++ ) {
+			buffer.append( Character.forDigit( ( bytes[ i ] >> 4 ) & 0xF, 16 ) );
+			buffer.append( Character.forDigit( bytes[ i ] & 0xF, 16 ) );
+		}
+		return buffer.toString();
+	}
+}
@@ -0,0 +1,302 @@
+package com.github.sebersole.gradle.quarkus.indexing;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.FileSystemLoopException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.gradle.api.GradleException;
+
+import org.jboss.jandex.ClassInfo;
+import org.jboss.jandex.Index;
+import org.jboss.jandex.Indexer;
+
+import com.github.sebersole.gradle.quarkus.Logging;
+
+/**
+ * Walks classes directories indexing each class file.  Each directory is listed via
+ * {@link Files#walkFileTree} (re-using the attributes read during the listing rather than querying
+ * each file again).  Symbolic links are followed; a directory reached more than once (through a
+ * link cycle, e.g.) is only walked once.
+ *
+ * Directory trees with at least {@link ClassIndexingPipeline#MINIMUM_PIPELINED_CLASSES} classes
+ * are walked in parallel - each sub-directory is a separate task on the executor shared with the
+ * ClassIndexingPipeline, indexing into an Indexer per thread.  Smaller trees are walked on the
+ * calling thread.
+ *
+ * @implNote The tasks never wait on each other (sub-directories are submitted rather than joined),
+ * so walks cannot exhaust the shared executor
+ */
+public class ClassDirectoryWalker {
+	private static final String CLASS_FILE_SUFFIX = ".class";
+
+	private static final Set<FileVisitOption> FOLLOW_LINKS = EnumSet.of( FileVisitOption.FOLLOW_LINKS );
+
+	private ClassDirectoryWalker() {
+		// disallow direct instantiation
+	}
+
+	/**
+	 * Index all classes in the directories
+	 *
+	 * @param parallel Whether large directory trees may be walked in parallel
+	 */
+	public static Index index(Iterable<File> directories, boolean parallel) {
+		final List<Path> roots = resolveRoots( directories );
+		if ( roots.isEmpty() ) {
+			return new Indexer().complete();
+		}
+
+		try {
+			if ( parallel && countClasses( roots, ClassIndexingPipeline.MINIMUM_PIPELINED_CLASSES ) >= ClassIndexingPipeline.MINIMUM_PIPELINED_CLASSES ) {
+				return new ParallelWalk().index( roots );
+			}
+
+			final Indexer indexer = new Indexer();
+			final Set<Path> visitedDirectories = new HashSet<>();
+			for ( Path root : roots ) {
+				walkSequentially( root, indexer, visitedDirectories );
+			}
+			return indexer.complete();
+		}
+		catch (UncheckedIOException e) {
+			throw new GradleException( "Unable to read classes to index", e.getCause() );
+		}
+	}
+
+	private static List<Path> resolveRoots(Iterable<File> directories) {
+		final List<Path> roots = new ArrayList<>();
+		for ( File directory : directories ) {
+			if ( ! directory.exists() ) {
+				Logging.LOGGER.debug( "Skipping indexing of directory because it does not exist : {}", directory.getAbsolutePath() );
+				continue;
+			}
+
+			if ( ! directory.isDirectory() ) {
+				throw new GradleException( "Directory to apply to Indexer was not a directory : " + directory.getAbsolutePath() );
+			}
+
+			roots.add( directory.toPath() );
+		}
+		return roots;
+	}
+
+	/**
+	 * Count the class files in the directories, stopping once `limit` is reached
+	 */
+	private static int countClasses(List<Path> roots, int limit) {
+		final int[] count = new int[1];
+		try {
+			for ( Path root : roots ) {
+				Files.walkFileTree(
+						root,
+						FOLLOW_LINKS,
+						Integer.MAX_VALUE,
+						new SimpleFileVisitor<Path>() {
+							@Override
+							public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+								if ( isClassFile( file, attributes ) && ++count[0] >= limit ) {
+									return FileVisitResult.TERMINATE;
+								}
+								return FileVisitResult.CONTINUE;
+							}
+
+							@Override
+							public FileVisitResult visitFileFailed(Path file, IOException e) throws IOException {
+								if ( e instanceof FileSystemLoopException ) {
+									return FileVisitResult.CONTINUE;
+								}
+								throw e;
+							}
+						}
+				);
+
+				if ( count[0] >= limit ) {
+					break;
+				}
+			}
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException( e );
+		}
+		return count[0];
+	}
+
+	private static void walkSequentially(Path directory, Indexer indexer, Set<Path> visitedDirectories) {
+		if ( ! visitedDirectories.add( realPath( directory ) ) ) {
+			return;
+		}
+
+		walkDirectory(
+				directory,
+				(file, size) -> ClassIndexingPipeline.indexClass( file.toString(), readClassFile( file, size ), indexer ),
+				subDirectory -> walkSequentially( subDirectory, indexer, visitedDirectories )
+		);
+	}
+
+	/**
+	 * Handle the class files directly within the directory, passing each sub-directory to `subDirectoryHandler`
+	 */
+	private static void walkDirectory(Path directory, ClassFileHandler classFileHandler, SubDirectoryHandler subDirectoryHandler) {
+		try {
+			Files.walkFileTree(
+					directory,
+					FOLLOW_LINKS,
+					1,
+					new SimpleFileVisitor<Path>() {
+						@Override
+						public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) throws IOException {
+							if ( attributes.isDirectory() ) {
+								// with a max-depth of 1, sub-directories are reported as files
+								subDirectoryHandler.handle( file );
+							}
+							else if ( isClassFile( file, attributes ) ) {
+								classFileHandler.handle( file, attributes.size() );
+							}
+							return FileVisitResult.CONTINUE;
+						}
+					}
+			);
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException( e );
+		}
+	}
+
+	private static boolean isClassFile(Path file, BasicFileAttributes attributes) {
+		return attributes.isRegularFile() && file.getFileName().toString().endsWith( CLASS_FILE_SUFFIX );
+	}
+
+	private static Path realPath(Path directory) {
+		try {
+			return directory.toRealPath();
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException( e );
+		}
+	}
+
+	private static byte[] readClassFile(Path file, long size) throws IOException {
+		if ( size > Integer.MAX_VALUE ) {
+			throw new IOException( "Class file too large : " + file );
+		}
+
+		final byte[] bytes = new byte[ (int) size ];
+		int read = 0;
+		try ( final InputStream inputStream = new FileInputStream( file.toFile() ) ) {
+			while ( read < bytes.length ) {
+				final int count = inputStream.read( bytes, read, bytes.length - read );
+				if ( count < 0 ) {
+					// the file shrunk since it was listed
+					break;
+				}
+				read += count;
+			}
+		}
+
+		if ( read < bytes.length ) {
+			final byte[] truncated = new byte[ read ];
+			System.arraycopy( bytes, 0, truncated, 0, read );
+			return truncated;
+		}
+		return bytes;
+	}
+
+	@FunctionalInterface
+	private interface ClassFileHandler {
+		void handle(Path file, long size) throws IOException;
+	}
+
+	@FunctionalInterface
+	private interface SubDirectoryHandler {
+		void handle(Path subDirectory);
+	}
+
+	/**
+	 * A walk of directory trees on the shared executor.  Each task walks a single directory,
+	 * submitting a further task per sub-directory; the walk is done once no task is outstanding
+	 */
+	private static class ParallelWalk {
+		private final Map<Thread, Indexer> indexers = new ConcurrentHashMap<>();
+		private final Set<Path> visitedDirectories = Collections.newSetFromMap( new ConcurrentHashMap<>() );
+
+		private final AtomicInteger outstanding = new AtomicInteger();
+		private final CountDownLatch done = new CountDownLatch( 1 );
+		private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+		private Index index(List<Path> roots) {
+			outstanding.set( roots.size() );
+			roots.forEach( this::submit );
+
+			try {
+				done.await();
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				failure.compareAndSet( null, e );
+				throw new GradleException( "Interrupted while indexing classes", e );
+			}
+
+			final Throwable walkFailure = failure.get();
+			if ( walkFailure instanceof UncheckedIOException ) {
+				throw (UncheckedIOException) walkFailure;
+			}
+			if ( walkFailure != null ) {
+				throw new GradleException( "Unable to index classes", walkFailure );
+			}
+
+			final List<ClassInfo> classes = new ArrayList<>();
+			indexers.values().forEach( indexer -> classes.addAll( indexer.complete().getKnownClasses() ) );
+			return JandexHelper.createIndex( classes );
+		}
+
+		private void submit(Path directory) {
+			ClassIndexingPipeline.executor().execute( () -> walk( directory ) );
+		}
+
+		private void walk(Path directory) {
+			try {
+				// after a failure the remaining tasks only drain
+				if ( failure.get() == null && visitedDirectories.add( realPath( directory ) ) ) {
+					final Indexer indexer = indexers.computeIfAbsent( Thread.currentThread(), thread -> new Indexer() );
+					walkDirectory(
+							directory,
+							(file, size) -> ClassIndexingPipeline.indexClass( file.toString(), readClassFile( file, size ), indexer ),
+							subDirectory -> {
+								outstanding.incrementAndGet();
+								submit( subDirectory );
+							}
+					);
+				}
+			}
+			catch (Throwable t) {
+				failure.compareAndSet( null, t );
+				done.countDown();
+			}
+			finally {
+				if ( outstanding.decrementAndGet() == 0 ) {
+					done.countDown();
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,303 @@
+package com.github.sebersole.gradle.quarkus.indexing;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.gradle.api.GradleException;
+
+import org.jboss.jandex.ClassInfo;
+import org.jboss.jandex.Index;
+import org.jboss.jandex.Indexer;
+
+import com.github.sebersole.gradle.quarkus.Logging;
+import com.github.sebersole.gradle.quarkus.dsl.IndexingConfig;
+
+/**
+ * Two-stage pipeline for indexing classes.  The first stage (the calling thread) reads
+ * the raw class bytes from the source into a bounded queue; the second stage is a number
+ * of workers, each feeding those bytes to its own Indexer.  The per-worker indexes
+ * are then merged.
+ *
+ * This keeps the I/O of reading the source and the CPU work of parsing the classes from
+ * stalling each other.  Small sources are simply indexed on the calling thread.
+ *
+ * @implNote The workers of all pipelines run on a single, JVM-wide executor bounded by the
+ * number of processors, so indexing many sources at once (in parallel Jandex task generations
+ * or artifact transforms) does not multiply the number of threads.  Its threads die when idle
+ */
+public class ClassIndexingPipeline {
+	/**
+	 * Sources with fewer (known) classes than this are indexed on the calling thread
+	 */
+	public static final int MINIMUM_PIPELINED_CLASSES = 256;
+
+	/**
+	 * Pipeline which always indexes on the calling thread
+	 */
+	public static final ClassIndexingPipeline SEQUENTIAL = new ClassIndexingPipeline( 1, 1 );
+
+	private static final int EXECUTOR_SIZE = Runtime.getRuntime().availableProcessors();
+	private static final long WORKER_KEEP_ALIVE_SECONDS = 30;
+
+	/**
+	 * How long the reading stage waits for queue space before checking for failed workers
+	 */
+	private static final long ENQUEUE_POLL_MILLIS = 100;
+
+	private static final ClassBytes END_OF_SOURCE = new ClassBytes( null, null );
+
+	private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+	private static volatile ThreadPoolExecutor executor;
+
+	private final int workerCount;
+	private final int queueDepth;
+
+	public ClassIndexingPipeline(int workerCount, int queueDepth) {
+		this.workerCount = workerCount;
+		this.queueDepth = queueDepth;
+	}
+
+	public static ClassIndexingPipeline from(IndexingConfig indexingConfig) {
+		return new ClassIndexingPipeline( indexingConfig.getIndexingThreads(), indexingConfig.getIndexingQueueDepth() );
+	}
+
+	/**
+	 * The number of workers used per source - the configured count, bounded by the shared executor
+	 */
+	public int getWorkerCount() {
+		return Math.max( 1, Math.min( workerCount, EXECUTOR_SIZE ) );
+	}
+
+	/**
+	 * The executor shared by all pipelines.  Tasks submitted to it must never block waiting on
+	 * other tasks submitted to it
+	 */
+	static ThreadPoolExecutor executor() {
+		ThreadPoolExecutor current = executor;
+		if ( current == null ) {
+			synchronized ( ClassIndexingPipeline.class ) {
+				current = executor;
+				if ( current == null ) {
+					current = new ThreadPoolExecutor(
+							EXECUTOR_SIZE,
+							EXECUTOR_SIZE,
+							WORKER_KEEP_ALIVE_SECONDS,
+							TimeUnit.SECONDS,
+							new LinkedBlockingQueue<>(),
+							runnable -> {
+								final Thread thread = new Thread( runnable, "quarkus-jandex-indexer-" + THREAD_COUNTER.incrementAndGet() );
+								thread.setDaemon( true );
+								return thread;
+							}
+					);
+					current.allowCoreThreadTimeOut( true );
+					executor = current;
+				}
+			}
+		}
+		return current;
+	}
+
+	/**
+	 * A source of classes to be indexed - a jar or a classes directory, e.g.
+	 */
+	@FunctionalInterface
+	public interface ClassSource {
+		void visitClasses(ClassVisitor visitor) throws IOException;
+	}
+
+	/**
+	 * Receives the raw bytes of each class from a ClassSource.  May be called concurrently
+	 * by sources which read classes using multiple threads
+	 */
+	@FunctionalInterface
+	public interface ClassVisitor {
+		void visitClass(String name, byte[] bytes);
+	}
+
+	/**
+	 * Index all classes from the source.
+	 *
+	 * @param expectedClassCount The (approximate) number of classes in the source, or a negative number if not known.
+	 * When not known, the pipeline is only started once the source proved large enough
+	 */
+	public Index index(ClassSource source, int expectedClassCount) {
+		if ( getWorkerCount() <= 1 || ( expectedClassCount >= 0 && expectedClassCount < MINIMUM_PIPELINED_CLASSES ) ) {
+			final Indexer indexer = new Indexer();
+			visitClasses(
+					source,
+					(name, bytes) -> {
+						synchronized ( indexer ) {
+							indexClass( name, bytes, indexer );
+						}
+					}
+			);
+			return indexer.complete();
+		}
+
+		final PipelineRun run = new PipelineRun( expectedClassCount >= 0 );
+		try {
+			visitClasses( source, run::accept );
+			return run.complete();
+		}
+		catch (RuntimeException | Error e) {
+			run.cancel();
+			throw e;
+		}
+	}
+
+	private static void visitClasses(ClassSource source, ClassVisitor visitor) {
+		try {
+			source.visitClasses( visitor );
+		}
+		catch (IOException e) {
+			throw new GradleException( "Unable to read classes to index", e );
+		}
+	}
+
+	static void indexClass(String name, byte[] bytes, Indexer indexer) {
+		try {
+			indexer.index( new ByteArrayInputStream( bytes ) );
+		}
+		catch (Exception e) {
+			Logging.LOGGER.debug( "Unable to index class (`{}`) : {}", name, e.getMessage() );
+		}
+	}
+
+	/**
+	 * A single run of the pipeline over a source
+	 */
+	private class PipelineRun {
+		private final BlockingQueue<ClassBytes> queue = new ArrayBlockingQueue<>( Math.max( 1, queueDepth ) );
+		private final List<Future<Index>> results = new ArrayList<>();
+		private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+		// classes read before the source proved large enough to start the workers
+		private List<ClassBytes> pending;
+
+		private PipelineRun(boolean start) {
+			if ( start ) {
+				startWorkers();
+			}
+			else {
+				pending = new ArrayList<>();
+			}
+		}
+
+		private void startWorkers() {
+			for ( int i = 0; i < getWorkerCount(); i++ ) {
+				results.add( executor().submit( this::consume ) );
+			}
+		}
+
+		private synchronized void accept(String name, byte[] bytes) {
+			if ( pending != null ) {
+				pending.add( new ClassBytes( name, bytes ) );
+				if ( pending.size() < MINIMUM_PIPELINED_CLASSES ) {
+					return;
+				}
+
+				startWorkers();
+				final List<ClassBytes> started = pending;
+				pending = null;
+				started.forEach( this::enqueue );
+				return;
+			}
+
+			enqueue( new ClassBytes( name, bytes ) );
+		}
+
+		private Index complete() {
+			synchronized ( this ) {
+				if ( pending != null ) {
+					// the source was small - index it on the calling thread
+					final Indexer indexer = new Indexer();
+					pending.forEach( classBytes -> indexClass( classBytes.name, classBytes.bytes, indexer ) );
+					return indexer.complete();
+				}
+			}
+
+			for ( int i = 0; i < results.size(); i++ ) {
+				enqueue( END_OF_SOURCE );
+			}
+
+			try {
+				final List<ClassInfo> classes = new ArrayList<>();
+				for ( Future<Index> result : results ) {
+					classes.addAll( result.get().getKnownClasses() );
+				}
+				return JandexHelper.createIndex( classes );
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				cancel();
+				throw new GradleException( "Interrupted while indexing classes", e );
+			}
+			catch (ExecutionException e) {
+				cancel();
+				throw new GradleException( "Unable to index classes", e.getCause() );
+			}
+		}
+
+		private void cancel() {
+			results.forEach( result -> result.cancel( true ) );
+		}
+
+		private Index consume() throws Exception {
+			final Indexer indexer = new Indexer();
+
+			try {
+				while ( true ) {
+					final ClassBytes classBytes = queue.take();
+					if ( classBytes == END_OF_SOURCE ) {
+						return indexer.complete();
+					}
+
+					indexClass( classBytes.name, classBytes.bytes, indexer );
+				}
+			}
+			catch (Throwable t) {
+				// stop the reading stage from waiting on a worker which no longer consumes
+				failure.compareAndSet( null, t );
+				throw t;
+			}
+		}
+
+		private void enqueue(ClassBytes classBytes) {
+			try {
+				while ( ! queue.offer( classBytes, ENQUEUE_POLL_MILLIS, TimeUnit.MILLISECONDS ) ) {
+					final Throwable workerFailure = failure.get();
+					if ( workerFailure != null ) {
+						throw new GradleException( "Unable to index classes", workerFailure );
+					}
+				}
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new GradleException( "Interrupted while indexing classes", e );
+			}
+		}
+	}
+
+	private static class ClassBytes {
+		private final String name;
+		private final byte[] bytes;
+
+		private ClassBytes(String name, byte[] bytes) {
+			this.name = name;
+			this.bytes = bytes;
+		}
+	}
+}
@@ -0,0 +1,204 @@
+package com.github.sebersole.gradle.quarkus.indexing;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.jboss.jandex.Index;
+
+import com.github.sebersole.gradle.quarkus.Logging;
+
+/**
+ * A single, pre-flattened snapshot of the composite index over all dependencies, along
+ * with a manifest of the index files which contributed to it.  Written by the Jandex task so
+ * that up-to-date builds can load the composite with a single sequential (memory-mapped) read
+ * rather than reading and merging one index file per dependency.
+ *
+ * @implNote The manifest records the name and content hash (see IndexFiles#contentHash) of each
+ * contributing index file - the checksum recorded in its header when written, so checking the manifest
+ * only reads the headers.  Not the file timestamps, so that the manifest still matches once the index
+ * files were restored from the build cache.  The snapshot is only used if the contributing index files
+ * are exactly the ones currently registered and none of them changed
+ */
+public class CompositeSnapshot {
+	public static final String SNAPSHOT_FILE_NAME = "___composite.idx";
+	public static final String MANIFEST_FILE_NAME = "___composite.manifest";
+
+	private static final char SEPARATOR = '\t';
+
+	private final File snapshotFile;
+	private final File manifestFile;
+	private final boolean compress;
+
+	public CompositeSnapshot(File jandexDirectory) {
+		this( jandexDirectory, false );
+	}
+
+	/**
+	 * @param compress Whether the snapshot is written compressed (see IndexFiles)
+	 */
+	public CompositeSnapshot(File jandexDirectory, boolean compress) {
+		this.snapshotFile = new File( jandexDirectory, SNAPSHOT_FILE_NAME );
+		this.manifestFile = new File( jandexDirectory, MANIFEST_FILE_NAME );
+		this.compress = compress;
+	}
+
+	public File getSnapshotFile() {
+		return snapshotFile;
+	}
+
+	public File getManifestFile() {
+		return manifestFile;
+	}
+
+	/**
+	 * Write the snapshot of the flattened composite and the manifest of its contributors
+	 */
+	public void write(Index flattened, Collection<? extends IndexManager> contributors) {
+		JandexHelper.writeIndexToFile( snapshotFile, flattened, compress );
+
+		try ( final BufferedWriter writer = Files.newBufferedWriter( manifestFile.toPath(), StandardCharsets.UTF_8 ) ) {
+			for ( Map.Entry<String, String> entry : describe( contributors ).entrySet() ) {
+				writer.write( entry.getKey() );
+				writer.write( SEPARATOR );
+				writer.write( entry.getValue() );
+				writer.newLine();
+			}
+		}
+		catch (IOException e) {
+			Logging.LOGGER.debug( "Unable to write composite Jandex manifest {} : {}", manifestFile.getAbsolutePath(), e.getMessage() );
+			//noinspection ResultOfMethodCallIgnored
+			manifestFile.delete();
+		}
+	}
+
+	/**
+	 * Whether the snapshot is current with regard to the given contributors
+	 */
+	public boolean isCurrent(Collection<? extends IndexManager> contributors) {
+		if ( ! snapshotFile.exists() || ! manifestFile.exists() ) {
+			return false;
+		}
+
+		final Map<String, String> recorded = new TreeMap<>();
+		try ( final BufferedReader reader = Files.newBufferedReader( manifestFile.toPath(), StandardCharsets.UTF_8 ) ) {
+			String line;
+			while ( ( line = reader.readLine() ) != null ) {
+				final int separatorPosition = line.indexOf( SEPARATOR );
+				if ( separatorPosition > 0 ) {
+					recorded.put( line.substring( 0, separatorPosition ), line.substring( separatorPosition + 1 ) );
+				}
+			}
+		}
+		catch (IOException e) {
+			Logging.LOGGER.debug( "Unable to read composite Jandex manifest {} : {}", manifestFile.getAbsolutePath(), e.getMessage() );
+			return false;
+		}
+
+		return recorded.equals( describe( contributors ) );
+	}
+
+	private static Map<String, String> describe(Collection<? extends IndexManager> contributors) {
+		final Map<String, String> description = new TreeMap<>();
+		for ( IndexManager contributor : contributors ) {
+			final File indexFile = contributor.getIndexFile();
+			if ( indexFile.exists() ) {
+				description.put( indexFile.getName(), contentHash( indexFile ) );
+			}
+		}
+		return description;
+	}
+
+	static String contentHash(File indexFile) {
+		try {
+			return IndexFiles.contentHash( indexFile );
+		}
+		catch (IOException e) {
+			// never matches a recorded hash
+			Logging.LOGGER.debug( "Unable to hash Jandex index file {} : {}", indexFile.getAbsolutePath(), e.getMessage() );
+			return "unreadable:" + System.nanoTime();
+		}
+	}
+
+	/**
+	 * Load the snapshot
+	 */
+	public Index load() {
+		return ParsedIndexCache.read( snapshotFile, CompositeSnapshot::mapAndRead );
+	}
+
+	private static Index mapAndRead(File snapshotFile) {
+		try ( final FileChannel channel = FileChannel.open( snapshotFile.toPath(), StandardOpenOption.READ ) ) {
+			final MappedByteBuffer buffer = channel.map( FileChannel.MapMode.READ_ONLY, 0, channel.size() );
+			return IndexFiles.read( new ByteBufferInputStream( buffer ), snapshotFile.getAbsolutePath() );
+		}
+		catch (CorruptIndexException e) {
+			Logging.LOGGER.warn( "Discarding corrupt composite Jandex snapshot {} : {}", snapshotFile.getAbsolutePath(), e.getMessage() );
+			//noinspection ResultOfMethodCallIgnored
+			snapshotFile.delete();
+			return null;
+		}
+		catch (IOException e) {
+			Logging.LOGGER.debug( "Unable to read composite Jandex snapshot {} : {}", snapshotFile.getAbsolutePath(), e.getMessage() );
+			return null;
+		}
+	}
+
+	/**
+	 * InputStream view of a ByteBuffer
+	 */
+	private static class ByteBufferInputStream extends InputStream {
+		private final ByteBuffer buffer;
+
+		private ByteBufferInputStream(ByteBuffer buffer) {
+			this.buffer = buffer;
+		}
+
+		@Override
+		public int read() {
+			return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+		}
+
+		@Override
+		public int read(byte[] bytes, int offset, int length) {
+			if ( ! buffer.hasRemaining() ) {
+				return -1;
+			}
+
+			final int count = Math.min( length, buffer.remaining() );
+			buffer.get( bytes, offset, count );
+			return count;
+		}
+
+		@Override
+		public int available() {
+			return buffer.remaining();
+		}
+
+		@Override
+		public boolean markSupported() {
+			return true;
+		}
+
+		@Override
+		public synchronized void mark(int readLimit) {
+			buffer.mark();
+		}
+
+		@Override
+		public synchronized void reset() {
+			buffer.reset();
+		}
+	}
+}
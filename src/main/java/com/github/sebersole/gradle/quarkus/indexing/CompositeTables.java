@@ -0,0 +1,437 @@
+package com.github.sebersole.gradle.quarkus.indexing;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+import org.jboss.jandex.ClassInfo;
+import org.jboss.jandex.DotName;
+import org.jboss.jandex.Index;
+import org.jboss.jandex.IndexView;
+
+import com.github.sebersole.gradle.quarkus.Logging;
+
+/**
+ * Sorted lookup tables over all contributing indexes, written by the Jandex task as a single
+ * file which is memory-mapped (see MappedIndexView) rather than loaded into the heap.  The tables:
+ *
+ * 		* names - every class, supertype, interface and annotation name, sorted
+ * 		* classes - per known class (sorted by name): flags, contributing index, superclass and interfaces
+ * 		* subclasses / implementors - supertype name to the classes directly extending / implementing it
+ * 		* annotations - annotation name to the classes using it (on the class or any member)
+ *
+ * Only the names of the contributing index files are kept in the heap.  Hierarchy queries are answered
+ * from the tables alone; the full ClassInfo (annotations, members) is taken from the contributing index
+ * when needed.
+ *
+ * The tables are built from one contributing index at a time - the one its manager already holds, or
+ * else one read just for the purpose and dropped right after - so writing them never needs all of the
+ * indexes in the heap at once.
+ *
+ * @implNote Used instead of the CompositeSnapshot when `quarkus.indexing.offHeapIndex` is enabled.
+ * On Windows, where a mapped file cannot be replaced until the mapping is garbage collected, the tables
+ * are read into the heap instead of being mapped
+ */
+public class CompositeTables {
+	public static final String TABLES_FILE_NAME = "___composite.tables";
+
+	static final int MAGIC = 0x514A5442;
+	static final int VERSION = 2;
+
+	static final int NAME_ENTRY_LENGTH = 8;
+	static final int CLASS_ENTRY_LENGTH = 24;
+	static final int LIST_ENTRY_LENGTH = 12;
+
+	static final int NO_NAME = -1;
+
+	/**
+	 * Flag (beyond the 16 bits of class access flags) marking a class with a no-args constructor
+	 */
+	static final int HAS_NO_ARGS_CONSTRUCTOR = 1 << 16;
+
+	private static final boolean COPY_ON_READ = System.getProperty( "os.name", "" )
+			.toLowerCase( Locale.ROOT )
+			.startsWith( "windows" );
+
+	private static final Comparator<byte[]> NAME_ORDER = CompositeTables::compareNames;
+
+	private final File tablesFile;
+
+	public CompositeTables(File jandexDirectory) {
+		this.tablesFile = new File( jandexDirectory, TABLES_FILE_NAME );
+	}
+
+	public File getTablesFile() {
+		return tablesFile;
+	}
+
+	/**
+	 * Build and write the tables over the given contributors
+	 */
+	public void write(List<? extends IndexManager> contributors) {
+		try {
+			internalWrite( contributors );
+		}
+		catch (IOException e) {
+			Logging.LOGGER.debug( "Unable to write composite Jandex tables {} : {}", tablesFile.getAbsolutePath(), e.getMessage() );
+			//noinspection ResultOfMethodCallIgnored
+			tablesFile.delete();
+		}
+	}
+
+	/**
+	 * Whether the tables are current with regard to the given contributors
+	 */
+	public boolean isCurrent(List<? extends IndexManager> contributors) {
+		if ( ! tablesFile.exists() ) {
+			return false;
+		}
+
+		try ( final FileChannel channel = FileChannel.open( tablesFile.toPath(), StandardOpenOption.READ ) ) {
+			return MappedIndexView.readContributors( read( channel ) ).equals( describe( contributors ) );
+		}
+		catch (IOException | RuntimeException e) {
+			Logging.LOGGER.debug( "Unable to read composite Jandex tables {} : {}", tablesFile.getAbsolutePath(), e.getMessage() );
+			return false;
+		}
+	}
+
+	/**
+	 * Open (map) the tables
+	 *
+	 * @param contributorIndexes Access to a contributing index by its index file name
+	 *
+	 * @return The view, or {@code null} if the tables could not be read
+	 */
+	public MappedIndexView open(Function<String, IndexView> contributorIndexes) {
+		try ( final FileChannel channel = FileChannel.open( tablesFile.toPath(), StandardOpenOption.READ ) ) {
+			return new MappedIndexView( read( channel ), contributorIndexes );
+		}
+		catch (IOException | RuntimeException e) {
+			Logging.LOGGER.debug( "Unable to map composite Jandex tables {} : {}", tablesFile.getAbsolutePath(), e.getMessage() );
+			return null;
+		}
+	}
+
+	/**
+	 * Map the tables - or copy them into the heap where a mapping would lock the file
+	 */
+	private static ByteBuffer read(FileChannel channel) throws IOException {
+		if ( ! COPY_ON_READ ) {
+			// the mapping remains valid after the channel is closed
+			return channel.map( FileChannel.MapMode.READ_ONLY, 0, channel.size() );
+		}
+
+		final ByteBuffer buffer = ByteBuffer.allocate( Math.toIntExact( channel.size() ) );
+		//noinspection StatementWithEmptyBody
+		while ( buffer.hasRemaining() && channel.read( buffer ) >= 0 ) {
+		}
+		buffer.flip();
+		return buffer;
+	}
+
+	/**
+	 * Index file name to the content hash of each contributor, in contribution order
+	 */
+	static Map<String, String> describe(List<? extends IndexManager> contributors) {
+		final Map<String, String> description = new LinkedHashMap<>();
+		for ( IndexManager contributor : contributors ) {
+			final File indexFile = contributor.getIndexFile();
+			if ( indexFile.exists() ) {
+				description.put( indexFile.getName(), CompositeSnapshot.contentHash( indexFile ) );
+			}
+		}
+		return description;
+	}
+
+	private void internalWrite(List<? extends IndexManager> contributors) throws IOException {
+		final Map<String, String> description = describe( contributors );
+
+		// collect the classes - the first contributor of a class wins
+		final Map<String, ClassRecord> classRecords = new HashMap<>();
+		int contributorPosition = 0;
+		for ( IndexManager contributor : contributors ) {
+			if ( ! description.containsKey( contributor.getIndexFile().getName() ) ) {
+				continue;
+			}
+
+			final IndexView index = contributorIndex( contributor );
+			if ( index != null ) {
+				for ( ClassInfo classInfo : index.getKnownClasses() ) {
+					final String className = classInfo.name().toString();
+					if ( ! classRecords.containsKey( className ) ) {
+						classRecords.put( className, new ClassRecord( classInfo, contributorPosition ) );
+					}
+				}
+			}
+			contributorPosition++;
+		}
+
+		// assign the name ids
+		final Map<String, byte[]> nameBytes = new HashMap<>();
+		classRecords.values().forEach( record -> record.collectNames( nameBytes ) );
+
+		final List<byte[]> sortedNames = new ArrayList<>( nameBytes.values() );
+		sortedNames.sort( NAME_ORDER );
+
+		final Map<String, Integer> nameIds = new HashMap<>();
+		for ( int i = 0; i < sortedNames.size(); i++ ) {
+			nameIds.put( new String( sortedNames.get( i ), StandardCharsets.UTF_8 ), i );
+		}
+
+		// classes, sorted by name id (which is name order)
+		final List<ClassRecord> sortedClasses = new ArrayList<>( classRecords.values() );
+		sortedClasses.forEach( record -> record.resolveIds( nameIds ) );
+		sortedClasses.sort( Comparator.comparingInt( record -> record.nameId ) );
+
+		final TreeMap<Integer, List<Integer>> subclasses = new TreeMap<>();
+		final TreeMap<Integer, List<Integer>> implementors = new TreeMap<>();
+		final TreeMap<Integer, List<Integer>> annotations = new TreeMap<>();
+		for ( int classId = 0; classId < sortedClasses.size(); classId++ ) {
+			final ClassRecord record = sortedClasses.get( classId );
+			if ( record.superNameId != NO_NAME ) {
+				subclasses.computeIfAbsent( record.superNameId, key -> new ArrayList<>() ).add( classId );
+			}
+			for ( int interfaceNameId : record.interfaceNameIds ) {
+				implementors.computeIfAbsent( interfaceNameId, key -> new ArrayList<>() ).add( classId );
+			}
+			for ( int annotationNameId : record.annotationNameIds ) {
+				annotations.computeIfAbsent( annotationNameId, key -> new ArrayList<>() ).add( classId );
+			}
+		}
+
+		final Path target = tablesFile.toPath();
+		final Path directory = target.toAbsolutePath().getParent();
+		Files.createDirectories( directory );
+		final Path tempFile = Files.createTempFile( directory, tablesFile.getName(), ".tmp" );
+
+		try {
+			try ( final DataOutputStream output = new DataOutputStream( new BufferedOutputStream( Files.newOutputStream( tempFile ), 256 * 1024 ) ) ) {
+				output.writeInt( MAGIC );
+				output.writeInt( VERSION );
+
+				output.writeInt( description.size() );
+				for ( Map.Entry<String, String> entry : description.entrySet() ) {
+					writeString( output, entry.getKey() );
+					writeString( output, entry.getValue() );
+				}
+
+				int nameBytesLength = 0;
+				for ( byte[] name : sortedNames ) {
+					nameBytesLength += name.length;
+				}
+
+				int listLength = 0;
+				for ( ClassRecord record : sortedClasses ) {
+					listLength += record.interfaceNameIds.length;
+				}
+				listLength += countValues( subclasses ) + countValues( implementors ) + countValues( annotations );
+
+				output.writeInt( sortedNames.size() );
+				output.writeInt( nameBytesLength );
+				output.writeInt( sortedClasses.size() );
+				output.writeInt( subclasses.size() );
+				output.writeInt( implementors.size() );
+				output.writeInt( annotations.size() );
+				output.writeInt( listLength );
+
+				// names
+				int nameOffset = 0;
+				for ( byte[] name : sortedNames ) {
+					output.writeInt( nameOffset );
+					output.writeInt( name.length );
+					nameOffset += name.length;
+				}
+				for ( byte[] name : sortedNames ) {
+					output.write( name );
+				}
+
+				// classes
+				int listPosition = 0;
+				for ( ClassRecord record : sortedClasses ) {
+					output.writeInt( record.nameId );
+					output.writeInt( record.flags );
+					output.writeInt( record.contributor );
+					output.writeInt( record.superNameId );
+					output.writeInt( listPosition );
+					output.writeInt( record.interfaceNameIds.length );
+					listPosition += record.interfaceNameIds.length;
+				}
+
+				// reverse tables
+				listPosition = writeListEntries( output, subclasses, listPosition );
+				listPosition = writeListEntries( output, implementors, listPosition );
+				writeListEntries( output, annotations, listPosition );
+
+				// the lists, in the order their entries were written
+				for ( ClassRecord record : sortedClasses ) {
+					for ( int interfaceNameId : record.interfaceNameIds ) {
+						output.writeInt( interfaceNameId );
+					}
+				}
+				writeListValues( output, subclasses );
+				writeListValues( output, implementors );
+				writeListValues( output, annotations );
+			}
+
+			try {
+				Files.move( tempFile, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE );
+			}
+			catch (AtomicMoveNotSupportedException e) {
+				Files.move( tempFile, target, StandardCopyOption.REPLACE_EXISTING );
+			}
+		}
+		finally {
+			Files.deleteIfExists( tempFile );
+		}
+
+		Logging.LOGGER.debug(
+				"Wrote composite Jandex tables for {} classes from {} indexes : {}",
+				sortedClasses.size(),
+				description.size(),
+				tablesFile.getAbsolutePath()
+		);
+	}
+
+	/**
+	 * The contributor's index - the one held by its manager, or else read without being held
+	 */
+	private static IndexView contributorIndex(IndexManager contributor) {
+		final Index held = contributor.getHeldIndex();
+		if ( held != null ) {
+			return held;
+		}
+
+		try {
+			return IndexFiles.read( contributor.getIndexFile() );
+		}
+		catch (IOException e) {
+			// let the manager deal with it (regenerating a corrupt index, e.g.)
+			Logging.LOGGER.debug( "Unable to read Jandex index {} : {}", contributor.getIndexFile().getAbsolutePath(), e.getMessage() );
+			return contributor.getIndex();
+		}
+	}
+
+	private static void writeString(DataOutputStream output, String value) throws IOException {
+		final byte[] bytes = value.getBytes( StandardCharsets.UTF_8 );
+		output.writeInt( bytes.length );
+		output.write( bytes );
+	}
+
+	private static int countValues(Map<Integer, List<Integer>> table) {
+		int count = 0;
+		for ( List<Integer> values : table.values() ) {
+			count += values.size();
+		}
+		return count;
+	}
+
+	private static int writeListEntries(DataOutputStream output, Map<Integer, List<Integer>> table, int listPosition) throws IOException {
+		for ( Map.Entry<Integer, List<Integer>> entry : table.entrySet() ) {
+			output.writeInt( entry.getKey() );
+			output.writeInt( listPosition );
+			output.writeInt( entry.getValue().size() );
+			listPosition += entry.getValue().size();
+		}
+		return listPosition;
+	}
+
+	private static void writeListValues(DataOutputStream output, Map<Integer, List<Integer>> table) throws IOException {
+		for ( List<Integer> values : table.values() ) {
+			for ( Integer value : values ) {
+				output.writeInt( value );
+			}
+		}
+	}
+
+	/**
+	 * Order of names in the tables - unsigned comparison of the UTF-8 bytes
+	 */
+	static int compareNames(byte[] first, byte[] second) {
+		final int length = Math.min( first.length, second.length );
+		for ( int i = 0; i < length; i++ ) {
+			final int difference = ( first[ i ] & 0xFF ) - ( second[ i ] & 0xFF );
+			if ( difference != 0 ) {
+				return difference;
+			}
+		}
+		return first.length - second.length;
+	}
+
+	private static class ClassRecord {
+		private final String name;
+		private final int flags;
+		private final int contributor;
+		private final String superName;
+		private final String[] interfaceNames;
+		private final String[] annotationNames;
+
+		private int nameId;
+		private int superNameId;
+		private int[] interfaceNameIds;
+		private int[] annotationNameIds;
+
+		private ClassRecord(ClassInfo classInfo, int contributor) {
+			this.name = classInfo.name().toString();
+			this.flags = ( classInfo.flags() & 0xFFFF ) | ( classInfo.hasNoArgsConstructor() ? HAS_NO_ARGS_CONSTRUCTOR : 0 );
+			this.contributor = contributor;
+			this.superName = classInfo.superName() == null ? null : classInfo.superName().toString();
+
+			final List<DotName> interfaces = classInfo.interfaceNames();
+			this.interfaceNames = new String[ interfaces.size() ];
+			for ( int i = 0; i < interfaces.size(); i++ ) {
+				interfaceNames[ i ] = interfaces.get( i ).toString();
+			}
+
+			this.annotationNames = classInfo.annotations().keySet().stream().map( DotName::toString ).toArray( String[]::new );
+		}
+
+		private void collectNames(Map<String, byte[]> nameBytes) {
+			collectName( name, nameBytes );
+			collectName( superName, nameBytes );
+			for ( String interfaceName : interfaceNames ) {
+				collectName( interfaceName, nameBytes );
+			}
+			for ( String annotationName : annotationNames ) {
+				collectName( annotationName, nameBytes );
+			}
+		}
+
+		private static void collectName(String name, Map<String, byte[]> nameBytes) {
+			if ( name != null ) {
+				nameBytes.computeIfAbsent( name, key -> key.getBytes( StandardCharsets.UTF_8 ) );
+			}
+		}
+
+		private void resolveIds(Map<String, Integer> nameIds) {
+			nameId = nameIds.get( name );
+			superNameId = superName == null ? NO_NAME : nameIds.get( superName );
+			interfaceNameIds = new int[ interfaceNames.length ];
+			for ( int i = 0; i < interfaceNames.length; i++ ) {
+				interfaceNameIds[ i ] = nameIds.get( interfaceNames[ i ] );
+			}
+			annotationNameIds = new int[ annotationNames.length ];
+			for ( int i = 0; i < annotationNames.length; i++ ) {
+				annotationNameIds[ i ] = nameIds.get( annotationNames[ i ] );
+			}
+		}
+	}
+}
@@ -0,0 +1,18 @@
+package com.github.sebersole.gradle.quarkus.indexing;
+
+import java.io.IOException;
+
+/**
+ * Indicates an index file which is truncated, fails its checksum or cannot be parsed
+ *
+ * @see IndexFiles
+ */
+public class CorruptIndexException extends IOException {
+	public CorruptIndexException(String message) {
+		super( message );
+	}
+
+	public CorruptIndexException(String message, Throwable cause) {
+		super( message, cause );
+	}
+}
@@ -6,90 +6,258 @@ import java.io.Serializable;
 import java.util.jar.JarFile;
 
 import org.gradle.api.GradleException;
+import org.gradle.api.provider.Provider;
 
 import org.jboss.jandex.Index;
 
 import com.github.sebersole.gradle.quarkus.Logging;
+import com.github.sebersole.gradle.quarkus.service.ArchiveAccess;
+import com.github.sebersole.gradle.quarkus.service.ArtifactProbe;
 
 /**
  * Standard IndexManager implementation
  */
-public class ExternalArtifactIndexManager implements IndexManager, Serializable {
+public class ExternalArtifactIndexManager extends AbstractIndexManager implements Serializable {
 	private final File indexingBase;
-	private final File indexFile;
+	private final SharedIndexStore sharedIndexStore;
+	private final transient ClassIndexingPipeline classIndexingPipeline;
+	private final PackageFilter packageFilter;
+	private final IndexProfile indexProfile;
+	private final transient Provider<SharedIndexRegistry> sharedIndexRegistry;
+	private final transient Provider<ArchiveAccess> archiveAccess;
 
-	private Index resolvedIndex;
-	private boolean resolved;
+	private transient String fingerprint;
 
 	public ExternalArtifactIndexManager(File indexingBase, File indexFile) {
+		this( indexingBase, indexFile, false, null, ClassIndexingPipeline.SEQUENTIAL, null, IndexProfile.FULL, null, null );
+	}
+
+	public ExternalArtifactIndexManager(
+			File indexingBase,
+			File indexFile,
+			boolean compressIndex,
+			SharedIndexStore sharedIndexStore,
+			ClassIndexingPipeline classIndexingPipeline,
+			PackageFilter packageFilter,
+			IndexProfile indexProfile,
+			Provider<SharedIndexRegistry> sharedIndexRegistry,
+			Provider<ArchiveAccess> archiveAccess) {
+		super( indexFile, compressIndex );
+
 		assert indexingBase.isFile();
 		assert indexingBase.exists();
 
 		this.indexingBase = indexingBase;
-		this.indexFile = indexFile;
+		this.sharedIndexStore = sharedIndexStore;
+		this.classIndexingPipeline = classIndexingPipeline;
+		this.packageFilter = packageFilter;
+		this.indexProfile = indexProfile;
+		this.sharedIndexRegistry = sharedIndexRegistry;
+		this.archiveAccess = archiveAccess;
 	}
 
-	@Override
-	public File getIndexFile() {
-		return indexFile;
+	public File getIndexingBase() {
+		return indexingBase;
 	}
 
-	@Override
-	public Index getIndex() {
-		if ( ! resolved ) {
-			throw new GradleException( "Jandex indexes not yet resolved" );
+	/**
+	 * The fingerprint of the artifact's contents (see ArchiveFingerprint)
+	 */
+	public String getFingerprint() {
+		if ( fingerprint == null ) {
+			fingerprint = determineFingerprint();
+		}
+		return fingerprint;
+	}
+
+	private String determineFingerprint() {
+		final ArtifactProbe probe = probe();
+		if ( probe != null && probe.getFingerprint() != null ) {
+			return probe.getFingerprint();
 		}
-		return resolvedIndex;
+
+		return ArchiveFingerprint.of( indexingBase );
+	}
+
+	private ArtifactProbe probe() {
+		return archiveAccess == null ? null : archiveAccess.get().probe( indexingBase );
+	}
+
+	private ArchiveAccess archiveAccess() {
+		return archiveAccess == null ? null : archiveAccess.get();
+	}
+
+	/**
+	 * The filter applied when indexing the artifact, or {@code null} if the artifact is fully indexed
+	 */
+	public PackageFilter getPackageFilter() {
+		return packageFilter;
 	}
 
+	/**
+	 * The detail kept in the artifact's index
+	 */
+	public IndexProfile getIndexProfile() {
+		return indexProfile;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @implNote If the artifact contains an embedded Jandex index (and no package filter applies and the
+	 * full profile is used), the embedded index is copied verbatim and not parsed until first use
+	 */
 	@Override
-	public boolean isResolved() {
-		return resolved;
+	public Resolution resolve() {
+		assert ! isResolved();
+
+		if ( usesEmbeddedIndex() && copyEmbeddedIndex() ) {
+			registerResolvedFile();
+			return Resolution.INDEX_FILE;
+		}
+
+		return generateIndex( false ) == null ? Resolution.NONE : Resolution.GENERATED;
 	}
 
 	@Override
 	public Index generateIndex() {
-		assert ! resolved;
-		resolvedIndex = internalResolve();
+		assert ! isResolved();
 
-		return resolvedIndex;
+		return generateIndex( usesEmbeddedIndex() );
 	}
 
-	private Index internalResolve() {
+	private boolean usesEmbeddedIndex() {
+		return packageFilter == null && indexProfile == IndexProfile.FULL;
+	}
+
+	private Index generateIndex(boolean tryEmbeddedIndex) {
+		if ( tryEmbeddedIndex && copyEmbeddedIndex() ) {
+			// a corrupt embedded index is discarded, falling through to indexing the classes
+			final Index embedded = loadIndex();
+			if ( embedded != null ) {
+				return registerResolved( embedded );
+			}
+		}
+
+		if ( sharedIndexRegistry == null ) {
+			return registerResolved( internalResolve() );
+		}
+
+		final SharedIndexRegistry registry = sharedIndexRegistry.get();
+		final SharedIndexRegistry.ArtifactKey artifactKey = SharedIndexRegistry.ArtifactKey.from( indexingBase, packageFilter, indexProfile );
+
+		final Index shared = registry.find( artifactKey );
+		if ( shared != null ) {
+			// another project already resolved the artifact during this build
+			Logging.LOGGER.debug( "Using shared Jandex index for `{}`", indexingBase.getAbsolutePath() );
+			writeIndex( shared );
+			return registerResolved( shared );
+		}
+
+		final Index index = internalResolve();
+		return registerResolved( index == null ? null : registry.canonicalize( artifactKey, index ) );
+	}
+
+	/**
+	 * Use the index produced by JandexTransform for the artifact rather than generating it
+	 */
+	public void adoptIndex(File transformedIndexFile) {
+		assert ! isResolved();
+
 		try {
-			final JarFile jarFile = new JarFile( indexingBase );
-			return internalResolve( jarFile );
+			IndexFiles.copy( transformedIndexFile, getIndexFile() );
+
+			final File transformedSummaryFile = IndexSummary.summaryFile( transformedIndexFile );
+			if ( transformedSummaryFile.exists() ) {
+				IndexFiles.copy( transformedSummaryFile, getSummaryFile() );
+			}
+			else {
+				// the transform used the artifact's embedded index verbatim
+				deleteSummary();
+			}
 		}
 		catch (IOException e) {
-			Logging.LOGGER.debug( "Exception trying to handle dependency as a JAR : `{}`", indexFile.getAbsolutePath() );
-			return null;
+			throw new GradleException( "Unable to copy transformed Jandex index : " + transformedIndexFile.getAbsolutePath(), e );
 		}
+
+		registerResolvedFile();
 	}
 
-	private Index internalResolve(JarFile jarFile) {
-		final Index index = JandexHelper.resolveIndexFromArchive( jarFile, indexingBase );
-		JandexHelper.writeIndexToFile( indexFile, index );
+	private boolean copyEmbeddedIndex() {
+		final ArtifactProbe probe = probe();
+		if ( probe != null && ! probe.hasEmbeddedIndex() ) {
+			// known to not have one, without opening the archive
+			return false;
+		}
 
-		injectResolvedIndex( index );
+		try {
+			final boolean copied = ArchiveAccess.withArchive(
+					archiveAccess(),
+					indexingBase,
+					jarFile -> JandexHelper.copyEmbeddedIndex( jarFile, getIndexFile() )
+			);
+			if ( ! copied ) {
+				return false;
+			}
+		}
+		catch (IOException e) {
+			// let the normal resolution handle (and report) it
+			return false;
+		}
 
-		return index;
+		Logging.LOGGER.debug( "Using embedded Jandex index from `{}`", indexingBase.getAbsolutePath() );
+
+		// the summary is written by the Jandex task once the index was parsed (see #writeMissingSummary)
+		deleteSummary();
+		return true;
 	}
 
-	private void injectResolvedIndex(Index index) {
-		if ( resolved ) {
-			Logging.LOGGER.debug( "Overriding Jandex Index with injected one for `{}`", indexFile.getAbsolutePath() );
+	private Index internalResolve() {
+		final String storeKey = sharedIndexStore == null ? null : sharedIndexStore.determineKey( getFingerprint(), packageFilter, indexProfile );
+
+		if ( storeKey != null && sharedIndexStore.retrieve( storeKey, getIndexFile() ) ) {
+			Logging.LOGGER.debug( "Using Jandex index from shared store for `{}`", indexingBase.getAbsolutePath() );
+			// a corrupt stored index is discarded, falling through to resolving it from the artifact
+			final Index index = loadIndex();
+			if ( index != null ) {
+				writeSummary( index );
+				return index;
+			}
 		}
 
-		this.resolvedIndex = index;
-		this.resolved = true;
+		try {
+			final Index index = ArchiveAccess.withArchive( archiveAccess(), indexingBase, this::internalResolve );
+			if ( storeKey != null && index != null ) {
+				sharedIndexStore.store( storeKey, getIndexFile() );
+			}
+			return index;
+		}
+		catch (IOException e) {
+			Logging.LOGGER.debug( "Exception trying to handle dependency as a JAR : `{}`", indexingBase.getAbsolutePath() );
+			return null;
+		}
+	}
 
+	private Index internalResolve(JarFile jarFile) {
+		final ClassIndexingPipeline pipeline = classIndexingPipeline == null ? ClassIndexingPipeline.SEQUENTIAL : classIndexingPipeline;
+		final Index index = JandexHelper.resolveIndexFromArchive( jarFile, indexingBase, pipeline, packageFilter, indexProfile );
+		writeIndex( index );
 
+		return index;
 	}
 
 	@Override
 	public Index readIndex() {
-		final Index index = JandexHelper.readJandexIndex( indexFile );
-		injectResolvedIndex( index );
-		return index;
+		return loadOrRegenerateIndex();
+	}
+
+	@Override
+	protected Index loadIndex() {
+		return sharedIndexRegistry == null
+				? super.loadIndex()
+				: sharedIndexRegistry.get().resolve(
+						SharedIndexRegistry.ArtifactKey.from( indexingBase, packageFilter, indexProfile ),
+						super::loadIndex
+				);
 	}
 }
@@ -0,0 +1,135 @@
+package com.github.sebersole.gradle.quarkus.indexing;
+
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.jboss.jandex.ClassInfo;
+import org.jboss.jandex.DotName;
+import org.jboss.jandex.IndexView;
+
+/**
+ * Memoized transitive hierarchy queries (as names only) over a single index view - the composite
+ * index, which answers the direct subclass / implementor lookups from whatever it currently serves
+ * from (the mapped tables, the snapshot or the flattened index).  The closure for a type is computed
+ * on first request from those direct lookups and remembered, so repeated hierarchy queries
+ * (persistence-unit resolution, extension scanning) are a single lookup.
+ *
+ * The closure is only valid as long as the view does not change - the composite starts a new one
+ * whenever it is expanded.
+ *
+ * @implNote The closure is memoized per queried type rather than precomputed for every type, which
+ * would be quadratic in the size of deep hierarchies.  No edges are copied out of the view
+ */
+public class HierarchyClosure {
+	private final IndexView index;
+
+	private final Map<DotName, Set<DotName>> allSubclasses = new HashMap<>();
+	private final Map<DotName, Set<DotName>> allImplementors = new HashMap<>();
+	private final Map<DotName, Set<DotName>> allSubInterfaces = new HashMap<>();
+
+	public HierarchyClosure(IndexView index) {
+		this.index = index;
+	}
+
+	/**
+	 * The names of all (direct and indirect) subclasses of the named class
+	 */
+	public synchronized Set<DotName> getAllKnownSubclasses(DotName className) {
+		final Set<DotName> existing = allSubclasses.get( className );
+		if ( existing != null ) {
+			return existing;
+		}
+
+		final Set<DotName> closure = new HashSet<>();
+		collectSubclasses( className, closure );
+
+		final Set<DotName> result = Collections.unmodifiableSet( closure );
+		allSubclasses.put( className, result );
+		return result;
+	}
+
+	private void collectSubclasses(DotName className, Set<DotName> closure) {
+		final Deque<DotName> toProcess = new ArrayDeque<>();
+		toProcess.add( className );
+
+		while ( ! toProcess.isEmpty() ) {
+			final Collection<ClassInfo> subclasses = index.getKnownDirectSubclasses( toProcess.remove() );
+			if ( subclasses == null ) {
+				continue;
+			}
+
+			for ( ClassInfo subclass : subclasses ) {
+				if ( closure.add( subclass.name() ) ) {
+					toProcess.add( subclass.name() );
+				}
+			}
+		}
+	}
+
+	/**
+	 * The names of all classes implementing the named interface - directly, through a
+	 * sub-interface or through a superclass
+	 */
+	public synchronized Set<DotName> getAllKnownImplementors(DotName interfaceName) {
+		final Set<DotName> existing = allImplementors.get( interfaceName );
+		if ( existing != null ) {
+			return existing;
+		}
+
+		collectImplementors( interfaceName );
+		return allImplementors.get( interfaceName );
+	}
+
+	/**
+	 * The names of all (direct and indirect) sub-interfaces of the named interface
+	 */
+	public synchronized Set<DotName> getAllKnownSubInterfaces(DotName interfaceName) {
+		final Set<DotName> existing = allSubInterfaces.get( interfaceName );
+		if ( existing != null ) {
+			return existing;
+		}
+
+		collectImplementors( interfaceName );
+		return allSubInterfaces.get( interfaceName );
+	}
+
+	private void collectImplementors(DotName interfaceName) {
+		// same algorithm as Jandex
+		final Set<DotName> closure = new HashSet<>();
+		final Set<DotName> processedInterfaces = new HashSet<>();
+		final Deque<DotName> interfacesToProcess = new ArrayDeque<>();
+		interfacesToProcess.add( interfaceName );
+
+		while ( ! interfacesToProcess.isEmpty() ) {
+			final DotName toProcess = interfacesToProcess.remove();
+			if ( ! processedInterfaces.add( toProcess ) ) {
+				continue;
+			}
+
+			final Collection<ClassInfo> implementors = index.getKnownDirectImplementors( toProcess );
+			if ( implementors == null ) {
+				continue;
+			}
+
+			for ( ClassInfo implementor : implementors ) {
+				if ( Modifier.isInterface( implementor.flags() ) ) {
+					interfacesToProcess.add( implementor.name() );
+				}
+				else if ( closure.add( implementor.name() ) ) {
+					collectSubclasses( implementor.name(), closure );
+				}
+			}
+		}
+
+		processedInterfaces.remove( interfaceName );
+		allImplementors.put( interfaceName, Collections.unmodifiableSet( closure ) );
+		allSubInterfaces.put( interfaceName, Collections.unmodifiableSet( processedInterfaces ) );
+	}
+}
@@ -1,14 +1,12 @@
 package com.github.sebersole.gradle.quarkus.indexing;
 
-import org.gradle.api.GradleException;
-
 import org.jboss.jandex.IndexView;
 
 /**
  * Indirection reference to a Jandex index for a single dependency.
  *
  * Code can use this as an immutable reference and leverage it as
- * a provider for the index.
+ * a provider for the index.  The index is loaded on first use.
  */
 public class IndexAccess {
 	private final IndexManager indexManager;
@@ -18,9 +16,14 @@ public class IndexAccess {
 	}
 
 	public IndexView getIndex() {
-		if ( ! indexManager.isResolved() ) {
-			throw new GradleException( "Jandex indexes are not yet resolved" );
-		}
 		return indexManager.getIndex();
 	}
+
+	/**
+	 * Access to the summary of the index, which can be used to decide whether the index is of
+	 * interest without loading it.  May return {@code null} if no summary is available
+	 */
+	public IndexSummary getSummary() {
+		return indexManager.getSummary();
+	}
 }
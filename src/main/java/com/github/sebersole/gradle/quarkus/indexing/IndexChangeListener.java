@@ -0,0 +1,11 @@
+package com.github.sebersole.gradle.quarkus.indexing;
+
+/**
+ * Notified of the changes made to the indexes by a run of the Jandex task
+ *
+ * @see IndexingService#addIndexChangeListener
+ */
+@FunctionalInterface
+public interface IndexChangeListener {
+	void indexesChanged(IndexChangeSet changeSet);
+}
@@ -0,0 +1,396 @@
+package com.github.sebersole.gradle.quarkus.indexing;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.jboss.jandex.ClassInfo;
+import org.jboss.jandex.DotName;
+import org.jboss.jandex.IndexView;
+
+
+/**
+ * The changes made to the indexes by a run of the Jandex task - the artifacts whose index was
+ * added, removed or changed and, per artifact, the classes added or removed and the classes which
+ * started or stopped using each annotation.  Published to the IndexChangeListeners registered with
+ * the IndexingService so that downstream consumers can recompute only the results affected.
+ *
+ * Artifacts are identified by the name of their index file.  A change-set which is not
+ * {@linkplain #isComplete() complete} (the indexes were restored from the build cache, e.g.) does
+ * not describe the changes - consumers should recompute everything.
+ *
+ * @implNote Classes and their annotation usages are compared by name; a class whose members changed
+ * without changing which annotations it uses is not reported.  The contents of added artifacts are
+ * only determined (from their summary where possible) when asked for
+ */
+public class IndexChangeSet {
+	public enum Kind {
+		ADDED,
+		REMOVED,
+		CHANGED
+	}
+
+	private final Map<String, ArtifactChange> changes;
+	private final boolean complete;
+
+	private IndexChangeSet(Map<String, ArtifactChange> changes, boolean complete) {
+		this.changes = Collections.unmodifiableMap( changes );
+		this.complete = complete;
+	}
+
+	public static IndexChangeSet empty() {
+		return new IndexChangeSet( Collections.emptyMap(), true );
+	}
+
+	/**
+	 * A change-set for when the changes are not known - any index may have changed
+	 */
+	public static IndexChangeSet unknown() {
+		return new IndexChangeSet( Collections.emptyMap(), false );
+	}
+
+	/**
+	 * Whether the file is the index of an artifact (rather than a summary, manifest, snapshot, ...)
+	 */
+	public static boolean isArtifactIndexFile(File file) {
+		return file.getName().endsWith( ".idx" ) && ! file.getName().equals( CompositeSnapshot.SNAPSHOT_FILE_NAME );
+	}
+
+	/**
+	 * Whether the change-set describes all changes.  If not, any index may have changed
+	 */
+	public boolean isComplete() {
+		return complete;
+	}
+
+	public boolean isEmpty() {
+		return complete && changes.isEmpty();
+	}
+
+	/**
+	 * All changed artifacts, keyed by index file name
+	 */
+	public Map<String, ArtifactChange> getChanges() {
+		return changes;
+	}
+
+	/**
+	 * The change for the artifact with the given index file, or {@code null} if it did not change
+	 */
+	public ArtifactChange getChange(File indexFile) {
+		return changes.get( indexFile.getName() );
+	}
+
+	public List<ArtifactChange> getChanges(Kind kind) {
+		return changes.values().stream().filter( change -> change.getKind() == kind ).collect( Collectors.toList() );
+	}
+
+	/**
+	 * Whether any class started or stopped using the named annotation
+	 */
+	public boolean affectsAnnotation(DotName annotationName) {
+		if ( ! complete ) {
+			return true;
+		}
+
+		for ( ArtifactChange change : changes.values() ) {
+			if ( change.affectsAnnotation( annotationName ) ) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public String toString() {
+		return complete ? "IndexChangeSet(" + changes.values() + ")" : "IndexChangeSet(unknown)";
+	}
+
+	/**
+	 * The change to the index of a single artifact
+	 */
+	public static class ArtifactChange {
+		private final String indexFileName;
+		private final Kind kind;
+
+		private final IndexContents before;
+		private final IndexManager afterManager;
+		private IndexContents after;
+
+		private Diff diff;
+
+		private ArtifactChange(String indexFileName, Kind kind, IndexContents before, IndexManager afterManager, IndexContents after) {
+			this.indexFileName = indexFileName;
+			this.kind = kind;
+			this.before = before;
+			this.afterManager = afterManager;
+			this.after = after;
+		}
+
+		private synchronized IndexContents after() {
+			if ( after == null ) {
+				after = afterManager == null ? IndexContents.EMPTY : IndexContents.from( afterManager.getIndex() );
+			}
+			return after;
+		}
+
+		private synchronized Diff diff() {
+			if ( diff == null ) {
+				diff = new Diff( before, after() );
+			}
+			return diff;
+		}
+
+		private boolean isEffective() {
+			return kind != Kind.CHANGED || ! diff().isEmpty();
+		}
+
+		public String getIndexFileName() {
+			return indexFileName;
+		}
+
+		public Kind getKind() {
+			return kind;
+		}
+
+		public Set<String> getAddedClasses() {
+			return diff().addedClasses;
+		}
+
+		public Set<String> getRemovedClasses() {
+			return diff().removedClasses;
+		}
+
+		/**
+		 * Annotation name to the classes which use the annotation after the change but did not before
+		 */
+		public Map<String, Set<String>> getAddedAnnotationUsages() {
+			return diff().addedUsages;
+		}
+
+		/**
+		 * Annotation name to the classes which used the annotation before the change but no longer do
+		 */
+		public Map<String, Set<String>> getRemovedAnnotationUsages() {
+			return diff().removedUsages;
+		}
+
+		/**
+		 * Names of the annotations with a class which started using them
+		 */
+		public Set<String> getAddedAnnotations() {
+			return getAddedAnnotationUsages().keySet();
+		}
+
+		/**
+		 * Names of the annotations with a class which stopped using them
+		 */
+		public Set<String> getRemovedAnnotations() {
+			return getRemovedAnnotationUsages().keySet();
+		}
+
+		/**
+		 * Whether a class started or stopped using the named annotation
+		 */
+		public boolean affectsAnnotation(DotName annotationName) {
+			if ( kind == Kind.ADDED && afterManager != null ) {
+				// avoid loading the index if the summary can answer
+				final IndexSummary summary = afterManager.getSummary();
+				if ( summary != null ) {
+					return summary.containsAnnotation( annotationName );
+				}
+			}
+
+			final String name = annotationName.toString();
+			return getAddedAnnotations().contains( name ) || getRemovedAnnotations().contains( name );
+		}
+
+		@Override
+		public String toString() {
+			final Diff diff;
+			synchronized ( this ) {
+				diff = this.diff;
+			}
+
+			if ( diff == null ) {
+				return kind + "(" + indexFileName + ")";
+			}
+
+			return kind + "(" + indexFileName
+					+ " : +" + diff.addedClasses.size() + "/-" + diff.removedClasses.size() + " classes"
+					+ ", +" + diff.addedUsages.size() + "/-" + diff.removedUsages.size() + " annotations)";
+		}
+	}
+
+	/**
+	 * Collects the changes over a run of the Jandex task.  The previous contents of an index must be
+	 * recorded (see {@link #before}) before the index is regenerated
+	 */
+	public static class Builder {
+		private final Map<String, IndexContents> previousContents = new LinkedHashMap<>();
+		private final Set<String> addedIndexFiles = new HashSet<>();
+		private final Map<String, IndexContents> removedContents = new LinkedHashMap<>();
+
+		/**
+		 * Record the contents of an existing index file which is about to be regenerated
+		 */
+		public void before(File indexFile) {
+			before( indexFile, null );
+		}
+
+		/**
+		 * Record the contents of an existing index which is about to be regenerated
+		 *
+		 * @param index The index as currently held by its manager (see IndexManager#getHeldIndex), or
+		 * {@code null} to read the index file
+		 */
+		public void before(File indexFile, IndexView index) {
+			previousContents.put( indexFile.getName(), index != null ? IndexContents.from( index ) : IndexContents.read( indexFile ) );
+		}
+
+		/**
+		 * Record an index file which did not previously exist
+		 */
+		public void added(File indexFile) {
+			addedIndexFiles.add( indexFile.getName() );
+		}
+
+		/**
+		 * Record an index file which is no longer needed (and is about to be deleted)
+		 */
+		public void removed(File indexFile) {
+			removedContents.put( indexFile.getName(), IndexContents.read( indexFile ) );
+		}
+
+		/**
+		 * Build the change-set, comparing the recorded contents with the current indexes.  The
+		 * indexes of added artifacts are not accessed
+		 */
+		public IndexChangeSet build(List<? extends IndexManager> indexManagers) {
+			final Map<String, ArtifactChange> changes = new LinkedHashMap<>();
+
+			for ( IndexManager indexManager : indexManagers ) {
+				final String indexFileName = indexManager.getIndexFile().getName();
+
+				if ( addedIndexFiles.contains( indexFileName ) ) {
+					changes.put( indexFileName, new ArtifactChange( indexFileName, Kind.ADDED, IndexContents.EMPTY, indexManager, null ) );
+					continue;
+				}
+
+				final IndexContents before = previousContents.get( indexFileName );
+				if ( before == null ) {
+					continue;
+				}
+
+				final ArtifactChange change = new ArtifactChange(
+						indexFileName,
+						Kind.CHANGED,
+						before,
+						null,
+						IndexContents.from( indexManager.getIndex() )
+				);
+				if ( change.isEffective() ) {
+					changes.put( indexFileName, change );
+				}
+			}
+
+			removedContents.forEach(
+					(indexFileName, before) -> changes.put(
+							indexFileName,
+							new ArtifactChange( indexFileName, Kind.REMOVED, before, null, IndexContents.EMPTY )
+					)
+			);
+
+			return new IndexChangeSet( changes, true );
+		}
+	}
+
+	/**
+	 * Differences between the contents of an index before and after a change
+	 */
+	private static class Diff {
+		private final Set<String> addedClasses;
+		private final Set<String> removedClasses;
+		private final Map<String, Set<String>> addedUsages;
+		private final Map<String, Set<String>> removedUsages;
+
+		private Diff(IndexContents before, IndexContents after) {
+			this.addedClasses = difference( after.annotationsByClass.keySet(), before.annotationsByClass.keySet() );
+			this.removedClasses = difference( before.annotationsByClass.keySet(), after.annotationsByClass.keySet() );
+			this.addedUsages = usageDifference( after, before );
+			this.removedUsages = usageDifference( before, after );
+		}
+
+		private static Set<String> difference(Set<String> first, Set<String> second) {
+			final Set<String> difference = new HashSet<>( first );
+			difference.removeAll( second );
+			return Collections.unmodifiableSet( difference );
+		}
+
+		/**
+		 * The (annotation, class) usages in `first` which are not in `second`, grouped by annotation
+		 */
+		private static Map<String, Set<String>> usageDifference(IndexContents first, IndexContents second) {
+			final Map<String, Set<String>> difference = new HashMap<>();
+			first.annotationsByClass.forEach(
+					(className, annotationNames) -> {
+						final Set<String> otherAnnotationNames = second.annotationsByClass.getOrDefault( className, Collections.emptySet() );
+						for ( String annotationName : annotationNames ) {
+							if ( ! otherAnnotationNames.contains( annotationName ) ) {
+								difference.computeIfAbsent( annotationName, name -> new HashSet<>() ).add( className );
+							}
+						}
+					}
+			);
+			return Collections.unmodifiableMap( difference );
+		}
+
+		private boolean isEmpty() {
+			return addedClasses.isEmpty() && removedClasses.isEmpty() && addedUsages.isEmpty() && removedUsages.isEmpty();
+		}
+	}
+
+	/**
+	 * The names of the classes in an index, with the names of the annotations each uses (on the
+	 * class or any of its members)
+	 */
+	private static class IndexContents {
+		private static final IndexContents EMPTY = new IndexContents( Collections.emptyMap() );
+
+		private final Map<String, Set<String>> annotationsByClass;
+
+		private IndexContents(Map<String, Set<String>> annotationsByClass) {
+			this.annotationsByClass = annotationsByClass;
+		}
+
+		private static IndexContents from(IndexView index) {
+			if ( index == null ) {
+				return EMPTY;
+			}
+
+			final Map<String, Set<String>> annotationsByClass = new HashMap<>();
+			for ( ClassInfo classInfo : index.getKnownClasses() ) {
+				final Set<String> annotationNames = new HashSet<>();
+				classInfo.annotations().keySet().forEach( name -> annotationNames.add( name.toString() ) );
+				annotationsByClass.put( classInfo.name().toString(), annotationNames );
+			}
+			return new IndexContents( annotationsByClass );
+		}
+
+		private static IndexContents read(File indexFile) {
+			if ( ! indexFile.exists() ) {
+				return EMPTY;
+			}
+
+			// usually still parsed from the previous build of the daemon; an unreadable index reads as null,
+			// reporting everything in the regenerated index as added
+			return from( JandexHelper.readJandexIndex( indexFile ) );
+		}
+	}
+}
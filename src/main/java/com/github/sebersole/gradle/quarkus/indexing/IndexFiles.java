@@ -0,0 +1,346 @@
+package com.github.sebersole.gradle.quarkus.indexing;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.jboss.jandex.Index;
+import org.jboss.jandex.IndexReader;
+import org.jboss.jandex.IndexWriter;
+
+/**
+ * Reading and writing of the index files managed by the plugin.
+ *
+ * Index files are written to a temporary file which is then (atomically) moved into place,
+ * so readers never see a partially written index.  The serialized index is preceded by a
+ * header holding the format version, flags (compression), the payload length and a CRC-32
+ * of the payload, all of which are verified when reading.  A failed verification is reported
+ * as a {@link CorruptIndexException} so that the index can be regenerated.
+ *
+ * Embedded Jandex indexes are copied unparsed behind the same header (see {@link #wrap}), so that
+ * every index file carries its checksum.
+ *
+ * @implNote Files without the header (embedded indexes copied by earlier versions of the plugin)
+ * are still read as plain Jandex indexes, without verification
+ */
+public class IndexFiles {
+	private static final int MAGIC = 0x514A4958;
+	private static final int FORMAT_VERSION = 1;
+	private static final int HEADER_LENGTH = 4 + 1 + 1 + 8 + 4;
+
+	private static final int FLAG_COMPRESSED = 1;
+
+	private static final int BUFFER_SIZE = 256 * 1024;
+	private static final String TEMP_FILE_SUFFIX = ".tmp";
+
+	private IndexFiles() {
+		// disallow direct instantiation
+	}
+
+	/**
+	 * Write the index to the file
+	 */
+	public static void write(File file, Index index, boolean compress) throws IOException {
+		writeWithHeader( file, compress, payloadStream -> writePayload( payloadStream, index, compress ) );
+	}
+
+	/**
+	 * Write the serialized (plain Jandex) index read from the stream to the file - an embedded Jandex index,
+	 * e.g.  The index is not parsed; its bytes are copied unchanged behind the header
+	 */
+	public static void wrap(InputStream stream, File file) throws IOException {
+		writeWithHeader(
+				file,
+				false,
+				payloadStream -> {
+					final byte[] buffer = new byte[ 8 * 1024 ];
+					int read;
+					while ( ( read = stream.read( buffer ) ) >= 0 ) {
+						payloadStream.write( buffer, 0, read );
+					}
+					payloadStream.flush();
+				}
+		);
+	}
+
+	@FunctionalInterface
+	private interface PayloadWriter {
+		void writePayload(OutputStream payloadStream) throws IOException;
+	}
+
+	private static void writeWithHeader(File file, boolean compressed, PayloadWriter payloadWriter) throws IOException {
+		final Path target = file.toPath();
+		final Path directory = target.toAbsolutePath().getParent();
+		Files.createDirectories( directory );
+
+		final Path tempFile = Files.createTempFile( directory, file.getName(), TEMP_FILE_SUFFIX );
+		try {
+			final CRC32 checksum = new CRC32();
+
+			try ( final OutputStream fileStream = new BufferedOutputStream( Files.newOutputStream( tempFile ), BUFFER_SIZE ) ) {
+				// placeholder for the header, written once the payload is known
+				fileStream.write( new byte[ HEADER_LENGTH ] );
+				payloadWriter.writePayload( new CheckedOutputStream( fileStream, checksum ) );
+			}
+
+			try ( final RandomAccessFile headerAccess = new RandomAccessFile( tempFile.toFile(), "rw" ) ) {
+				final long payloadLength = headerAccess.length() - HEADER_LENGTH;
+				headerAccess.seek( 0 );
+				headerAccess.writeInt( MAGIC );
+				headerAccess.writeByte( FORMAT_VERSION );
+				headerAccess.writeByte( compressed ? FLAG_COMPRESSED : 0 );
+				headerAccess.writeLong( payloadLength );
+				headerAccess.writeInt( (int) checksum.getValue() );
+			}
+
+			moveIntoPlace( tempFile, target );
+		}
+		finally {
+			Files.deleteIfExists( tempFile );
+		}
+	}
+
+	private static void writePayload(OutputStream payloadStream, Index index, boolean compress) throws IOException {
+		if ( ! compress ) {
+			new IndexWriter( payloadStream ).write( index );
+			payloadStream.flush();
+			return;
+		}
+
+		final Deflater deflater = new Deflater( Deflater.BEST_SPEED );
+		try {
+			final DeflaterOutputStream compressedStream = new DeflaterOutputStream( payloadStream, deflater, BUFFER_SIZE );
+			new IndexWriter( compressedStream ).write( index );
+			compressedStream.finish();
+			compressedStream.flush();
+		}
+		finally {
+			deflater.end();
+		}
+	}
+
+	/**
+	 * Copy an index (or summary) file, byte-for-byte, to the file
+	 */
+	public static void copy(File source, File file) throws IOException {
+		try ( final InputStream stream = Files.newInputStream( source.toPath() ) ) {
+			copy( stream, file );
+		}
+	}
+
+	/**
+	 * Copy the stream, byte-for-byte, to the file.  As with {@link #write}, the file is only replaced
+	 * once the copy is complete
+	 */
+	public static void copy(InputStream stream, File file) throws IOException {
+		final Path target = file.toPath();
+		final Path directory = target.toAbsolutePath().getParent();
+		Files.createDirectories( directory );
+
+		final Path tempFile = Files.createTempFile( directory, file.getName(), TEMP_FILE_SUFFIX );
+		try {
+			Files.copy( stream, tempFile, StandardCopyOption.REPLACE_EXISTING );
+			moveIntoPlace( tempFile, target );
+		}
+		finally {
+			Files.deleteIfExists( tempFile );
+		}
+	}
+
+	private static void moveIntoPlace(Path tempFile, Path target) throws IOException {
+		try {
+			Files.move( tempFile, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE );
+		}
+		catch (AtomicMoveNotSupportedException e) {
+			Files.move( tempFile, target, StandardCopyOption.REPLACE_EXISTING );
+		}
+	}
+
+	/**
+	 * A hash of the index file's contents, stable across copies of the file (restoring it from the build
+	 * cache, e.g.).  This is the payload length and checksum recorded in the header when the file was
+	 * written, so only the header is read.  Files without the header (see the class notes) are
+	 * checksummed in full
+	 */
+	public static String contentHash(File file) throws IOException {
+		try ( final InputStream stream = new BufferedInputStream( Files.newInputStream( file.toPath() ), BUFFER_SIZE ) ) {
+			final DataInputStream dataStream = new DataInputStream( stream );
+			stream.mark( HEADER_LENGTH );
+			try {
+				if ( dataStream.readInt() == MAGIC && dataStream.readUnsignedByte() == FORMAT_VERSION ) {
+					final int flags = dataStream.readUnsignedByte();
+					final long payloadLength = dataStream.readLong();
+					final long checksum = dataStream.readInt() & 0xFFFFFFFFL;
+					return flags + ":" + payloadLength + ":" + Long.toHexString( checksum );
+				}
+			}
+			catch (EOFException ignore) {
+				// shorter than a header - not written by us
+			}
+			stream.reset();
+
+			final CRC32 checksum = new CRC32();
+			final byte[] buffer = new byte[ 8 * 1024 ];
+			long length = 0;
+			int read;
+			while ( ( read = stream.read( buffer ) ) >= 0 ) {
+				checksum.update( buffer, 0, read );
+				length += read;
+			}
+			return "plain:" + length + ":" + Long.toHexString( checksum.getValue() );
+		}
+	}
+
+	/**
+	 * Read the index from the file
+	 *
+	 * @throws CorruptIndexException If the file is not a valid index file
+	 */
+	public static Index read(File file) throws IOException {
+		try ( final InputStream stream = Files.newInputStream( file.toPath() ) ) {
+			return read( stream, file.getAbsolutePath() );
+		}
+	}
+
+	/**
+	 * Read the index from the stream
+	 *
+	 * @param description Description of the source of the stream, for error messages
+	 *
+	 * @throws CorruptIndexException If the stream does not contain a valid index
+	 */
+	public static Index read(InputStream stream, String description) throws IOException {
+		final InputStream bufferedStream = stream.markSupported() ? stream : new BufferedInputStream( stream, BUFFER_SIZE );
+		final DataInputStream dataStream = new DataInputStream( bufferedStream );
+
+		try {
+			bufferedStream.mark( HEADER_LENGTH );
+			if ( dataStream.readInt() != MAGIC ) {
+				// plain Jandex index
+				bufferedStream.reset();
+				return new IndexReader( bufferedStream ).read();
+			}
+
+			final int formatVersion = dataStream.readUnsignedByte();
+			if ( formatVersion != FORMAT_VERSION ) {
+				throw new CorruptIndexException( "Unsupported index file format version (" + formatVersion + ") : " + description );
+			}
+
+			final int flags = dataStream.readUnsignedByte();
+			final long payloadLength = dataStream.readLong();
+			final long expectedChecksum = dataStream.readInt() & 0xFFFFFFFFL;
+
+			final CRC32 checksum = new CRC32();
+			final LimitedInputStream payloadStream = new LimitedInputStream( bufferedStream, payloadLength );
+			final CheckedInputStream checkedStream = new CheckedInputStream( payloadStream, checksum );
+
+			final Index index;
+			if ( ( flags & FLAG_COMPRESSED ) != 0 ) {
+				index = new IndexReader( new InflaterInputStream( checkedStream ) ).read();
+			}
+			else {
+				index = new IndexReader( checkedStream ).read();
+			}
+
+			// consume any of the payload not read by the IndexReader so the checksum covers all of it
+			final byte[] remainder = new byte[ 8 * 1024 ];
+			//noinspection StatementWithEmptyBody
+			while ( checkedStream.read( remainder ) >= 0 ) {
+			}
+
+			if ( payloadStream.getCount() != payloadLength ) {
+				throw new CorruptIndexException( "Index file is truncated : " + description );
+			}
+
+			if ( checksum.getValue() != expectedChecksum ) {
+				throw new CorruptIndexException( "Index file checksum mismatch : " + description );
+			}
+
+			return index;
+		}
+		catch (EOFException e) {
+			throw new CorruptIndexException( "Index file is truncated : " + description, e );
+		}
+		catch (RuntimeException e) {
+			// the Jandex IndexReader reports garbage in various ways
+			throw new CorruptIndexException( "Index file could not be parsed : " + description, e );
+		}
+	}
+
+	/**
+	 * Limits reading to a number of bytes, tracking how many were read
+	 */
+	private static class LimitedInputStream extends FilterInputStream {
+		private final long limit;
+		private long count;
+
+		private LimitedInputStream(InputStream delegate, long limit) {
+			super( delegate );
+			this.limit = limit;
+		}
+
+		private long getCount() {
+			return count;
+		}
+
+		@Override
+		public int read() throws IOException {
+			if ( count >= limit ) {
+				return -1;
+			}
+
+			final int read = super.read();
+			if ( read >= 0 ) {
+				count++;
+			}
+			return read;
+		}
+
+		@Override
+		public int read(byte[] bytes, int offset, int length) throws IOException {
+			if ( count >= limit ) {
+				return -1;
+			}
+
+			final int read = super.read( bytes, offset, (int) Math.min( length, limit - count ) );
+			if ( read > 0 ) {
+				count += read;
+			}
+			return read;
+		}
+
+		@Override
+		public long skip(long n) throws IOException {
+			final long skipped = super.skip( Math.min( n, limit - count ) );
+			count += skipped;
+			return skipped;
+		}
+
+		@Override
+		public int available() throws IOException {
+			return (int) Math.min( super.available(), limit - count );
+		}
+
+		@Override
+		public boolean markSupported() {
+			return false;
+		}
+	}
+}
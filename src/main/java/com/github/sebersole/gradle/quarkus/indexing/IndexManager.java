@@ -9,11 +9,62 @@ import org.jboss.jandex.Index;
  */
 public interface IndexManager {
 	File getIndexFile();
+
+	/**
+	 * Access to the index.  Loads the index from the index file if it is not
+	 * currently held in memory
+	 */
 	Index getIndex();
 
+	/**
+	 * The index if it is currently held in memory; {@code null} otherwise.  Never loads the index
+	 */
+	Index getHeldIndex();
+
+	/**
+	 * The file holding the summary of the index
+	 *
+	 * @see IndexSummary
+	 */
+	File getSummaryFile();
+
+	/**
+	 * Access to the index summary, without loading the index if it is not already
+	 * held in memory.  May return {@code null} if no summary is available
+	 */
+	IndexSummary getSummary();
+
 	boolean isResolved();
 
+	/**
+	 * How {@link #resolve()} resolved the index
+	 */
+	enum Resolution {
+		/**
+		 * The index was generated and is held in memory
+		 */
+		GENERATED,
+		/**
+		 * The index file was produced without parsing the index (an embedded index copied verbatim, e.g.).
+		 * The index is loaded on first use
+		 */
+		INDEX_FILE,
+		/**
+		 * There was nothing to index (the artifact is not an archive, e.g.)
+		 */
+		NONE
+	}
+
+	/**
+	 * Resolve the index file, avoiding parsing the index where possible
+	 */
+	Resolution resolve();
+
 	// these are the only 2 "resolve" forms
+
+	/**
+	 * Generate the index (and its index file).  Returns {@code null} only if there was nothing to index
+	 */
 	Index generateIndex();
 	Index readIndex();
 }
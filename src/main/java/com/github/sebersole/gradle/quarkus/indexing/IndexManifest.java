@@ -0,0 +1,114 @@
+package com.github.sebersole.gradle.quarkus.indexing;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.github.sebersole.gradle.quarkus.Logging;
+
+/**
+ * Manifest recording, for each external artifact index file, the fingerprint (see ArchiveFingerprint)
+ * of the artifact it was generated from.  Used to detect indexes which are stale because the artifact
+ * changed (SNAPSHOTs, locally re-published artifacts, e.g.) without having to re-index it.
+ *
+ * @implNote Stored as a sorted, line-based text file
+ */
+public class IndexManifest {
+	public static final String MANIFEST_FILE_NAME = "___indexes.manifest";
+
+	private static final char SEPARATOR = '\t';
+
+	private final File manifestFile;
+	private final Map<String, String> fingerprints = new TreeMap<>();
+
+	private IndexManifest(File manifestFile) {
+		this.manifestFile = manifestFile;
+	}
+
+	/**
+	 * Load the manifest from the given Jandex directory.  A missing or unreadable
+	 * manifest results in an empty one
+	 */
+	public static IndexManifest load(File jandexDirectory) {
+		final IndexManifest manifest = new IndexManifest( new File( jandexDirectory, MANIFEST_FILE_NAME ) );
+		if ( ! manifest.manifestFile.exists() ) {
+			return manifest;
+		}
+
+		try ( final BufferedReader reader = Files.newBufferedReader( manifest.manifestFile.toPath(), StandardCharsets.UTF_8 ) ) {
+			String line;
+			while ( ( line = reader.readLine() ) != null ) {
+				final int separatorPosition = line.indexOf( SEPARATOR );
+				if ( separatorPosition > 0 ) {
+					manifest.fingerprints.put( line.substring( 0, separatorPosition ), line.substring( separatorPosition + 1 ) );
+				}
+			}
+		}
+		catch (IOException e) {
+			Logging.LOGGER.debug( "Unable to read Jandex index manifest {} : {}", manifest.manifestFile.getAbsolutePath(), e.getMessage() );
+			manifest.fingerprints.clear();
+		}
+
+		return manifest;
+	}
+
+	public File getManifestFile() {
+		return manifestFile;
+	}
+
+	/**
+	 * Whether the index file was recorded as generated from an artifact with the given fingerprint
+	 */
+	public boolean isCurrent(File indexFile, String fingerprint) {
+		return fingerprint != null && fingerprint.equals( fingerprints.get( indexFile.getName() ) );
+	}
+
+	/**
+	 * Record the fingerprint of the artifact the index file was generated from
+	 */
+	public void record(File indexFile, String fingerprint) {
+		if ( fingerprint == null ) {
+			fingerprints.remove( indexFile.getName() );
+		}
+		else {
+			fingerprints.put( indexFile.getName(), fingerprint );
+		}
+	}
+
+	/**
+	 * Only keep the entries for the given index files
+	 */
+	public void retainAll(Iterable<File> indexFiles) {
+		final Map<String, String> retained = new TreeMap<>();
+		for ( File indexFile : indexFiles ) {
+			final String fingerprint = fingerprints.get( indexFile.getName() );
+			if ( fingerprint != null ) {
+				retained.put( indexFile.getName(), fingerprint );
+			}
+		}
+
+		fingerprints.clear();
+		fingerprints.putAll( retained );
+	}
+
+	public void save() {
+		try ( final BufferedWriter writer = Files.newBufferedWriter( manifestFile.toPath(), StandardCharsets.UTF_8 ) ) {
+			for ( Map.Entry<String, String> entry : fingerprints.entrySet() ) {
+				writer.write( entry.getKey() );
+				writer.write( SEPARATOR );
+				writer.write( entry.getValue() );
+				writer.newLine();
+			}
+		}
+		catch (IOException e) {
+			Logging.LOGGER.debug( "Unable to write Jandex index manifest {} : {}", manifestFile.getAbsolutePath(), e.getMessage() );
+			//noinspection ResultOfMethodCallIgnored
+			manifestFile.delete();
+		}
+	}
+}
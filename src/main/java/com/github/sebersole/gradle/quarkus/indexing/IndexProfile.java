@@ -0,0 +1,105 @@
+package com.github.sebersole.gradle.quarkus.indexing;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import org.gradle.api.GradleException;
+
+import org.jboss.jandex.ClassInfo;
+import org.jboss.jandex.DotName;
+import org.jboss.jandex.Index;
+
+import com.github.sebersole.gradle.quarkus.dsl.IndexingConfig;
+
+/**
+ * How much detail is kept in the indexes of external artifacts.
+ *
+ * The consumers of the indexes (persistence-unit resolution, extension scanning) only need the names,
+ * supertypes and interfaces of classes, plus annotations and the types of annotated members.  The SLIM
+ * profile keeps the complete ClassInfo only for classes using annotations; all other classes are reduced
+ * to their name, flags, superclass and interfaces (no fields, methods or parameters).
+ *
+ * @implNote The profile is part of the index file name and of the shared cache keys, so indexes
+ * for different profiles are never mixed
+ */
+public enum IndexProfile {
+	/**
+	 * Complete Jandex indexes
+	 */
+	FULL,
+
+	/**
+	 * Member detail only for classes using annotations
+	 */
+	SLIM;
+
+	public static IndexProfile from(IndexingConfig indexingConfig) {
+		return fromName( indexingConfig.getIndexProfile() );
+	}
+
+	public static IndexProfile fromName(String name) {
+		if ( name == null ) {
+			return FULL;
+		}
+
+		try {
+			return valueOf( name.trim().toUpperCase( Locale.ROOT ) );
+		}
+		catch (IllegalArgumentException e) {
+			throw new GradleException( "Unknown index profile `" + name + "`; expecting `full` or `slim`" );
+		}
+	}
+
+	/**
+	 * The key for the profile, used in file names and cache keys
+	 */
+	public String getKey() {
+		return name().toLowerCase( Locale.ROOT );
+	}
+
+	/**
+	 * Apply the profile to the given index
+	 */
+	public Index apply(Index index) {
+		if ( this == FULL || index == null ) {
+			return index;
+		}
+
+		final List<ClassInfo> classes = new ArrayList<>();
+		for ( ClassInfo classInfo : index.getKnownClasses() ) {
+			if ( ! classInfo.annotations().isEmpty() ) {
+				// annotation targets refer to the class' members - keep them
+				classes.add( classInfo );
+				continue;
+			}
+
+			classes.add(
+					ClassInfo.create(
+							classInfo.name(),
+							classInfo.superName(),
+							classInfo.flags(),
+							classInfo.interfaceNames().toArray( new DotName[0] ),
+							Collections.emptyMap(),
+							classInfo.hasNoArgsConstructor()
+					)
+			);
+		}
+
+		return JandexHelper.createIndex( classes );
+	}
+
+	/**
+	 * Combines the package filter (if one) and profile into the discriminator used for cache keys.
+	 * Returns the same discriminator as before profiles existed for full indexes
+	 */
+	public static String discriminator(PackageFilter packageFilter, IndexProfile profile) {
+		final String filterKey = packageFilter == null ? null : packageFilter.getKey();
+		if ( profile == null || profile == FULL ) {
+			return filterKey;
+		}
+
+		return ( filterKey == null ? "" : filterKey ) + "profile=" + profile.getKey() + ";";
+	}
+}
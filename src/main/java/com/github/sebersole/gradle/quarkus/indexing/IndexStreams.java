@@ -0,0 +1,165 @@
+package com.github.sebersole.gradle.quarkus.indexing;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.jboss.jandex.AnnotationInstance;
+import org.jboss.jandex.ClassInfo;
+import org.jboss.jandex.DotName;
+import org.jboss.jandex.IndexView;
+
+/**
+ * Streaming queries over an index.  The collections held by the given view are walked in place,
+ * rather than copied into a new collection per query.  Visitors can stop the walk early, and the
+ * streams split across (and within) the per-name results for parallel processing.
+ *
+ * @implNote For the composite index this walks the view it currently serves from (the mapped tables,
+ * the snapshot or the flattened index) - never the per-dependency indexes, which would all have to be
+ * loaded.  A class contributed by more than one dependency is therefore reported once, as by the
+ * composite's IndexView methods
+ */
+public class IndexStreams {
+	private IndexStreams() {
+		// disallow direct instantiation
+	}
+
+	/**
+	 * Visitor for streamed query results
+	 */
+	@FunctionalInterface
+	public interface IndexVisitor<T> {
+		/**
+		 * Visit a result
+		 *
+		 * @return {@code false} to stop visiting
+		 */
+		boolean visit(T result);
+	}
+
+	/**
+	 * Visit the usages of the named annotations
+	 *
+	 * @return {@code true} if all usages were visited; {@code false} if the visitor stopped the walk
+	 */
+	public static boolean visitAnnotations(IndexView index, IndexVisitor<? super AnnotationInstance> visitor, DotName... annotationNames) {
+		return visit( annotationSpliterator( index, annotationNames ), visitor );
+	}
+
+	/**
+	 * Visit the known classes
+	 *
+	 * @return {@code true} if all classes were visited; {@code false} if the visitor stopped the walk
+	 */
+	public static boolean visitKnownClasses(IndexView index, IndexVisitor<? super ClassInfo> visitor) {
+		return visit( knownClassSpliterator( index ), visitor );
+	}
+
+	/**
+	 * Stream the usages of the named annotations
+	 */
+	public static Stream<AnnotationInstance> annotations(IndexView index, boolean parallel, DotName... annotationNames) {
+		return StreamSupport.stream( annotationSpliterator( index, annotationNames ), parallel );
+	}
+
+	/**
+	 * Stream the known classes
+	 */
+	public static Stream<ClassInfo> knownClasses(IndexView index, boolean parallel) {
+		return StreamSupport.stream( knownClassSpliterator( index ), parallel );
+	}
+
+	public static Spliterator<AnnotationInstance> annotationSpliterator(IndexView index, DotName... annotationNames) {
+		final List<Collection<AnnotationInstance>> results = new ArrayList<>( annotationNames.length );
+		for ( DotName annotationName : annotationNames ) {
+			final Collection<AnnotationInstance> usages = index.getAnnotations( annotationName );
+			if ( usages != null && ! usages.isEmpty() ) {
+				results.add( usages );
+			}
+		}
+
+		if ( results.size() == 1 ) {
+			return results.get( 0 ).spliterator();
+		}
+		return new ResultsSpliterator<>( results, 0, results.size() );
+	}
+
+	public static Spliterator<ClassInfo> knownClassSpliterator(IndexView index) {
+		return index.getKnownClasses().spliterator();
+	}
+
+	private static <T> boolean visit(Spliterator<T> spliterator, IndexVisitor<? super T> visitor) {
+		final boolean[] stopped = new boolean[1];
+		//noinspection StatementWithEmptyBody
+		while ( ! stopped[0] && spliterator.tryAdvance( result -> stopped[0] = ! visitor.visit( result ) ) ) {
+		}
+		return ! stopped[0];
+	}
+
+	/**
+	 * Walks a range of query results (one collection per queried name) in turn.  Splits by halving
+	 * the range of results not yet started, and finally the result being walked by its own spliterator
+	 */
+	private static class ResultsSpliterator<T> implements Spliterator<T> {
+		private final List<? extends Collection<? extends T>> results;
+
+		private int nextResult;
+		private int endResult;
+
+		private Spliterator<? extends T> current = Spliterators.emptySpliterator();
+
+		private ResultsSpliterator(List<? extends Collection<? extends T>> results, int nextResult, int endResult) {
+			this.results = results;
+			this.nextResult = nextResult;
+			this.endResult = endResult;
+		}
+
+		@Override
+		public boolean tryAdvance(Consumer<? super T> action) {
+			while ( ! current.tryAdvance( action ) ) {
+				if ( nextResult >= endResult ) {
+					return false;
+				}
+				current = results.get( nextResult++ ).spliterator();
+			}
+			return true;
+		}
+
+		@Override
+		public Spliterator<T> trySplit() {
+			final int remaining = endResult - nextResult;
+			if ( remaining >= 2 ) {
+				final int middle = nextResult + remaining / 2;
+				final ResultsSpliterator<T> split = new ResultsSpliterator<>( results, nextResult, middle );
+				nextResult = middle;
+				return split;
+			}
+
+			// hand off the remaining result, or split the one being walked
+			@SuppressWarnings("unchecked")
+			final Spliterator<T> split = remaining == 1
+					? (Spliterator<T>) results.get( nextResult++ ).spliterator()
+					: (Spliterator<T>) current.trySplit();
+			return split;
+		}
+
+		@Override
+		public long estimateSize() {
+			long size = current.estimateSize();
+			for ( int i = nextResult; i < endResult; i++ ) {
+				size += results.get( i ).size();
+			}
+			return size;
+		}
+
+		@Override
+		public int characteristics() {
+			return NONNULL | IMMUTABLE;
+		}
+	}
+}
@@ -0,0 +1,202 @@
+package com.github.sebersole.gradle.quarkus.indexing;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.jboss.jandex.ClassInfo;
+import org.jboss.jandex.DotName;
+import org.jboss.jandex.IndexView;
+
+import com.github.sebersole.gradle.quarkus.Logging;
+
+/**
+ * Compact summary of a single Jandex index - the names of all annotations used and of
+ * all interfaces implemented and classes extended within the index.  It is written next to
+ * the index file so that consumers can decide whether an index is relevant to them without
+ * having to load the index itself.
+ *
+ * @implNote Stored as a sorted, line-based text file, starting with a version line.  Summaries of an
+ * earlier version are treated as missing
+ */
+public class IndexSummary {
+	public static final String SUMMARY_FILE_SUFFIX = ".summary";
+
+	private static final String VERSION_LINE = "V2";
+
+	private static final char ANNOTATION_MARKER = 'A';
+	private static final char INTERFACE_MARKER = 'I';
+	private static final char SUPERCLASS_MARKER = 'S';
+
+	private final Set<String> annotationNames;
+	private final Set<String> interfaceNames;
+	private final Set<String> superclassNames;
+
+	public IndexSummary(Set<String> annotationNames, Set<String> interfaceNames, Set<String> superclassNames) {
+		this.annotationNames = annotationNames;
+		this.interfaceNames = interfaceNames;
+		this.superclassNames = superclassNames;
+	}
+
+	/**
+	 * Build the summary for the given index
+	 */
+	public static IndexSummary from(IndexView index) {
+		if ( index == null ) {
+			return new IndexSummary( Collections.emptySet(), Collections.emptySet(), Collections.emptySet() );
+		}
+
+		final Set<String> annotationNames = new TreeSet<>();
+		final Set<String> interfaceNames = new TreeSet<>();
+		final Set<String> superclassNames = new TreeSet<>();
+
+		for ( ClassInfo classInfo : index.getKnownClasses() ) {
+			classInfo.annotations().keySet().forEach( name -> annotationNames.add( NamePool.intern( name.toString() ) ) );
+			classInfo.interfaceNames().forEach( name -> interfaceNames.add( NamePool.intern( name.toString() ) ) );
+			if ( classInfo.superName() != null ) {
+				superclassNames.add( NamePool.intern( classInfo.superName().toString() ) );
+			}
+		}
+
+		return new IndexSummary( annotationNames, interfaceNames, superclassNames );
+	}
+
+	/**
+	 * The summary file to use for the given index file
+	 */
+	public static File summaryFile(File indexFile) {
+		return new File( indexFile.getParentFile(), indexFile.getName() + SUMMARY_FILE_SUFFIX );
+	}
+
+	public Set<String> getAnnotationNames() {
+		return annotationNames;
+	}
+
+	public Set<String> getInterfaceNames() {
+		return interfaceNames;
+	}
+
+	public Set<String> getSuperclassNames() {
+		return superclassNames;
+	}
+
+	/**
+	 * Whether the summarized index contains any usage of the named annotation
+	 */
+	public boolean containsAnnotation(DotName annotationName) {
+		return annotationNames.contains( annotationName.toString() );
+	}
+
+	/**
+	 * Whether the summarized index contains any usage of any of the named annotations
+	 */
+	public boolean containsAnyAnnotation(DotName... annotationNames) {
+		for ( int i = 0; i < annotationNames.length; i++ ) {
+			if ( containsAnnotation( annotationNames[ i ] ) ) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Whether any class in the summarized index directly implements the named interface
+	 */
+	public boolean containsImplementor(DotName interfaceName) {
+		return interfaceNames.contains( interfaceName.toString() );
+	}
+
+	/**
+	 * Whether any class in the summarized index directly extends or implements any of the named types
+	 */
+	public boolean containsAnySubtype(Collection<DotName> typeNames) {
+		for ( DotName typeName : typeNames ) {
+			final String name = typeName.toString();
+			if ( interfaceNames.contains( name ) || superclassNames.contains( name ) ) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	public void write(File summaryFile) {
+		try {
+			Files.createDirectories( summaryFile.getParentFile().toPath() );
+
+			try ( final BufferedWriter writer = Files.newBufferedWriter( summaryFile.toPath(), StandardCharsets.UTF_8 ) ) {
+				writer.write( VERSION_LINE );
+				writer.newLine();
+				for ( String annotationName : annotationNames ) {
+					writer.write( ANNOTATION_MARKER );
+					writer.write( annotationName );
+					writer.newLine();
+				}
+				for ( String interfaceName : interfaceNames ) {
+					writer.write( INTERFACE_MARKER );
+					writer.write( interfaceName );
+					writer.newLine();
+				}
+				for ( String superclassName : superclassNames ) {
+					writer.write( SUPERCLASS_MARKER );
+					writer.write( superclassName );
+					writer.newLine();
+				}
+			}
+		}
+		catch (IOException e) {
+			Logging.LOGGER.debug( "Unable to write Jandex index summary file {} : {}", summaryFile.getAbsolutePath(), e.getMessage() );
+		}
+	}
+
+	/**
+	 * Read a summary file.
+	 *
+	 * @return The summary, or {@code null} if the file does not exist, could not be read or is of an earlier version
+	 */
+	public static IndexSummary read(File summaryFile) {
+		if ( ! summaryFile.exists() ) {
+			return null;
+		}
+
+		final Set<String> annotationNames = new TreeSet<>();
+		final Set<String> interfaceNames = new TreeSet<>();
+		final Set<String> superclassNames = new TreeSet<>();
+
+		try ( final BufferedReader reader = Files.newBufferedReader( summaryFile.toPath(), StandardCharsets.UTF_8 ) ) {
+			if ( ! VERSION_LINE.equals( reader.readLine() ) ) {
+				Logging.LOGGER.debug( "Ignoring Jandex index summary file of an earlier version : {}", summaryFile.getAbsolutePath() );
+				return null;
+			}
+
+			String line;
+			while ( ( line = reader.readLine() ) != null ) {
+				if ( line.isEmpty() ) {
+					continue;
+				}
+
+				if ( line.charAt( 0 ) == ANNOTATION_MARKER ) {
+					annotationNames.add( NamePool.intern( line.substring( 1 ) ) );
+				}
+				else if ( line.charAt( 0 ) == INTERFACE_MARKER ) {
+					interfaceNames.add( NamePool.intern( line.substring( 1 ) ) );
+				}
+				else if ( line.charAt( 0 ) == SUPERCLASS_MARKER ) {
+					superclassNames.add( NamePool.intern( line.substring( 1 ) ) );
+				}
+			}
+		}
+		catch (IOException e) {
+			Logging.LOGGER.debug( "Unable to read Jandex index summary file {} : {}", summaryFile.getAbsolutePath(), e.getMessage() );
+			return null;
+		}
+
+		return new IndexSummary( annotationNames, interfaceNames, superclassNames );
+	}
+}
@@ -1,18 +1,23 @@
 package com.github.sebersole.gradle.quarkus.indexing;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
 
 import org.gradle.api.file.Directory;
+import org.gradle.api.provider.Provider;
 
-import org.jboss.jandex.Index;
-
+import com.github.sebersole.gradle.quarkus.Logging;
+import com.github.sebersole.gradle.quarkus.dsl.IndexingConfig;
 import com.github.sebersole.gradle.quarkus.service.ProjectInfo;
 import com.github.sebersole.gradle.quarkus.dependency.ExternalDependency;
 import com.github.sebersole.gradle.quarkus.dependency.ProjectDependency;
@@ -24,14 +29,31 @@ import com.github.sebersole.gradle.quarkus.service.Services;
  * A service for handling Jandex indexes
  */
 public class IndexingService implements Service<IndexingService> {
+	/**
+	 * The indexes (index file name to content hash, see CompositeTables#describe) last published for
+	 * each Jandex directory within this daemon
+	 */
+	private static final Map<String, Map<String, String>> PUBLISHED_INDEXES = new ConcurrentHashMap<>();
+
 	private final Directory jandexDirectory;
 	private final Services services;
 
+	private SharedIndexStore sharedIndexStore;
+	private ClassIndexingPipeline classIndexingPipeline;
+	private Provider<SharedIndexRegistry> sharedIndexRegistry;
+	private boolean packageFilterResolved;
+	private PackageFilter packageFilter;
+	private IndexProfile indexProfile;
+
 	private final Map<File,ProjectIndexManager> projectIndexManagers = new HashMap<>();
 	private final Map<File, ExternalArtifactIndexManager> indexManagers = new HashMap<>();
+	private final Map<String, ExternalArtifactIndexManager> indexManagersByIdentifier = new HashMap<>();
 
 	private final MutableCompositeIndex compositeIndex = new MutableCompositeIndex();
 
+	private final List<IndexChangeListener> changeListeners = new CopyOnWriteArrayList<>();
+	private IndexChangeSet lastChangeSet;
+
 	public IndexingService(Services services) {
 		assert services != null : "Services is null";
 
@@ -52,6 +74,110 @@ public class IndexingService implements Service<IndexingService> {
 		return compositeIndex;
 	}
 
+	/**
+	 * Register a listener for the changes made to the indexes by the Jandex task
+	 */
+	public void addIndexChangeListener(IndexChangeListener listener) {
+		changeListeners.add( listener );
+	}
+
+	public void removeIndexChangeListener(IndexChangeListener listener) {
+		changeListeners.remove( listener );
+	}
+
+	/**
+	 * The changes made to the indexes in this build, or {@code null} if the indexes were not yet
+	 * made available.  Unknown (see {@link IndexChangeSet#isComplete()}) if the indexes were
+	 * restored from the build cache
+	 */
+	public IndexChangeSet getLastChangeSet() {
+		return lastChangeSet;
+	}
+
+	/**
+	 * Publish the changes made by the Jandex task to the registered listeners
+	 */
+	public void publishChanges(IndexChangeSet changeSet) {
+		lastChangeSet = changeSet;
+		PUBLISHED_INDEXES.put( jandexDirectory.getAsFile().getAbsolutePath(), CompositeTables.describe( getAllIndexManagers() ) );
+
+		Logging.LOGGER.debug( "Publishing index changes : {}", changeSet );
+		changeListeners.forEach( listener -> listener.indexesChanged( changeSet ) );
+	}
+
+	/**
+	 * The type hierarchy closure over the composite index
+	 */
+	public HierarchyClosure getHierarchyClosure() {
+		return compositeIndex.getHierarchyClosure();
+	}
+
+	/**
+	 * The store of indexes shared across builds, or {@code null} if sharing is disabled
+	 */
+	public SharedIndexStore getSharedIndexStore() {
+		final IndexingConfig indexingConfig = services.getBuildDetails().getIndexingConfigProvider().get();
+		if ( ! indexingConfig.isSharedCacheEnabled() ) {
+			return null;
+		}
+
+		if ( sharedIndexStore == null ) {
+			final File gradleUserHome = services.getBuildDetails().getMainProject().getGradle().getGradleUserHomeDir();
+			final File cachesDirectory = new File( gradleUserHome, "caches" );
+			sharedIndexStore = new SharedIndexStore( new File( cachesDirectory, SharedIndexStore.STORE_NAME ), indexingConfig );
+		}
+
+		return sharedIndexStore;
+	}
+
+	/**
+	 * The registry of indexes shared by all projects in the build
+	 */
+	public Provider<SharedIndexRegistry> getSharedIndexRegistry() {
+		if ( sharedIndexRegistry == null ) {
+			sharedIndexRegistry = SharedIndexRegistry.register(
+					services.getBuildDetails().getMainProject(),
+					services.getBuildDetails().getIndexingConfigProvider()
+			);
+		}
+
+		return sharedIndexRegistry;
+	}
+
+	/**
+	 * The pipeline used to index the classes from jars and classes directories
+	 */
+	public ClassIndexingPipeline getClassIndexingPipeline() {
+		if ( classIndexingPipeline == null ) {
+			classIndexingPipeline = ClassIndexingPipeline.from( services.getBuildDetails().getIndexingConfigProvider().get() );
+		}
+
+		return classIndexingPipeline;
+	}
+
+	/**
+	 * The filter applied when indexing external artifacts, or {@code null} if sparse indexing is not enabled
+	 */
+	public PackageFilter getPackageFilter() {
+		if ( ! packageFilterResolved ) {
+			packageFilter = PackageFilter.from( services.getBuildDetails().getIndexingConfigProvider().get() );
+			packageFilterResolved = true;
+		}
+
+		return packageFilter;
+	}
+
+
+	/**
+	 * The detail kept in the indexes of external artifacts
+	 */
+	public IndexProfile getIndexProfile() {
+		if ( indexProfile == null ) {
+			indexProfile = IndexProfile.from( services.getBuildDetails().getIndexingConfigProvider().get() );
+		}
+
+		return indexProfile;
+	}
 
 	public Set<File> getIndexedExternalArtifactBases() {
 		return indexManagers.keySet();
@@ -92,6 +218,22 @@ public class IndexingService implements Service<IndexingService> {
 		);
 	}
 
+	public ProjectIndexManager findProjectIndexManager(File base) {
+		return projectIndexManagers.get( base );
+	}
+
+	/**
+	 * Find the manager for an external artifact by its `group:artifact:version` identifier and the name
+	 * of its file.  The file name tells apart the artifacts (classifier, extension) of the same module
+	 */
+	public ExternalArtifactIndexManager findExternalArtifactIndexManager(String groupArtifactVersion, String artifactFileName) {
+		return indexManagersByIdentifier.get( artifactIdentifier( groupArtifactVersion, artifactFileName ) );
+	}
+
+	private static String artifactIdentifier(String groupArtifactVersion, String artifactFileName) {
+		return groupArtifactVersion + '/' + artifactFileName;
+	}
+
 	public IndexManager findIndexManagerByIndexFile(File indexFile) {
 		return first(
 				() -> first( projectIndexManagers.values(), manager -> manager.getIndexFile().equals( indexFile ) ),
@@ -141,7 +283,9 @@ public class IndexingService implements Service<IndexingService> {
 
 		final ProjectIndexManager indexManager = new ProjectIndexManager(
 				projectInfo.getMainSourceSet(),
-				determineIndexFile( dependency, jandexDirectory )
+				determineIndexFile( dependency, jandexDirectory ),
+				getClassIndexingPipeline(),
+				isCompressIndexes()
 		);
 
 		projectIndexManagers.put( dependency.getDependencyBase(), indexManager );
@@ -155,33 +299,129 @@ public class IndexingService implements Service<IndexingService> {
 			return new IndexAccess( existing );
 		}
 
+		final PackageFilter packageFilter = getPackageFilter();
+		final IndexProfile indexProfile = getIndexProfile();
 		final ExternalArtifactIndexManager indexManager = new ExternalArtifactIndexManager(
 				dependency.getDependencyBase(),
-				determineIndexFile( dependency, jandexDirectory )
+				determineIndexFile( dependency, packageFilter, indexProfile, jandexDirectory ),
+				isCompressIndexes(),
+				getSharedIndexStore(),
+				getClassIndexingPipeline(),
+				packageFilter,
+				indexProfile,
+				getSharedIndexRegistry(),
+				services.getArchiveAccess()
 		);
 
 		indexManagers.put( dependency.getDependencyBase(), indexManager );
+		indexManagersByIdentifier.put(
+				artifactIdentifier( dependency.getModuleVersionIdentifier().groupArtifactVersion(), dependency.getDependencyBase().getName() ),
+				indexManager
+		);
 
 		return new IndexAccess( indexManager );
 	}
 
 	private static File determineIndexFile(ResolvedDependency dependency, Directory jandexDirectory) {
-		final String indexFileName = JandexHelper.indexFileName( dependency );
+		return determineIndexFile( dependency, null, IndexProfile.FULL, jandexDirectory );
+	}
+
+	private static File determineIndexFile(
+			ResolvedDependency dependency,
+			PackageFilter packageFilter,
+			IndexProfile indexProfile,
+			Directory jandexDirectory) {
+		// sparse and slim indexes get a distinct name so that changing the settings never picks up a stale index
+		final String indexFileName = JandexHelper.indexFileName( dependency, packageFilter, indexProfile );
 		return jandexDirectory.file( indexFileName ).getAsFile();
 	}
 
+	/**
+	 * Used when the Jandex task did not need to run to make the (up-to-date) indexes available.
+	 * The indexes themselves are only loaded on first use.
+	 *
+	 * An empty change-set is published if the index files are the ones last published within this daemon;
+	 * otherwise (restored from the build cache, or the first build of the daemon) an unknown one
+	 */
 	public void loadIndexes() {
-		projectIndexManagers.forEach(
-				(file, indexManager) -> {
-					final Index index = indexManager.readIndex();
-					compositeIndex.expand( index );
-				}
-		);
-		indexManagers.forEach(
-				(file, indexManager) -> {
-					final Index index = indexManager.readIndex();
-					compositeIndex.expand( index );
+		ParsedIndexCache.configure( services.getBuildDetails().getIndexingConfigProvider().get() );
+
+		projectIndexManagers.forEach( (file, indexManager) -> compositeIndex.expand( indexManager ) );
+		indexManagers.forEach( (file, indexManager) -> compositeIndex.expand( indexManager ) );
+
+		if ( isOffHeapIndex() ) {
+			final CompositeTables compositeTables = getCompositeTables();
+			if ( compositeTables.isCurrent( getAllIndexManagers() ) ) {
+				useCompositeTables( compositeTables );
+			}
+		}
+		else {
+			final CompositeSnapshot compositeSnapshot = getCompositeSnapshot();
+			if ( compositeSnapshot.isCurrent( getAllIndexManagers() ) ) {
+				compositeIndex.useSnapshot( compositeSnapshot::load );
+			}
+		}
+
+		// a restore from the build cache may have replaced any of the indexes
+		final Map<String, String> published = PUBLISHED_INDEXES.get( jandexDirectory.getAsFile().getAbsolutePath() );
+		final boolean unchanged = published != null && published.equals( CompositeTables.describe( getAllIndexManagers() ) );
+		publishChanges( unchanged ? IndexChangeSet.empty() : IndexChangeSet.unknown() );
+	}
+
+	/**
+	 * Whether index files are written compressed (see IndexFiles)
+	 */
+	public boolean isCompressIndexes() {
+		return services.getBuildDetails().getIndexingConfigProvider().get().isCompressIndexes();
+	}
+
+	/**
+	 * Whether the composite index is served from memory-mapped tables (see CompositeTables)
+	 */
+	public boolean isOffHeapIndex() {
+		return services.getBuildDetails().getIndexingConfigProvider().get().isOffHeapIndex();
+	}
+
+	/**
+	 * The memory-mapped tables over the composite index written by the Jandex task
+	 */
+	public CompositeTables getCompositeTables() {
+		return new CompositeTables( jandexDirectory.getAsFile() );
+	}
+
+	/**
+	 * Serve the composite index from the given (current) tables
+	 */
+	public void useCompositeTables(CompositeTables compositeTables) {
+		final Map<String, IndexManager> managersByFileName = new HashMap<>();
+		getAllIndexManagers().forEach( manager -> managersByFileName.put( manager.getIndexFile().getName(), manager ) );
+
+		final MappedIndexView mappedView = compositeTables.open(
+				indexFileName -> {
+					final IndexManager manager = managersByFileName.get( indexFileName );
+					return manager == null ? null : manager.getIndex();
 				}
 		);
+
+		if ( mappedView != null ) {
+			compositeIndex.useBackend( getSharedIndexRegistry().get().releaseOnClose( mappedView ) );
+		}
+	}
+
+	/**
+	 * The snapshot of the composite index written by the Jandex task
+	 */
+	public CompositeSnapshot getCompositeSnapshot() {
+		return new CompositeSnapshot( jandexDirectory.getAsFile(), isCompressIndexes() );
+	}
+
+	/**
+	 * All project and external artifact index managers
+	 */
+	public List<IndexManager> getAllIndexManagers() {
+		final List<IndexManager> managers = new ArrayList<>( projectIndexManagers.size() + indexManagers.size() );
+		managers.addAll( projectIndexManagers.values() );
+		managers.addAll( indexManagers.values() );
+		return managers;
 	}
 }
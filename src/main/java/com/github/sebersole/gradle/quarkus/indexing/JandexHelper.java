@@ -3,22 +3,26 @@ package com.github.sebersole.gradle.quarkus.indexing;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.NoSuchFileException;
+import java.util.ArrayList;
 import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Locale;
-import java.util.function.Supplier;
+import java.util.Map;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 import java.util.zip.ZipEntry;
 
 import org.gradle.api.GradleException;
 
+import org.jboss.jandex.AnnotationInstance;
+import org.jboss.jandex.ClassInfo;
 import org.jboss.jandex.DotName;
 import org.jboss.jandex.Index;
-import org.jboss.jandex.IndexReader;
-import org.jboss.jandex.IndexWriter;
+import org.jboss.jandex.IndexView;
 import org.jboss.jandex.Indexer;
 
 import com.github.sebersole.gradle.quarkus.Helper;
@@ -38,7 +42,23 @@ public class JandexHelper {
 	}
 
 	public static String indexFileName(ResolvedDependency dependency) {
-		return indexFileNameBase( dependency ) + ".idx";
+		return indexFileName( dependency, null );
+	}
+
+	public static String indexFileName(ResolvedDependency dependency, PackageFilter packageFilter) {
+		return indexFileName( dependency, packageFilter, IndexProfile.FULL );
+	}
+
+	public static String indexFileName(ResolvedDependency dependency, PackageFilter packageFilter, IndexProfile profile) {
+		final StringBuilder fileName = new StringBuilder( indexFileNameBase( dependency ) );
+		if ( packageFilter != null ) {
+			fileName.append( "___sparse-" ).append( packageFilter.getKeyHash() );
+		}
+		if ( profile != null && profile != IndexProfile.FULL ) {
+			fileName.append( "___" ).append( profile.getKey() );
+		}
+
+		return fileName.append( ".idx" ).toString();
 	}
 
 	private static String indexFileNameBase(ResolvedDependency dependency) {
@@ -69,44 +89,216 @@ public class JandexHelper {
 	}
 
 
+	/**
+	 * Create an Index over the given classes.  Allows (re)assembling indexes from
+	 * already indexed ClassInfo references without needing to re-read any class files.
+	 *
+	 * @implNote If multiple ClassInfo references have the same name, the first one wins.  Such
+	 * duplicates come from a single source (the versioned entries of a multi-release jar, e.g.)
+	 * and are only logged at debug level
+	 */
+	public static Index createIndex(Iterable<ClassInfo> classes) {
+		final IndexAssembler assembler = new IndexAssembler();
+		for ( ClassInfo classInfo : classes ) {
+			if ( ! assembler.add( classInfo ) ) {
+				Logging.LOGGER.debug( "Ignoring duplicate definition of class `{}`", classInfo.name() );
+			}
+		}
+		return assembler.complete();
+	}
+
+	/**
+	 * Create an Index over the classes of the given indexes, keyed by a description of their source
+	 * (the dependency, e.g.).
+	 *
+	 * @implNote If multiple sources define a class with the same name, the definition from the source
+	 * iterated first wins - as with a classpath.  Each such duplicate is logged as a warning naming both
+	 * sources
+	 */
+	public static Index createIndex(Map<String, ? extends IndexView> indexesBySource) {
+		final IndexAssembler assembler = new IndexAssembler();
+		indexesBySource.forEach(
+				(source, index) -> {
+					for ( ClassInfo classInfo : index.getKnownClasses() ) {
+						if ( ! assembler.add( classInfo ) ) {
+							final String winningSource = findSource( classInfo.name(), indexesBySource );
+							Logging.LOGGER.warn(
+									"Class `{}` is defined by both `{}` and `{}`; using the definition from `{}`",
+									classInfo.name(),
+									winningSource,
+									source,
+									winningSource
+							);
+						}
+					}
+				}
+		);
+		return assembler.complete();
+	}
+
+	private static String findSource(DotName className, Map<String, ? extends IndexView> indexesBySource) {
+		for ( Map.Entry<String, ? extends IndexView> entry : indexesBySource.entrySet() ) {
+			if ( entry.getValue().getClassByName( className ) != null ) {
+				return entry.getKey();
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Assembles the class, annotation and hierarchy tables of an Index, one class at a time
+	 */
+	private static class IndexAssembler {
+		private final Map<DotName, List<AnnotationInstance>> annotations = new HashMap<>();
+		private final Map<DotName, List<ClassInfo>> subclasses = new HashMap<>();
+		private final Map<DotName, List<ClassInfo>> implementors = new HashMap<>();
+		private final Map<DotName, ClassInfo> classesByName = new HashMap<>();
+
+		/**
+		 * @return {@code false} if a class of the same name was already added (and the class was ignored)
+		 */
+		private boolean add(ClassInfo classInfo) {
+			if ( classesByName.putIfAbsent( classInfo.name(), classInfo ) != null ) {
+				return false;
+			}
+
+			if ( classInfo.superName() != null ) {
+				subclasses.computeIfAbsent( classInfo.superName(), name -> new ArrayList<>() ).add( classInfo );
+			}
+
+			for ( DotName interfaceName : classInfo.interfaceNames() ) {
+				implementors.computeIfAbsent( interfaceName, name -> new ArrayList<>() ).add( classInfo );
+			}
+
+			classInfo.annotations().forEach(
+					(annotationName, instances) -> annotations.computeIfAbsent( annotationName, name -> new ArrayList<>() ).addAll( instances )
+			);
+			return true;
+		}
+
+		private Index complete() {
+			return Index.create( annotations, subclasses, implementors, classesByName );
+		}
+	}
+
 	public static Index resolveIndexFromArchive(JarFile jarFile, File jarFileFile) {
+		return resolveIndexFromArchive( jarFile, jarFileFile, ClassIndexingPipeline.SEQUENTIAL, null );
+	}
+
+	public static Index resolveIndexFromArchive(
+			JarFile jarFile,
+			File jarFileFile,
+			ClassIndexingPipeline pipeline,
+			PackageFilter packageFilter) {
+		return resolveIndexFromArchive( jarFile, jarFileFile, pipeline, packageFilter, IndexProfile.FULL );
+	}
+
+	/**
+	 * Resolve the index for an archive, either from its embedded index or by indexing its classes.
+	 *
+	 * @param packageFilter Limits the classes which are indexed; {@code null} indicates all classes
+	 * @param profile The detail kept in the index
+	 */
+	public static Index resolveIndexFromArchive(
+			JarFile jarFile,
+			File jarFileFile,
+			ClassIndexingPipeline pipeline,
+			PackageFilter packageFilter,
+			IndexProfile profile) {
 		final ZipEntry entry = jarFile.getEntry( JANDEX_INDEX_FILE_PATH );
 		if ( entry != null ) {
 			// the archiveFile contained a Jandex index file, use it
-			return readJandexIndex( entry, jarFile, jarFileFile );
+			final Index embeddedIndex = readJandexIndex( entry, jarFile, jarFileFile );
+			if ( embeddedIndex != null ) {
+				return profile.apply( packageFilter == null ? embeddedIndex : filterIndex( embeddedIndex, packageFilter ) );
+			}
+			// not readable (a newer Jandex version, e.g.) - fall through to indexing the classes
 		}
 
 		// otherwise, create an index from the artifact
-		return createJandexIndex( jarFile, jarFileFile );
+		return profile.apply( createJandexIndex( jarFile, jarFileFile, pipeline, packageFilter ) );
+	}
+
+	/**
+	 * Whether the archive contains an embedded Jandex index
+	 */
+	public static boolean hasEmbeddedIndex(JarFile jarFile) {
+		return jarFile.getEntry( JANDEX_INDEX_FILE_PATH ) != null;
 	}
 
-	private static Index createJandexIndex(JarFile jarFile, File jarFileFile) {
-		final Indexer indexer = new Indexer();
+	/**
+	 * Copy the archive's embedded Jandex index (if one), unparsed, to the target file (see IndexFiles#wrap)
+	 *
+	 * @return {@code true} if the archive contained an embedded index which was copied; {@code false} otherwise
+	 */
+	public static boolean copyEmbeddedIndex(JarFile jarFile, File target) throws IOException {
+		final ZipEntry entry = jarFile.getEntry( JANDEX_INDEX_FILE_PATH );
+		if ( entry == null ) {
+			return false;
+		}
+
+		try ( final InputStream indexStream = jarFile.getInputStream( entry ) ) {
+			IndexFiles.wrap( indexStream, target );
+		}
 
-		final Enumeration<JarEntry> entries = jarFile.entries();
-		while ( entries.hasMoreElements() ) {
-			final JarEntry jarEntry = entries.nextElement();
+		return true;
+	}
 
-			if ( jarEntry.getName().endsWith( ".class" ) ) {
-				try ( final InputStream stream = jarFile.getInputStream( jarEntry ) ) {
-					indexer.index( stream );
-				}
-				catch (Exception e) {
-					Logging.LOGGER.debug(
-							"Unable to index archive entry (`{}`) from archive (`{}`)",
-							jarEntry.getRealName(),
-							jarFileFile.getAbsolutePath()
-					);
-				}
+	private static Index filterIndex(Index index, PackageFilter packageFilter) {
+		final List<ClassInfo> classes = new ArrayList<>();
+		for ( ClassInfo classInfo : index.getKnownClasses() ) {
+			if ( packageFilter.accepts( classInfo ) ) {
+				classes.add( classInfo );
 			}
 		}
 
-		return indexer.complete();
+		return createIndex( classes );
+	}
+
+	private static Index createJandexIndex(
+			JarFile jarFile,
+			File jarFileFile,
+			ClassIndexingPipeline pipeline,
+			PackageFilter packageFilter) {
+		return pipeline.index(
+				visitor -> {
+					final Enumeration<JarEntry> entries = jarFile.entries();
+					while ( entries.hasMoreElements() ) {
+						final JarEntry jarEntry = entries.nextElement();
+
+						if ( ! jarEntry.getName().endsWith( ".class" ) ) {
+							continue;
+						}
+
+						if ( packageFilter != null && ! packageFilter.acceptsEntry( jarEntry.getName() ) ) {
+							continue;
+						}
+
+						try ( final InputStream stream = jarFile.getInputStream( jarEntry ) ) {
+							visitor.visitClass( jarEntry.getName(), Helper.readAllBytes( stream ) );
+						}
+						catch (IOException e) {
+							Logging.LOGGER.debug(
+									"Unable to index archive entry (`{}`) from archive (`{}`)",
+									jarEntry.getRealName(),
+									jarFileFile.getAbsolutePath()
+							);
+						}
+					}
+				},
+				jarFile.size()
+		);
 	}
 
+	/**
+	 * Read the archive's embedded index.  Handled like #parseJandexIndex - an embedded index which cannot
+	 * be read is logged and ignored, rather than failing the build
+	 *
+	 * @return The embedded index, or {@code null} if it could not be read
+	 */
 	private static Index readJandexIndex(ZipEntry indexEntry, JarFile jarFile, File jarFileFile) {
 		try ( final InputStream indexStream = jarFile.getInputStream( indexEntry ) ) {
-			return readJandexIndex( () -> indexStream );
+			return IndexFiles.read( indexStream, jarFileFile.getAbsolutePath() + "!/" + JANDEX_INDEX_FILE_PATH );
 		}
 		catch (FileNotFoundException e) {
 			throw new GradleException(
@@ -118,6 +310,13 @@ public class JandexHelper {
 					e
 			);
 		}
+		catch (CorruptIndexException e) {
+			Logging.LOGGER.warn(
+					"Ignoring unreadable embedded Jandex index in [{}], indexing its classes instead : {}",
+					jarFileFile.getAbsolutePath(),
+					e.getMessage()
+			);
+		}
 		catch (IOException e) {
 			Logging.LOGGER.debug(
 					"IOException accessing Jandex index file [{}] : {}",
@@ -131,13 +330,18 @@ public class JandexHelper {
 
 
 	/**
-	 * Read a Jandex index file and return the "serialized" index
+	 * Read a Jandex index file and return the "serialized" index.  Uses the parsed index
+	 * from ParsedIndexCache if the file did not change since it was last read or written
 	 */
 	public static Index readJandexIndex(File jandexFile) {
-		try ( final InputStream inputStream = new FileInputStream( jandexFile ) ) {
-			return readJandexIndex( () -> inputStream );
+		return ParsedIndexCache.read( jandexFile, JandexHelper::parseJandexIndex );
+	}
+
+	private static Index parseJandexIndex(File jandexFile) {
+		try {
+			return IndexFiles.read( jandexFile );
 		}
-		catch ( FileNotFoundException e ) {
+		catch ( NoSuchFileException | FileNotFoundException e ) {
 			throw new GradleException(
 					String.format(
 							Locale.ROOT,
@@ -147,6 +351,12 @@ public class JandexHelper {
 					e
 			);
 		}
+		catch ( CorruptIndexException e ) {
+			// remove it so that the index is regenerated
+			Logging.LOGGER.warn( "Discarding corrupt Jandex index file [{}] : {}", jandexFile.getAbsolutePath(), e.getMessage() );
+			//noinspection ResultOfMethodCallIgnored
+			jandexFile.delete();
+		}
 		catch ( IOException e ) {
 			Logging.LOGGER.debug(
 					"IOException accessing Jandex index file [{}] : {}",
@@ -158,29 +368,19 @@ public class JandexHelper {
 		return null;
 	}
 
-	private static Index readJandexIndex(Supplier<InputStream> streamAccess) throws IOException {
-		final IndexReader reader = new IndexReader( streamAccess.get() );
-		return reader.read();
-	}
-
 	/**
-	 * Write an Index to the specified File
+	 * Write an Index to the specified File, optionally compressed.  See IndexFiles
 	 */
-	public static void writeIndexToFile(File outputFile, Index jandexIndex) {
+	public static void writeIndexToFile(File outputFile, Index jandexIndex, boolean compress) {
 		try {
-			final boolean deleted = outputFile.delete();
-			if ( ! deleted ) {
-				Logging.LOGGER.debug( "Unable to delete index file : {}", outputFile.getAbsolutePath() );
-			}
-			Helper.ensureFileExists( outputFile );
-
-			try ( final FileOutputStream out = new FileOutputStream( outputFile ) ) {
-				final IndexWriter indexWriter = new IndexWriter( out );
-				indexWriter.write( jandexIndex );
-			}
+			IndexFiles.write( outputFile, jandexIndex, compress );
+			ParsedIndexCache.put( outputFile, jandexIndex );
 		}
 		catch ( IOException e ) {
 			Logging.LOGGER.debug( "Unable to create Jandex index file {} : {}", outputFile.getAbsolutePath(), e.getMessage() );
+			// do not leave a previous (now stale) index in place
+			//noinspection ResultOfMethodCallIgnored
+			outputFile.delete();
 		}
 	}
 
@@ -188,44 +388,18 @@ public class JandexHelper {
 	// ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
 	// Used for project indexing
 
-	public static void applyDirectory(File directory, Indexer indexer) {
-		if ( ! directory.exists() ) {
-			Logging.LOGGER.debug( "Skipping indexing of directory because it does not exist : {}", directory.getAbsolutePath() );
-		}
-
-		internalApplyDirectory( directory, indexer );
-	}
-
-	private static void internalApplyDirectory(File directory, Indexer indexer) {
-		if ( ! directory.exists() ) {
-			return;
-		}
-
-		if ( ! directory.isDirectory() ) {
-			throw new GradleException( "Directory to apply to Indexer was not a directory : " + directory.getAbsolutePath() );
-		}
-
-		final File[] elements = directory.listFiles();
-		if ( elements == null ) {
-			Logging.LOGGER.debug( "Skipping indexing of directory because it is empty : {}", directory.getAbsolutePath() );
-			return;
-		}
-
-		for ( int i = 0; i < elements.length; i++ ) {
-			if ( elements[ i ].isFile() ) {
-				if ( ! elements[ i ].getName().endsWith( ".class" ) ) {
-					continue;
-				}
-
-				applyClassFile( elements[ i ], indexer );
-			}
-			else if ( elements[ i ].isDirectory() ) {
-				internalApplyDirectory( elements[ i ], indexer );
-			}
-		}
+	/**
+	 * Index all classes from the given directories - in parallel for large directory trees if the
+	 * pipeline allows more than one worker
+	 */
+	public static Index indexDirectories(Iterable<File> directories, ClassIndexingPipeline pipeline) {
+		return ClassDirectoryWalker.index( directories, pipeline.getWorkerCount() > 1 );
 	}
 
-	private static void applyClassFile(File file, Indexer indexer) {
+	/**
+	 * Apply a single class file to the Indexer
+	 */
+	public static void applyClassFile(File file, Indexer indexer) {
 		assert file.isFile();
 		assert file.exists();
 
@@ -0,0 +1,166 @@
+package com.github.sebersole.gradle.quarkus.indexing;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.jar.JarFile;
+
+import org.gradle.api.Project;
+import org.gradle.api.artifacts.ArtifactCollection;
+import org.gradle.api.artifacts.Configuration;
+import org.gradle.api.artifacts.transform.CacheableTransform;
+import org.gradle.api.artifacts.transform.InputArtifact;
+import org.gradle.api.artifacts.transform.TransformAction;
+import org.gradle.api.artifacts.transform.TransformOutputs;
+import org.gradle.api.artifacts.transform.TransformParameters;
+import org.gradle.api.attributes.Attribute;
+import org.gradle.api.file.FileSystemLocation;
+import org.gradle.api.provider.Property;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.provider.SetProperty;
+import org.gradle.api.tasks.Classpath;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.Internal;
+
+import org.jboss.jandex.Index;
+
+import com.github.sebersole.gradle.quarkus.Logging;
+import com.github.sebersole.gradle.quarkus.dsl.IndexingConfig;
+
+/**
+ * Artifact transform producing the Jandex index (plus its summary) for a jar.  Gradle caches
+ * the transformed result per artifact, shares it across all projects of the build (and
+ * builds) and runs the transforms in parallel - so only new artifacts are ever indexed.
+ */
+@CacheableTransform
+public abstract class JandexTransform implements TransformAction<JandexTransform.Parameters> {
+	public static final Attribute<String> ARTIFACT_TYPE = Attribute.of( "artifactType", String.class );
+
+	public static final String JAR_ARTIFACT_TYPE = "jar";
+	public static final String JANDEX_ARTIFACT_TYPE = "jandex-index";
+
+	public static final String INDEX_FILE_SUFFIX = ".idx";
+
+	/**
+	 * Parameters for JandexTransform
+	 */
+	public interface Parameters extends TransformParameters {
+		@Input
+		Property<Boolean> getSparseIndexing();
+
+		@Input
+		SetProperty<String> getIncludedPackages();
+
+		@Input
+		SetProperty<String> getExcludedPackages();
+
+		@Input
+		Property<Boolean> getCompressIndexes();
+
+		@Input
+		Property<String> getIndexProfile();
+
+		@Internal
+		Property<Integer> getIndexingThreads();
+
+		@Internal
+		Property<Integer> getIndexingQueueDepth();
+	}
+
+	/**
+	 * Register the transform with the project
+	 */
+	public static void register(Project project, Provider<IndexingConfig> indexingConfigProvider) {
+		project.getDependencies().registerTransform(
+				JandexTransform.class,
+				spec -> {
+					spec.getFrom().attribute( ARTIFACT_TYPE, JAR_ARTIFACT_TYPE );
+					spec.getTo().attribute( ARTIFACT_TYPE, JANDEX_ARTIFACT_TYPE );
+
+					// the parameters are only isolated when the transform is first needed,
+					// so the values from the DSL are visible here
+					spec.parameters(
+							parameters -> {
+								parameters.getSparseIndexing().set( indexingConfigProvider.map( IndexingConfig::isSparseIndexing ) );
+								parameters.getIncludedPackages().set( indexingConfigProvider.map( IndexingConfig::getIncludedPackages ) );
+								parameters.getExcludedPackages().set( indexingConfigProvider.map( IndexingConfig::getExcludedPackages ) );
+								parameters.getCompressIndexes().set( indexingConfigProvider.map( IndexingConfig::isCompressIndexes ) );
+								parameters.getIndexProfile().set( indexingConfigProvider.map( IndexingConfig::getIndexProfile ) );
+								parameters.getIndexingThreads().set( indexingConfigProvider.map( IndexingConfig::getIndexingThreads ) );
+								parameters.getIndexingQueueDepth().set( indexingConfigProvider.map( IndexingConfig::getIndexingQueueDepth ) );
+							}
+					);
+				}
+		);
+	}
+
+	/**
+	 * The transformed (index and summary) artifacts for the artifacts of the given Configuration
+	 */
+	public static ArtifactCollection transformedArtifacts(Configuration configuration) {
+		return configuration.getIncoming().artifactView(
+				view -> {
+					view.getAttributes().attribute( ARTIFACT_TYPE, JANDEX_ARTIFACT_TYPE );
+					// artifacts which cannot be transformed (poms, directories, e.g.) are indexed directly
+					view.setLenient( true );
+				}
+		).getArtifacts();
+	}
+
+	/**
+	 * The name of the artifact (jar) file the given index file was transformed from
+	 */
+	public static String artifactFileName(File transformedIndexFile) {
+		final String indexFileName = transformedIndexFile.getName();
+		return indexFileName.substring( 0, indexFileName.length() - INDEX_FILE_SUFFIX.length() );
+	}
+
+	@InputArtifact
+	@Classpath
+	public abstract Provider<FileSystemLocation> getInputArtifact();
+
+	@Override
+	public void transform(TransformOutputs outputs) {
+		final File artifact = getInputArtifact().get().getAsFile();
+		if ( ! artifact.isFile() ) {
+			return;
+		}
+
+		final Parameters parameters = getParameters();
+
+		final PackageFilter packageFilter = parameters.getSparseIndexing().get()
+				? new PackageFilter( parameters.getIncludedPackages().get(), parameters.getExcludedPackages().get() )
+				: null;
+		final IndexProfile profile = IndexProfile.fromName( parameters.getIndexProfile().get() );
+		final ClassIndexingPipeline pipeline = new ClassIndexingPipeline(
+				parameters.getIndexingThreads().get(),
+				parameters.getIndexingQueueDepth().get()
+		);
+
+		final String indexFileName = artifact.getName() + INDEX_FILE_SUFFIX;
+
+		final Index index;
+		try ( final JarFile jarFile = new JarFile( artifact ) ) {
+			if ( packageFilter == null && profile == IndexProfile.FULL && JandexHelper.hasEmbeddedIndex( jarFile ) ) {
+				JandexHelper.copyEmbeddedIndex( jarFile, outputs.file( indexFileName ) );
+				// the embedded index is used verbatim - no parsing (the summary is not available then)
+				return;
+			}
+
+			index = JandexHelper.resolveIndexFromArchive( jarFile, artifact, pipeline, packageFilter, profile );
+		}
+		catch (IOException e) {
+			Logging.LOGGER.debug( "Exception trying to handle dependency as a JAR : `{}`", artifact.getAbsolutePath() );
+			return;
+		}
+
+		if ( index == null ) {
+			return;
+		}
+
+		final File indexFile = outputs.file( indexFileName );
+		JandexHelper.writeIndexToFile( indexFile, index, parameters.getCompressIndexes().get() );
+
+		final File summaryFile = outputs.file( IndexSummary.summaryFile( indexFile ).getName() );
+		IndexSummary.from( index ).write( summaryFile );
+	}
+}
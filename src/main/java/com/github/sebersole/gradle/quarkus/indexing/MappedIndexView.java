@@ -0,0 +1,532 @@
+package com.github.sebersole.gradle.quarkus.indexing;
+
+import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractCollection;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.jboss.jandex.AnnotationInstance;
+import org.jboss.jandex.AnnotationTarget;
+import org.jboss.jandex.ClassInfo;
+import org.jboss.jandex.DotName;
+import org.jboss.jandex.IndexView;
+
+/**
+ * IndexView over memory-mapped CompositeTables.  Lookups are binary searches over the mapped
+ * tables.  The hierarchy queries (direct and transitive subclasses / implementors) answer ClassInfo
+ * built from the tables alone - name, flags, superclass and interfaces, without annotations or members -
+ * so walking the hierarchy never loads a contributing index.  All other queries take the ClassInfo for
+ * a match from the index which contributed the class, so the heap holds only what the contributing index
+ * managers already (softly) hold.  A class missing from its contributing index means the tables are
+ * stale, which is reported rather than skipped.
+ *
+ * The view holds the mapping until closed (by the SharedIndexRegistry at the end of the build); it is
+ * not usable afterwards.
+ *
+ * @implNote Only absolute reads are performed against the mapped buffer, so the view is safe for
+ * concurrent use.  Closing drops the mapping rather than forcibly unmapping it, which would crash a
+ * concurrent reader; the mapping is released once garbage collected
+ */
+public class MappedIndexView implements IndexView, AutoCloseable {
+	private static final DotName REPEATABLE = DotName.createSimple( "java.lang.annotation.Repeatable" );
+
+	private volatile ByteBuffer buffer;
+	private final Function<String, IndexView> contributorIndexes;
+
+	private final List<String> contributors;
+
+	private final int nameCount;
+	private final int classCount;
+	private final int subclassKeyCount;
+	private final int implementorKeyCount;
+	private final int annotationKeyCount;
+
+	private final int nameIndexStart;
+	private final int nameBytesStart;
+	private final int classesStart;
+	private final int subclassesStart;
+	private final int implementorsStart;
+	private final int annotationsStart;
+	private final int listStart;
+
+	MappedIndexView(ByteBuffer buffer, Function<String, IndexView> contributorIndexes) {
+		this.buffer = buffer;
+		this.contributorIndexes = contributorIndexes;
+
+		this.contributors = new ArrayList<>( readContributors( buffer ).keySet() );
+
+		int position = headerEnd( buffer );
+		this.nameCount = buffer.getInt( position );
+		final int nameBytesLength = buffer.getInt( position + 4 );
+		this.classCount = buffer.getInt( position + 8 );
+		this.subclassKeyCount = buffer.getInt( position + 12 );
+		this.implementorKeyCount = buffer.getInt( position + 16 );
+		this.annotationKeyCount = buffer.getInt( position + 20 );
+		final int listLength = buffer.getInt( position + 24 );
+		position += 28;
+
+		this.nameIndexStart = position;
+		this.nameBytesStart = nameIndexStart + nameCount * CompositeTables.NAME_ENTRY_LENGTH;
+		this.classesStart = nameBytesStart + nameBytesLength;
+		this.subclassesStart = classesStart + classCount * CompositeTables.CLASS_ENTRY_LENGTH;
+		this.implementorsStart = subclassesStart + subclassKeyCount * CompositeTables.LIST_ENTRY_LENGTH;
+		this.annotationsStart = implementorsStart + implementorKeyCount * CompositeTables.LIST_ENTRY_LENGTH;
+		this.listStart = annotationsStart + annotationKeyCount * CompositeTables.LIST_ENTRY_LENGTH;
+
+		if ( listStart + (long) listLength * 4 > buffer.capacity() ) {
+			throw new IllegalStateException( "Composite Jandex tables are truncated" );
+		}
+	}
+
+	/**
+	 * Read the contributor description (index file name to content hash, see IndexFiles#contentHash)
+	 * from the tables header
+	 */
+	static Map<String, String> readContributors(ByteBuffer buffer) {
+		if ( buffer.getInt( 0 ) != CompositeTables.MAGIC || buffer.getInt( 4 ) != CompositeTables.VERSION ) {
+			throw new IllegalStateException( "Not a (supported) composite Jandex tables file" );
+		}
+
+		final int count = buffer.getInt( 8 );
+		final Map<String, String> contributors = new LinkedHashMap<>();
+		int position = 12;
+		for ( int i = 0; i < count; i++ ) {
+			final String name = readString( buffer, position );
+			position += 4 + buffer.getInt( position );
+			final String description = readString( buffer, position );
+			position += 4 + buffer.getInt( position );
+			contributors.put( name, description );
+		}
+		return contributors;
+	}
+
+	private static int headerEnd(ByteBuffer buffer) {
+		final int count = buffer.getInt( 8 );
+		int position = 12;
+		for ( int i = 0; i < count * 2; i++ ) {
+			position += 4 + buffer.getInt( position );
+		}
+		return position;
+	}
+
+	private static String readString(ByteBuffer buffer, int position) {
+		final byte[] bytes = new byte[ buffer.getInt( position ) ];
+		for ( int i = 0; i < bytes.length; i++ ) {
+			bytes[ i ] = buffer.get( position + 4 + i );
+		}
+		return new String( bytes, StandardCharsets.UTF_8 );
+	}
+
+
+	private ByteBuffer tables() {
+		final ByteBuffer tables = buffer;
+		if ( tables == null ) {
+			throw new IllegalStateException( "Composite Jandex tables were closed" );
+		}
+		return tables;
+	}
+
+	/**
+	 * Release the tables
+	 */
+	@Override
+	public void close() {
+		buffer = null;
+	}
+
+
+	// ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+	// names
+
+	private int findNameId(DotName name) {
+		final byte[] nameBytes = name.toString().getBytes( StandardCharsets.UTF_8 );
+
+		int low = 0;
+		int high = nameCount - 1;
+		while ( low <= high ) {
+			final int middle = ( low + high ) >>> 1;
+			final int comparison = compareName( middle, nameBytes );
+			if ( comparison < 0 ) {
+				low = middle + 1;
+			}
+			else if ( comparison > 0 ) {
+				high = middle - 1;
+			}
+			else {
+				return middle;
+			}
+		}
+		return CompositeTables.NO_NAME;
+	}
+
+	private int compareName(int nameId, byte[] other) {
+		final int entry = nameIndexStart + nameId * CompositeTables.NAME_ENTRY_LENGTH;
+		final int offset = nameBytesStart + tables().getInt( entry );
+		final int length = tables().getInt( entry + 4 );
+
+		final int common = Math.min( length, other.length );
+		for ( int i = 0; i < common; i++ ) {
+			final int difference = ( tables().get( offset + i ) & 0xFF ) - ( other[ i ] & 0xFF );
+			if ( difference != 0 ) {
+				return difference;
+			}
+		}
+		return length - other.length;
+	}
+
+	private DotName nameFor(int nameId) {
+		final int entry = nameIndexStart + nameId * CompositeTables.NAME_ENTRY_LENGTH;
+		final int offset = nameBytesStart + tables().getInt( entry );
+		final byte[] bytes = new byte[ tables().getInt( entry + 4 ) ];
+		for ( int i = 0; i < bytes.length; i++ ) {
+			bytes[ i ] = tables().get( offset + i );
+		}
+		return DotName.createSimple( new String( bytes, StandardCharsets.UTF_8 ) );
+	}
+
+
+	// ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+	// classes
+
+	private int classEntry(int classId) {
+		return classesStart + classId * CompositeTables.CLASS_ENTRY_LENGTH;
+	}
+
+	private int classNameId(int classId) {
+		return tables().getInt( classEntry( classId ) );
+	}
+
+	private int flags(int classId) {
+		return tables().getInt( classEntry( classId ) + 4 );
+	}
+
+	private boolean isInterface(int classId) {
+		return ( flags( classId ) & Modifier.INTERFACE ) != 0;
+	}
+
+	/**
+	 * The class (record) id for the given name id, or -1
+	 */
+	private int findClassId(int nameId) {
+		int low = 0;
+		int high = classCount - 1;
+		while ( low <= high ) {
+			final int middle = ( low + high ) >>> 1;
+			final int middleNameId = classNameId( middle );
+			if ( middleNameId < nameId ) {
+				low = middle + 1;
+			}
+			else if ( middleNameId > nameId ) {
+				high = middle - 1;
+			}
+			else {
+				return middle;
+			}
+		}
+		return -1;
+	}
+
+	private int[] interfaceNameIds(int classId) {
+		final int entry = classEntry( classId );
+		return readList( tables().getInt( entry + 16 ), tables().getInt( entry + 20 ) );
+	}
+
+	/**
+	 * The ClassInfo for the class from its contributing index
+	 *
+	 * @throws IllegalStateException If the contributing index does not contain the class (any longer), which
+	 * means the tables are stale
+	 */
+	private ClassInfo materialize(int classId) {
+		final int entry = classEntry( classId );
+		final String contributor = contributors.get( tables().getInt( entry + 8 ) );
+		final DotName className = nameFor( tables().getInt( entry ) );
+
+		final IndexView index = contributorIndexes.apply( contributor );
+		final ClassInfo classInfo = index == null ? null : index.getClassByName( className );
+		if ( classInfo == null ) {
+			throw new IllegalStateException(
+					"Composite Jandex tables are stale - class `" + className + "` not found in contributing index " + contributor
+			);
+		}
+		return classInfo;
+	}
+
+	/**
+	 * ClassInfo for the class built from the tables alone - no annotations, fields or methods
+	 */
+	private ClassInfo describe(int classId) {
+		final int entry = classEntry( classId );
+		final int superNameId = tables().getInt( entry + 12 );
+
+		final int[] interfaceNameIds = interfaceNameIds( classId );
+		final DotName[] interfaceNames = new DotName[ interfaceNameIds.length ];
+		for ( int i = 0; i < interfaceNameIds.length; i++ ) {
+			interfaceNames[ i ] = nameFor( interfaceNameIds[ i ] );
+		}
+
+		final int flags = flags( classId );
+		return ClassInfo.create(
+				nameFor( classNameId( classId ) ),
+				superNameId == CompositeTables.NO_NAME ? null : nameFor( superNameId ),
+				(short) flags,
+				interfaceNames,
+				Collections.emptyMap(),
+				( flags & CompositeTables.HAS_NO_ARGS_CONSTRUCTOR ) != 0
+		);
+	}
+
+	private Collection<ClassInfo> describe(Collection<Integer> classIds) {
+		if ( classIds.isEmpty() ) {
+			return Collections.emptyList();
+		}
+
+		final List<ClassInfo> classes = new ArrayList<>( classIds.size() );
+		for ( int classId : classIds ) {
+			classes.add( describe( classId ) );
+		}
+		return classes;
+	}
+
+	private Collection<ClassInfo> materialize(Collection<Integer> classIds) {
+		if ( classIds.isEmpty() ) {
+			return Collections.emptyList();
+		}
+
+		final List<ClassInfo> classes = new ArrayList<>( classIds.size() );
+		for ( int classId : classIds ) {
+			classes.add( materialize( classId ) );
+		}
+		return classes;
+	}
+
+
+	// ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+	// reverse tables
+
+	private int[] readList(int start, int count) {
+		final int[] values = new int[ count ];
+		for ( int i = 0; i < count; i++ ) {
+			values[ i ] = tables().getInt( listStart + ( start + i ) * 4 );
+		}
+		return values;
+	}
+
+	/**
+	 * The class ids listed for the given name in one of the reverse tables
+	 */
+	private int[] lookup(int tableStart, int keyCount, int nameId) {
+		if ( nameId == CompositeTables.NO_NAME ) {
+			return new int[0];
+		}
+
+		int low = 0;
+		int high = keyCount - 1;
+		while ( low <= high ) {
+			final int middle = ( low + high ) >>> 1;
+			final int entry = tableStart + middle * CompositeTables.LIST_ENTRY_LENGTH;
+			final int key = tables().getInt( entry );
+			if ( key < nameId ) {
+				low = middle + 1;
+			}
+			else if ( key > nameId ) {
+				high = middle - 1;
+			}
+			else {
+				return readList( tables().getInt( entry + 4 ), tables().getInt( entry + 8 ) );
+			}
+		}
+		return new int[0];
+	}
+
+	private int[] directSubclassIds(int nameId) {
+		return lookup( subclassesStart, subclassKeyCount, nameId );
+	}
+
+	private int[] directImplementorIds(int nameId) {
+		return lookup( implementorsStart, implementorKeyCount, nameId );
+	}
+
+	private static List<Integer> toList(int[] values) {
+		final List<Integer> list = new ArrayList<>( values.length );
+		for ( int value : values ) {
+			list.add( value );
+		}
+		return list;
+	}
+
+
+	// ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+	// IndexView
+
+	@Override
+	public Collection<ClassInfo> getKnownClasses() {
+		return new AbstractCollection<ClassInfo>() {
+			@Override
+			public Iterator<ClassInfo> iterator() {
+				return new Iterator<ClassInfo>() {
+					private int position;
+
+					@Override
+					public boolean hasNext() {
+						return position < classCount;
+					}
+
+					@Override
+					public ClassInfo next() {
+						if ( ! hasNext() ) {
+							throw new NoSuchElementException();
+						}
+						// every class counted by size() is returned, or the iteration fails
+						return materialize( position++ );
+					}
+				};
+			}
+
+			@Override
+			public int size() {
+				return classCount;
+			}
+		};
+	}
+
+	@Override
+	public ClassInfo getClassByName(DotName className) {
+		final int nameId = findNameId( className );
+		if ( nameId == CompositeTables.NO_NAME ) {
+			return null;
+		}
+
+		final int classId = findClassId( nameId );
+		return classId < 0 ? null : materialize( classId );
+	}
+
+	@Override
+	public Collection<ClassInfo> getKnownDirectSubclasses(DotName className) {
+		return describe( toList( directSubclassIds( findNameId( className ) ) ) );
+	}
+
+	@Override
+	public Collection<ClassInfo> getAllKnownSubclasses(DotName className) {
+		final Set<Integer> allKnown = new HashSet<>();
+		final Deque<Integer> toProcess = new ArrayDeque<>();
+
+		final int nameId = findNameId( className );
+		if ( nameId != CompositeTables.NO_NAME ) {
+			toProcess.add( nameId );
+		}
+
+		while ( ! toProcess.isEmpty() ) {
+			for ( int classId : directSubclassIds( toProcess.remove() ) ) {
+				if ( allKnown.add( classId ) ) {
+					toProcess.add( classNameId( classId ) );
+				}
+			}
+		}
+
+		return describe( allKnown );
+	}
+
+	@Override
+	public Collection<ClassInfo> getKnownDirectImplementors(DotName className) {
+		return describe( toList( directImplementorIds( findNameId( className ) ) ) );
+	}
+
+	@Override
+	public Collection<ClassInfo> getAllKnownImplementors(DotName interfaceName) {
+		// same algorithm as Jandex - implementors of sub-interfaces, plus subclasses of implementors
+		final Set<Integer> allKnown = new HashSet<>();
+		final Set<Integer> subInterfacesToProcess = new HashSet<>();
+		final Set<Integer> processedInterfaces = new HashSet<>();
+
+		final int nameId = findNameId( interfaceName );
+		if ( nameId != CompositeTables.NO_NAME ) {
+			subInterfacesToProcess.add( nameId );
+		}
+
+		while ( ! subInterfacesToProcess.isEmpty() ) {
+			final Iterator<Integer> toProcess = subInterfacesToProcess.iterator();
+			final int name = toProcess.next();
+			toProcess.remove();
+			processedInterfaces.add( name );
+
+			for ( int classId : directImplementorIds( name ) ) {
+				final int implementorNameId = classNameId( classId );
+				if ( isInterface( classId ) ) {
+					if ( ! processedInterfaces.contains( implementorNameId ) ) {
+						subInterfacesToProcess.add( implementorNameId );
+					}
+				}
+				else if ( allKnown.add( classId ) ) {
+					final Deque<Integer> subclassesToProcess = new ArrayDeque<>();
+					subclassesToProcess.add( implementorNameId );
+					while ( ! subclassesToProcess.isEmpty() ) {
+						for ( int subclassId : directSubclassIds( subclassesToProcess.remove() ) ) {
+							if ( allKnown.add( subclassId ) ) {
+								subclassesToProcess.add( classNameId( subclassId ) );
+							}
+						}
+					}
+				}
+			}
+		}
+
+		return describe( allKnown );
+	}
+
+	@Override
+	public Collection<AnnotationInstance> getAnnotations(DotName annotationName) {
+		final int[] classIds = lookup( annotationsStart, annotationKeyCount, findNameId( annotationName ) );
+		if ( classIds.length == 0 ) {
+			return Collections.emptyList();
+		}
+
+		final List<AnnotationInstance> annotations = new ArrayList<>();
+		for ( ClassInfo classInfo : materialize( toList( classIds ) ) ) {
+			final List<AnnotationInstance> usages = classInfo.annotations().get( annotationName );
+			if ( usages != null ) {
+				annotations.addAll( usages );
+			}
+		}
+		return annotations;
+	}
+
+	@Override
+	public Collection<AnnotationInstance> getAnnotationsWithRepeatable(DotName annotationName, IndexView index) {
+		final ClassInfo annotationClass = index.getClassByName( annotationName );
+		if ( annotationClass == null ) {
+			throw new IllegalArgumentException( "Index does not contain the annotation definition: " + annotationName );
+		}
+
+		final List<ClassInfo> involved = new ArrayList<>( materializeUsages( annotationName ) );
+
+		final List<AnnotationInstance> repeatable = annotationClass.annotations().get( REPEATABLE );
+		if ( repeatable != null ) {
+			for ( AnnotationInstance usage : repeatable ) {
+				if ( usage.target() != null && usage.target().kind() == AnnotationTarget.Kind.CLASS ) {
+					involved.addAll( materializeUsages( usage.value().asClass().name() ) );
+				}
+			}
+		}
+
+		// let Jandex handle the (nested) containing annotations over just the classes involved
+		return JandexHelper.createIndex( involved ).getAnnotationsWithRepeatable( annotationName, index );
+	}
+
+	private Collection<ClassInfo> materializeUsages(DotName annotationName) {
+		return materialize( toList( lookup( annotationsStart, annotationKeyCount, findNameId( annotationName ) ) ) );
+	}
+}
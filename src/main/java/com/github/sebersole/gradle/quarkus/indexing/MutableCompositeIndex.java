@@ -1,105 +1,230 @@
 package com.github.sebersole.gradle.quarkus.indexing;
 
 import java.io.Serializable;
+import java.lang.ref.SoftReference;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
 
 import org.jboss.jandex.AnnotationInstance;
 import org.jboss.jandex.ClassInfo;
-import org.jboss.jandex.CompositeIndex;
 import org.jboss.jandex.DotName;
+import org.jboss.jandex.Index;
 import org.jboss.jandex.IndexView;
 
 /**
  * Represents the Jandex Index over all dependencies.  The plugin never
  * uses this one directly, but Jandex itself does sometimes need access to
  * larger indexes
+ *
+ * @implNote Rather than nesting a {@link org.jboss.jandex.CompositeIndex} per addition,
+ * the additions are flattened into a single Index (merged class, annotation and
+ * hierarchy tables) the first time the composite is queried after being expanded.
+ * Lookups are then a single hash lookup regardless of the number of dependencies.
+ * Like the individual indexes, the flattened Index is only softly held and rebuilt on demand.
+ * Transitive hierarchy queries are memoized by a HierarchyClosure over the composite's own direct
+ * lookups, so they never touch the individual indexes.
+ *
+ * When more than one addition defines a class of the same name, the definition from the addition
+ * made first wins (see JandexHelper#createIndex(Map)).
  */
 public class MutableCompositeIndex implements IndexView, Serializable {
-	private IndexView delegate;
+	private final List<Addition> additions = new ArrayList<>();
 
-	public void expand(IndexView addition) {
+	private transient SoftReference<Index> flattenedReference;
+	private transient Supplier<Index> snapshot;
+	private transient IndexView backend;
+
+	private transient HierarchyClosure hierarchyClosure;
+
+	public synchronized void expand(IndexView addition) {
 		if ( addition == null ) {
 			return;
 		}
 
-		if ( delegate == null ) {
-			delegate = addition;
+		additions.add( new Addition( addition, () -> addition ) );
+		flattenedReference = null;
+		snapshot = null;
+		backend = null;
+		hierarchyClosure = null;
+	}
+
+	/**
+	 * Expand the composite with the index managed by the given IndexManager.  The
+	 * index is not accessed until the composite is queried.
+	 *
+	 * Expanding again with the same IndexManager (after its index was regenerated) replaces
+	 * the earlier addition
+	 */
+	public synchronized void expand(IndexManager indexManager) {
+		if ( ! containsAddition( indexManager ) ) {
+			additions.add( new Addition( indexManager, indexManager::getIndex ) );
 		}
-		else {
-			delegate = CompositeIndex.create( delegate, addition );
+		flattenedReference = null;
+		snapshot = null;
+		backend = null;
+		hierarchyClosure = null;
+	}
+
+	/**
+	 * Use a pre-flattened snapshot of the current additions (see CompositeSnapshot) rather than
+	 * flattening them.  Further expansion discards the snapshot
+	 */
+	public synchronized void useSnapshot(Supplier<Index> snapshot) {
+		this.snapshot = snapshot;
+		this.flattenedReference = null;
+		this.hierarchyClosure = null;
+	}
+
+	/**
+	 * Serve queries from the given view of the current additions (see MappedIndexView) rather than
+	 * flattening them.  Further expansion discards the backend
+	 */
+	public synchronized void useBackend(IndexView backend) {
+		this.backend = backend;
+		this.flattenedReference = null;
+		this.hierarchyClosure = null;
+	}
+
+	private boolean containsAddition(Object key) {
+		for ( Addition addition : additions ) {
+			if ( addition.key == key ) {
+				return true;
+			}
 		}
+		return false;
 	}
 
-	@Override
-	public Collection<ClassInfo> getKnownClasses() {
-		if ( delegate == null ) {
-			return Collections.emptyList();
+	/**
+	 * The hierarchy closure over the composite, valid until the composite is next expanded
+	 */
+	public synchronized HierarchyClosure getHierarchyClosure() {
+		if ( hierarchyClosure == null ) {
+			hierarchyClosure = new HierarchyClosure( this );
 		}
+		return hierarchyClosure;
+	}
 
-		return delegate.getKnownClasses();
+	/**
+	 * The names of all classes implementing the named interface, directly or indirectly
+	 */
+	public Set<DotName> getAllKnownImplementorNames(DotName interfaceName) {
+		return getHierarchyClosure().getAllKnownImplementors( interfaceName );
 	}
 
-	@Override
-	public ClassInfo getClassByName(DotName className) {
-		if ( delegate == null ) {
-			return null;
+	private synchronized IndexView view() {
+		return backend != null ? backend : flattened();
+	}
+
+	/**
+	 * The flattened view of all additions
+	 */
+	public synchronized Index flattened() {
+		Index flattened = flattenedReference == null ? null : flattenedReference.get();
+
+		if ( flattened == null && snapshot != null ) {
+			flattened = snapshot.get();
+			if ( flattened != null ) {
+				flattenedReference = new SoftReference<>( flattened );
+			}
+		}
+
+		if ( flattened == null ) {
+			final Map<String, IndexView> indexesBySource = new LinkedHashMap<>();
+			additions.forEach(
+					addition -> {
+						final IndexView index = addition.supplier.get();
+						if ( index != null ) {
+							indexesBySource.put( describeAddition( addition, indexesBySource ), index );
+						}
+					}
+			);
+			flattened = JandexHelper.createIndex( indexesBySource );
+			flattenedReference = new SoftReference<>( flattened );
 		}
 
-		return delegate.getClassByName( className );
+		return flattened;
+	}
+
+	private static String describeAddition(Addition addition, Map<String, ?> described) {
+		final String description = addition.key instanceof IndexManager
+				? ( (IndexManager) addition.key ).getIndexFile().getName()
+				: addition.key.toString();
+		return described.containsKey( description ) ? description + "#" + described.size() : description;
 	}
 
 	@Override
-	public Collection<ClassInfo> getKnownDirectSubclasses(DotName className) {
-		if ( delegate == null ) {
-			return Collections.emptyList();
-		}
+	public Collection<ClassInfo> getKnownClasses() {
+		return view().getKnownClasses();
+	}
 
-		return delegate.getKnownDirectSubclasses( className );
+	@Override
+	public ClassInfo getClassByName(DotName className) {
+		return view().getClassByName( className );
+	}
+
+	@Override
+	public Collection<ClassInfo> getKnownDirectSubclasses(DotName className) {
+		return view().getKnownDirectSubclasses( className );
 	}
 
 	@Override
 	public Collection<ClassInfo> getAllKnownSubclasses(DotName className) {
-		if ( delegate == null ) {
-			return Collections.emptyList();
+		if ( backend != null ) {
+			return backend.getAllKnownSubclasses( className );
 		}
-
-		return delegate.getAllKnownSubclasses( className );
+		return resolveClasses( getHierarchyClosure().getAllKnownSubclasses( className ) );
 	}
 
 	@Override
 	public Collection<ClassInfo> getKnownDirectImplementors(DotName className) {
-		if ( delegate == null ) {
-			return Collections.emptyList();
-		}
-
-		return delegate.getKnownDirectImplementors( className );
+		return view().getKnownDirectImplementors( className );
 	}
 
 	@Override
 	public Collection<ClassInfo> getAllKnownImplementors(DotName interfaceName) {
-		if ( delegate == null ) {
-			return Collections.emptyList();
+		if ( backend != null ) {
+			return backend.getAllKnownImplementors( interfaceName );
 		}
+		return resolveClasses( getHierarchyClosure().getAllKnownImplementors( interfaceName ) );
+	}
 
-		return delegate.getAllKnownImplementors( interfaceName );
+	private Collection<ClassInfo> resolveClasses(Set<DotName> classNames) {
+		final IndexView view = view();
+		final List<ClassInfo> classes = new ArrayList<>( classNames.size() );
+		for ( DotName className : classNames ) {
+			final ClassInfo classInfo = view.getClassByName( className );
+			if ( classInfo != null ) {
+				classes.add( classInfo );
+			}
+		}
+		return classes;
 	}
 
 	@Override
 	public Collection<AnnotationInstance> getAnnotations(DotName annotationName) {
-		if ( delegate == null ) {
-			return Collections.emptyList();
-		}
-
-		return delegate.getAnnotations( annotationName );
+		return view().getAnnotations( annotationName );
 	}
 
 	@Override
 	public Collection<AnnotationInstance> getAnnotationsWithRepeatable(DotName annotationName, IndexView index) {
-		if ( delegate == null ) {
-			return Collections.emptyList();
-		}
+		return view().getAnnotationsWithRepeatable( annotationName, index );
+	}
 
-		return delegate.getAnnotationsWithRepeatable( annotationName, index );
+	/**
+	 * An addition to the composite; the key identifies the addition when re-expanding
+	 */
+	private static class Addition {
+		private final Object key;
+		private final Supplier<? extends IndexView> supplier;
+
+		private Addition(Object key, Supplier<? extends IndexView> supplier) {
+			this.key = key;
+			this.supplier = supplier;
+		}
 	}
 }
@@ -0,0 +1,128 @@
+package com.github.sebersole.gradle.quarkus.indexing;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jboss.jandex.DotName;
+
+import com.github.sebersole.gradle.quarkus.Logging;
+
+/**
+ * Build-wide interning pool for the names held in the plugin's own structures - the annotation
+ * and interface names of the index summaries, the class names resolved for incremental project
+ * indexing and the extension properties read from the artifact probe store.  The same names
+ * (`javax.inject.Inject`, ...) show up in the summaries of nearly every dependency; pooling them
+ * means each is held once per build.
+ *
+ * Cleared, and its statistics reported at info level, when the build finishes (see ArchiveAccess#close),
+ * so the pool never outlives a build in the daemon.
+ *
+ * @implNote The names inside the Jandex indexes themselves are not pooled: the Jandex IndexReader and
+ * Indexer keep their name tables private to each index
+ */
+public class NamePool {
+	/**
+	 * Approximate heap retained by a String, excluding its characters
+	 */
+	private static final int STRING_OVERHEAD = 40;
+
+	/**
+	 * Approximate heap retained by a (simple) DotName, excluding its String
+	 */
+	private static final int DOT_NAME_OVERHEAD = 32;
+
+	private static final ConcurrentMap<String, String> STRINGS = new ConcurrentHashMap<>();
+	private static final ConcurrentMap<String, DotName> DOT_NAMES = new ConcurrentHashMap<>();
+
+	private static final AtomicLong LOOKUPS = new AtomicLong();
+	private static final AtomicLong HITS = new AtomicLong();
+	private static final AtomicLong BYTES_SAVED = new AtomicLong();
+
+	private NamePool() {
+		// disallow direct instantiation
+	}
+
+	/**
+	 * The pooled instance equal to `value`
+	 */
+	public static String intern(String value) {
+		if ( value == null ) {
+			return null;
+		}
+
+		LOOKUPS.incrementAndGet();
+
+		final String existing = STRINGS.putIfAbsent( value, value );
+		if ( existing == null ) {
+			return value;
+		}
+
+		if ( existing != value ) {
+			HITS.incrementAndGet();
+			BYTES_SAVED.addAndGet( STRING_OVERHEAD + value.length() );
+		}
+		return existing;
+	}
+
+	/**
+	 * The pooled DotName for the given fully-qualified name
+	 */
+	public static DotName dotName(String name) {
+		LOOKUPS.incrementAndGet();
+
+		final DotName existing = DOT_NAMES.get( name );
+		if ( existing != null ) {
+			HITS.incrementAndGet();
+			BYTES_SAVED.addAndGet( DOT_NAME_OVERHEAD + STRING_OVERHEAD + name.length() );
+			return existing;
+		}
+
+		final DotName created = DotName.createSimple( intern( name ) );
+		final DotName raced = DOT_NAMES.putIfAbsent( name, created );
+		return raced == null ? created : raced;
+	}
+
+	public static long getLookupCount() {
+		return LOOKUPS.get();
+	}
+
+	public static long getHitCount() {
+		return HITS.get();
+	}
+
+	/**
+	 * The approximate number of bytes of heap saved by pooling
+	 */
+	public static long getBytesSaved() {
+		return BYTES_SAVED.get();
+	}
+
+	public static int size() {
+		return STRINGS.size() + DOT_NAMES.size();
+	}
+
+	/**
+	 * Log the statistics for the pool
+	 */
+	public static void logStatistics() {
+		Logging.LOGGER.info(
+				"Plugin name pool (summaries, project indexing, probes) : {} names, {} lookups, {} duplicates avoided (~{} KB saved)",
+				size(),
+				getLookupCount(),
+				getHitCount(),
+				getBytesSaved() / 1024
+		);
+	}
+
+	/**
+	 * Release the pooled names and reset the statistics
+	 */
+	public static void clear() {
+		STRINGS.clear();
+		DOT_NAMES.clear();
+		LOOKUPS.set( 0 );
+		HITS.set( 0 );
+		BYTES_SAVED.set( 0 );
+	}
+}
@@ -0,0 +1,127 @@
+package com.github.sebersole.gradle.quarkus.indexing;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.jboss.jandex.ClassInfo;
+
+import com.github.sebersole.gradle.quarkus.dsl.IndexingConfig;
+
+/**
+ * Filter limiting the classes indexed from external artifacts to certain packages.  Used for
+ * "sparse" indexing.
+ *
+ * A pattern matches the named package as well as all of its sub-packages.  A class is accepted
+ * if its package does not match any of the excludes and either there are no includes or its
+ * package matches at least one of them.
+ */
+public class PackageFilter implements Serializable {
+	private final Set<String> includes;
+	private final Set<String> excludes;
+
+	public PackageFilter(Collection<String> includes, Collection<String> excludes) {
+		this.includes = Collections.unmodifiableSet( normalize( includes ) );
+		this.excludes = Collections.unmodifiableSet( normalize( excludes ) );
+	}
+
+	/**
+	 * The filter to apply based on the indexing config, or {@code null} if sparse indexing is not enabled
+	 */
+	public static PackageFilter from(IndexingConfig indexingConfig) {
+		if ( ! indexingConfig.isSparseIndexing() ) {
+			return null;
+		}
+
+		return new PackageFilter( indexingConfig.getIncludedPackages(), indexingConfig.getExcludedPackages() );
+	}
+
+	private static Set<String> normalize(Collection<String> patterns) {
+		final Set<String> normalized = new TreeSet<>();
+		for ( String pattern : patterns ) {
+			String trimmed = pattern.trim();
+			if ( trimmed.endsWith( ".*" ) ) {
+				trimmed = trimmed.substring( 0, trimmed.length() - 2 );
+			}
+			if ( ! trimmed.isEmpty() ) {
+				normalized.add( trimmed );
+			}
+		}
+		return normalized;
+	}
+
+	public Set<String> getIncludes() {
+		return includes;
+	}
+
+	public Set<String> getExcludes() {
+		return excludes;
+	}
+
+	/**
+	 * Whether the archive entry (`org/acme/SomeClass.class`, e.g.) should be indexed
+	 */
+	public boolean acceptsEntry(String entryName) {
+		final int lastSlash = entryName.lastIndexOf( '/' );
+		final String packageName = lastSlash < 0 ? "" : entryName.substring( 0, lastSlash ).replace( '/', '.' );
+		return acceptsPackage( packageName );
+	}
+
+	/**
+	 * Whether the already indexed class should be kept
+	 */
+	public boolean accepts(ClassInfo classInfo) {
+		final String name = classInfo.name().toString();
+		final int lastDot = name.lastIndexOf( '.' );
+		return acceptsPackage( lastDot < 0 ? "" : name.substring( 0, lastDot ) );
+	}
+
+	public boolean acceptsPackage(String packageName) {
+		for ( String exclude : excludes ) {
+			if ( matches( exclude, packageName ) ) {
+				return false;
+			}
+		}
+
+		if ( includes.isEmpty() ) {
+			return true;
+		}
+
+		for ( String include : includes ) {
+			if ( matches( include, packageName ) ) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	private static boolean matches(String pattern, String packageName) {
+		return packageName.startsWith( pattern )
+				&& ( packageName.length() == pattern.length() || packageName.charAt( pattern.length() ) == '.' );
+	}
+
+	/**
+	 * Stable representation of this filter, used as part of index cache keys
+	 */
+	public String getKey() {
+		final StringBuilder buffer = new StringBuilder();
+		includes.forEach( include -> buffer.append( '+' ).append( include ).append( ';' ) );
+		excludes.forEach( exclude -> buffer.append( '-' ).append( exclude ).append( ';' ) );
+		return buffer.toString();
+	}
+
+	/**
+	 * Collision-resistant (SHA-256) hash of the key, suitable for use in file names
+	 */
+	public String getKeyHash() {
+		return ArchiveFingerprint.toKey( getKey(), null );
+	}
+
+	@Override
+	public String toString() {
+		return "PackageFilter(" + getKey() + ")";
+	}
+}
@@ -0,0 +1,252 @@
+package com.github.sebersole.gradle.quarkus.indexing;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.SoftReference;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.zip.CRC32;
+
+import org.jboss.jandex.Index;
+
+import com.github.sebersole.gradle.quarkus.Logging;
+import com.github.sebersole.gradle.quarkus.dsl.IndexingConfig;
+
+/**
+ * JVM-wide cache of parsed Jandex index files.  Lives as long as the class is loaded - which,
+ * for the plugin, means as long as the Gradle daemon - so builds after the first one do not
+ * need to deserialize index files which did not change.
+ *
+ * Entries are keyed by the index file path and validated against the file's size and
+ * last-modified timestamp.  When the timestamp is too close to the time the entry was last
+ * verified to be trusted (file system timestamp granularity), the file's checksum is verified
+ * as well - once that happens outside the granularity window, the timestamp alone is trusted.
+ *
+ * @implNote The cache is bounded by an (estimated) heap budget with least recently used entries
+ * evicted first.  The indexes are also only softly held, so the garbage collector can reclaim
+ * them under memory pressure regardless of the budget
+ */
+public final class ParsedIndexCache {
+	/**
+	 * Rough ratio of the heap used by a parsed index to the size of its index file
+	 */
+	private static final int HEAP_TO_FILE_RATIO = 8;
+
+	/**
+	 * Timestamps closer than this to the caching time are not trusted on their own
+	 */
+	private static final long TIMESTAMP_GRANULARITY = 2000;
+
+	private static final Map<String, Entry> ENTRIES = new LinkedHashMap<>( 64, 0.75f, true );
+
+	private static long maxWeight = IndexingConfig.DEFAULT_PARSED_INDEX_CACHE_SIZE * 1024 * 1024;
+	private static long totalWeight;
+
+	private static int hits;
+	private static int misses;
+
+	private ParsedIndexCache() {
+		// disallow direct instantiation
+	}
+
+	/**
+	 * Apply the heap budget from the indexing config
+	 */
+	public static synchronized void configure(IndexingConfig indexingConfig) {
+		maxWeight = indexingConfig.getParsedIndexCacheSize() * 1024 * 1024;
+		evictIfNecessary();
+	}
+
+	/**
+	 * Get the parsed index for the index file, using the `reader` if it is not cached (or stale)
+	 */
+	public static Index read(File indexFile, Function<File, Index> reader) {
+		final String path = indexFile.getAbsolutePath();
+		final long size = indexFile.length();
+		final long lastModified = indexFile.lastModified();
+
+		final Entry entry;
+		synchronized ( ParsedIndexCache.class ) {
+			entry = ENTRIES.get( path );
+		}
+
+		if ( entry != null ) {
+			final Index cached = entry.indexReference.get();
+			if ( cached != null && entry.matches( indexFile, size, lastModified ) ) {
+				recordHit();
+				return cached;
+			}
+		}
+
+		recordMiss();
+
+		final Index index = reader.apply( indexFile );
+		if ( index != null ) {
+			put( indexFile, index );
+		}
+		return index;
+	}
+
+	/**
+	 * Cache an index which was just written to the index file
+	 */
+	public static void put(File indexFile, Index index) {
+		final long size = indexFile.length();
+		final long lastModified = indexFile.lastModified();
+		final long checksum = checksum( indexFile );
+		if ( checksum < 0 ) {
+			return;
+		}
+
+		final Entry entry = new Entry( index, size, lastModified, checksum, System.currentTimeMillis() );
+
+		synchronized ( ParsedIndexCache.class ) {
+			final Entry previous = ENTRIES.put( indexFile.getAbsolutePath(), entry );
+			if ( previous != null ) {
+				totalWeight -= previous.weight();
+			}
+			totalWeight += entry.weight();
+
+			evictIfNecessary();
+		}
+	}
+
+	private static void evictIfNecessary() {
+		assert Thread.holdsLock( ParsedIndexCache.class );
+
+		final Iterator<Entry> entries = ENTRIES.values().iterator();
+		while ( entries.hasNext() ) {
+			final Entry entry = entries.next();
+
+			// least recently used first, but always drop entries reclaimed by the GC
+			if ( totalWeight > maxWeight || entry.indexReference.get() == null ) {
+				entries.remove();
+				totalWeight -= entry.weight();
+			}
+		}
+	}
+
+	private static synchronized void recordHit() {
+		hits++;
+	}
+
+	private static synchronized void recordMiss() {
+		misses++;
+	}
+
+	/**
+	 * The hits and misses since the statistics were last reset, along with the current size of the cache
+	 */
+	public static synchronized Statistics getStatistics() {
+		return new Statistics( hits, misses, ENTRIES.size(), totalWeight );
+	}
+
+	/**
+	 * Log the statistics of the (ending) build and start counting afresh for the next one.  The
+	 * cache itself outlives the build
+	 */
+	public static synchronized Statistics logAndResetStatistics() {
+		final Statistics statistics = getStatistics();
+		Logging.LOGGER.debug( "Parsed Jandex index cache : {}", statistics );
+
+		hits = 0;
+		misses = 0;
+		return statistics;
+	}
+
+	private static long checksum(File file) {
+		try ( final InputStream stream = new FileInputStream( file ) ) {
+			final CRC32 crc = new CRC32();
+			final byte[] buffer = new byte[ 64 * 1024 ];
+
+			int read;
+			while ( ( read = stream.read( buffer ) ) != -1 ) {
+				crc.update( buffer, 0, read );
+			}
+
+			return crc.getValue();
+		}
+		catch (IOException e) {
+			Logging.LOGGER.debug( "Unable to checksum Jandex index file {} : {}", file.getAbsolutePath(), e.getMessage() );
+			return -1;
+		}
+	}
+
+	/**
+	 * Usage statistics of the cache
+	 */
+	public static class Statistics {
+		private final int hits;
+		private final int misses;
+		private final int entries;
+		private final long weight;
+
+		private Statistics(int hits, int misses, int entries, long weight) {
+			this.hits = hits;
+			this.misses = misses;
+			this.entries = entries;
+			this.weight = weight;
+		}
+
+		public int getHits() {
+			return hits;
+		}
+
+		public int getMisses() {
+			return misses;
+		}
+
+		public int getEntries() {
+			return entries;
+		}
+
+		@Override
+		public String toString() {
+			return hits + " hits, " + misses + " misses, " + entries + " entries, ~" + ( weight / 1024 ) + " KB";
+		}
+	}
+
+	private static class Entry {
+		private final SoftReference<Index> indexReference;
+		private final long size;
+		private final long lastModified;
+		private final long checksum;
+		private volatile long verifiedAt;
+
+		private Entry(Index index, long size, long lastModified, long checksum, long verifiedAt) {
+			this.indexReference = new SoftReference<>( index );
+			this.size = size;
+			this.lastModified = lastModified;
+			this.checksum = checksum;
+			this.verifiedAt = verifiedAt;
+		}
+
+		private long weight() {
+			return size * HEAP_TO_FILE_RATIO;
+		}
+
+		private boolean matches(File indexFile, long currentSize, long currentLastModified) {
+			if ( currentSize != size || currentLastModified != lastModified ) {
+				return false;
+			}
+
+			if ( verifiedAt - lastModified > TIMESTAMP_GRANULARITY ) {
+				return true;
+			}
+
+			// the file could have been re-written within the timestamp granularity
+			final long now = System.currentTimeMillis();
+			if ( checksum( indexFile ) != checksum ) {
+				return false;
+			}
+
+			// a re-write after this point would change the timestamp - no need to checksum again
+			verifiedAt = now;
+			return true;
+		}
+	}
+}
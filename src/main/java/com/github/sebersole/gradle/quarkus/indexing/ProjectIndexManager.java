@@ -1,10 +1,15 @@
 package com.github.sebersole.gradle.quarkus.indexing;
 
 import java.io.File;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
-import org.gradle.api.GradleException;
 import org.gradle.api.tasks.SourceSet;
 
+import org.jboss.jandex.ClassInfo;
+import org.jboss.jandex.DotName;
 import org.jboss.jandex.Index;
 import org.jboss.jandex.Indexer;
 
@@ -13,16 +18,22 @@ import com.github.sebersole.gradle.quarkus.Logging;
 /**
  * IndexManager for a local project
  */
-public class ProjectIndexManager implements IndexManager {
+public class ProjectIndexManager extends AbstractIndexManager {
 	private final SourceSet mainSourceSet;
-	private final File indexFile;
+	private final ClassIndexingPipeline classIndexingPipeline;
 
-	private Index resolvedIndex;
-	private boolean resolved;
+	public ProjectIndexManager(SourceSet mainSourceSet, File indexFile, ClassIndexingPipeline classIndexingPipeline) {
+		this( mainSourceSet, indexFile, classIndexingPipeline, false );
+	}
 
-	public ProjectIndexManager(SourceSet mainSourceSet, File indexFile) {
+	public ProjectIndexManager(
+			SourceSet mainSourceSet,
+			File indexFile,
+			ClassIndexingPipeline classIndexingPipeline,
+			boolean compressIndex) {
+		super( indexFile, compressIndex );
 		this.mainSourceSet = mainSourceSet;
-		this.indexFile = indexFile;
+		this.classIndexingPipeline = classIndexingPipeline;
 	}
 
 	public SourceSet getSourceSet() {
@@ -30,53 +41,83 @@ public class ProjectIndexManager implements IndexManager {
 	}
 
 	@Override
-	public File getIndexFile() {
-		return indexFile;
-	}
+	public Index generateIndex() {
+		assert !isResolved();
 
-	@Override
-	public boolean isResolved() {
-		return resolved;
+		final Index index = JandexHelper.indexDirectories( mainSourceSet.getOutput().getClassesDirs(), classIndexingPipeline );
+
+		writeIndex( index );
+
+		return registerResolved( index );
 	}
 
-	@Override
-	public Index getIndex() {
-		if ( ! resolved ) {
-			throw new GradleException( "Jandex indexes are not yet resolved" );
+	/**
+	 * Incrementally update the project's index.  The ClassInfo for classes which did not change
+	 * are taken from the previous index; only the changed class files are read.
+	 *
+	 * @param changedClassFiles class files which were added or modified
+	 * @param removedClassFiles class files which were removed
+	 */
+	public Index updateIndex(Collection<File> changedClassFiles, Collection<File> removedClassFiles) {
+		assert !isResolved();
+
+		final File indexFile = getIndexFile();
+		final Index previousIndex = indexFile.exists() ? JandexHelper.readJandexIndex( indexFile ) : null;
+		if ( previousIndex == null ) {
+			Logging.LOGGER.debug( "Performing full indexing of project as previous index could not be read : {}", indexFile.getAbsolutePath() );
+			return generateIndex();
 		}
-		return resolvedIndex;
-	}
 
-	@Override
-	public Index generateIndex() {
-		assert !resolved;
+		final Map<DotName, ClassInfo> classes = new LinkedHashMap<>();
+		previousIndex.getKnownClasses().forEach( classInfo -> classes.put( classInfo.name(), classInfo ) );
 
-		final Indexer indexer = new Indexer();
-		mainSourceSet.getOutput().getClassesDirs().forEach(
-				file -> JandexHelper.applyDirectory( file, indexer )
+		removedClassFiles.forEach(
+				classFile -> {
+					final DotName className = determineClassName( classFile );
+					if ( className != null ) {
+						classes.remove( className );
+					}
+				}
 		);
-		final Index index = indexer.complete();
 
-		JandexHelper.writeIndexToFile( indexFile, index );
+		final Indexer indexer = new Indexer();
+		changedClassFiles.forEach( classFile -> JandexHelper.applyClassFile( classFile, indexer ) );
+		// modified classes simply replace their previous ClassInfo
+		indexer.complete().getKnownClasses().forEach( classInfo -> classes.put( classInfo.name(), classInfo ) );
+
+		final Index index = JandexHelper.createIndex( classes.values() );
+
+		writeIndex( index );
 
 		return registerResolved( index );
 	}
 
-	private Index registerResolved(Index resolvedIndex) {
-		this.resolvedIndex = resolvedIndex;
-		this.resolved = true;
+	private DotName determineClassName(File classFile) {
+		final Path classFilePath = classFile.toPath();
+
+		for ( File classesDir : mainSourceSet.getOutput().getClassesDirs() ) {
+			final Path classesDirPath = classesDir.toPath();
+			if ( classFilePath.startsWith( classesDirPath ) ) {
+				final String relativePath = classesDirPath.relativize( classFilePath ).toString();
+				final String className = relativePath
+						.substring( 0, relativePath.length() - ".class".length() )
+						.replace( File.separatorChar, '.' );
+				return NamePool.dotName( className );
+			}
+		}
 
-		return resolvedIndex;
+		Logging.LOGGER.debug( "Unable to determine class name for removed class file : {}", classFile.getAbsolutePath() );
+		return null;
 	}
 
 	@Override
 	public Index readIndex() {
-		if ( ! indexFile.exists() ) {
+		if ( ! getIndexFile().exists() ) {
 			// this condition can happen with TestKit (ftw!)
-			Logging.LOGGER.debug( "Generating index in `#readIndex` because the index file does not exist : {}", indexFile.getAbsolutePath() );
+			Logging.LOGGER.debug( "Generating index in `#readIndex` because the index file does not exist : {}", getIndexFile().getAbsolutePath() );
 			return generateIndex();
 		}
 
-		return registerResolved( JandexHelper.readJandexIndex( indexFile ) );
+		return loadOrRegenerateIndex();
 	}
 }
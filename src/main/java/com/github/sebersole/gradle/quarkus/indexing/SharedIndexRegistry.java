@@ -0,0 +1,174 @@
+package com.github.sebersole.gradle.quarkus.indexing;
+
+import java.io.File;
+import java.lang.ref.SoftReference;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+import org.gradle.api.Project;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+
+import org.jboss.jandex.Index;
+
+import com.github.sebersole.gradle.quarkus.Logging;
+import com.github.sebersole.gradle.quarkus.dsl.IndexingConfig;
+
+/**
+ * Build-scoped registry of the Jandex indexes for external artifacts, shared by all projects
+ * applying the plugin.  Hands out a single, canonical Index per unique artifact so that the
+ * same (Quarkus, e.g.) jars are only ever held in memory once per build.  The per-project
+ * IndexingService and its composite index are layered on top of it.
+ *
+ * @implNote The indexes are softly held; an index dropped under memory pressure is simply
+ * re-loaded by the next project needing it
+ */
+public abstract class SharedIndexRegistry implements BuildService<BuildServiceParameters.None>, AutoCloseable {
+	public static final String SERVICE_NAME = "quarkusJandexIndexes";
+
+	private final ConcurrentMap<ArtifactKey, SoftReference<Index>> indexes = new ConcurrentHashMap<>();
+	private final Set<AutoCloseable> resources = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * Register the registry with the build, if not already.  The first project to do so
+	 * determines the maximum number of parallel usages
+	 */
+	public static Provider<SharedIndexRegistry> register(Project project, Provider<IndexingConfig> indexingConfigProvider) {
+		return project.getGradle().getSharedServices().registerIfAbsent(
+				SERVICE_NAME,
+				SharedIndexRegistry.class,
+				spec -> spec.getMaxParallelUsages().set(
+						indexingConfigProvider.map( IndexingConfig::getMaxParallelIndexing )
+				)
+		);
+	}
+
+	/**
+	 * Find the canonical index for the artifact, loading it (and making it the canonical one) if needed
+	 */
+	public Index resolve(ArtifactKey key, Supplier<Index> loader) {
+		final Index existing = find( key );
+		if ( existing != null ) {
+			return existing;
+		}
+
+		final Index loaded = loader.get();
+		if ( loaded == null ) {
+			return null;
+		}
+
+		return canonicalize( key, loaded );
+	}
+
+	/**
+	 * Find the canonical index for the artifact, if one is currently held
+	 */
+	public Index find(ArtifactKey key) {
+		final SoftReference<Index> reference = indexes.get( key );
+		return reference == null ? null : reference.get();
+	}
+
+	/**
+	 * Register the index as the canonical one for the artifact, unless another is already held
+	 *
+	 * @return The canonical index
+	 */
+	public Index canonicalize(ArtifactKey key, Index index) {
+		final SoftReference<Index> canonical = indexes.merge(
+				key,
+				new SoftReference<>( index ),
+				(existing, incoming) -> existing.get() != null ? existing : incoming
+		);
+
+		final Index canonicalIndex = canonical.get();
+		return canonicalIndex == null ? index : canonicalIndex;
+	}
+
+	/**
+	 * Release the resource (the mapped composite tables, e.g.) when the build finishes
+	 *
+	 * @return The resource
+	 */
+	public <T extends AutoCloseable> T releaseOnClose(T resource) {
+		resources.add( resource );
+		return resource;
+	}
+
+	@Override
+	public void close() {
+		Logging.LOGGER.debug( "Releasing {} shared Jandex indexes", indexes.size() );
+		indexes.clear();
+
+		resources.forEach(
+				resource -> {
+					try {
+						resource.close();
+					}
+					catch (Exception e) {
+						Logging.LOGGER.debug( "Unable to release {} : {}", resource, e.getMessage() );
+					}
+				}
+		);
+		resources.clear();
+	}
+
+	/**
+	 * Identifies a unique artifact (contents) along with how it was indexed
+	 */
+	public static class ArtifactKey {
+		private final String path;
+		private final long size;
+		private final long lastModified;
+		private final String filterKey;
+
+		public ArtifactKey(String path, long size, long lastModified, String filterKey) {
+			this.path = path;
+			this.size = size;
+			this.lastModified = lastModified;
+			this.filterKey = filterKey;
+		}
+
+		public static ArtifactKey from(File artifact, PackageFilter packageFilter) {
+			return from( artifact, packageFilter, IndexProfile.FULL );
+		}
+
+		public static ArtifactKey from(File artifact, PackageFilter packageFilter, IndexProfile profile) {
+			return new ArtifactKey(
+					artifact.getAbsolutePath(),
+					artifact.length(),
+					artifact.lastModified(),
+					IndexProfile.discriminator( packageFilter, profile )
+			);
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if ( this == o ) {
+				return true;
+			}
+			if ( o == null || getClass() != o.getClass() ) {
+				return false;
+			}
+
+			final ArtifactKey that = (ArtifactKey) o;
+			return size == that.size
+					&& lastModified == that.lastModified
+					&& path.equals( that.path )
+					&& Objects.equals( filterKey, that.filterKey );
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash( path, size, lastModified, filterKey );
+		}
+
+		@Override
+		public String toString() {
+			return "ArtifactKey(" + path + ")";
+		}
+	}
+}
@@ -0,0 +1,194 @@
+package com.github.sebersole.gradle.quarkus.indexing;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.Serializable;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import com.github.sebersole.gradle.quarkus.Logging;
+import com.github.sebersole.gradle.quarkus.dsl.IndexingConfig;
+
+/**
+ * Content-addressed store of Jandex index files shared across builds (and daemons)
+ * through the Gradle user home.  Entries are keyed by a hash of the indexed artifact's
+ * contents, so the same artifact is only ever indexed once per machine.
+ *
+ * @implNote Entries are written to a temporary file and atomically moved into place, so
+ * readers never see partial entries.  Eviction (least recently used first, based on the
+ * entry's last-modified timestamp which is touched on each hit) happens under a file lock
+ * to coordinate between daemons.
+ */
+public class SharedIndexStore implements Serializable {
+	public static final String STORE_NAME = "quarkus-poc-jandex-2";
+
+	private static final String LOCK_FILE_NAME = "store.lock";
+	private static final String ENTRY_SUFFIX = ".idx";
+
+	// file locks are held per JVM, so guard against overlapping locks from within the same daemon
+	private static final Object EVICTION_GUARD = new Object();
+
+	private final File storeDirectory;
+	private final IndexingConfig indexingConfig;
+
+	public SharedIndexStore(File storeDirectory, IndexingConfig indexingConfig) {
+		this.storeDirectory = storeDirectory;
+		this.indexingConfig = indexingConfig;
+	}
+
+	public File getStoreDirectory() {
+		return storeDirectory;
+	}
+
+	/**
+	 * Determine the store key for the given artifact, based on its contents
+	 */
+	public String determineKey(File artifact) {
+		return determineKey( artifact, null );
+	}
+
+	/**
+	 * Determine the store key for the given artifact, based on its contents (see ArchiveFingerprint)
+	 * and the filter (if one) applied when indexing it
+	 */
+	public String determineKey(File artifact, PackageFilter packageFilter) {
+		return determineKey( ArchiveFingerprint.of( artifact ), packageFilter );
+	}
+
+	/**
+	 * Determine the store key for an artifact with the given (already computed) fingerprint
+	 */
+	public String determineKey(String fingerprint, PackageFilter packageFilter) {
+		return determineKey( fingerprint, packageFilter, IndexProfile.FULL );
+	}
+
+	/**
+	 * Determine the store key for an artifact with the given (already computed) fingerprint,
+	 * indexed using the given profile
+	 */
+	public String determineKey(String fingerprint, PackageFilter packageFilter, IndexProfile profile) {
+		if ( fingerprint == null ) {
+			return null;
+		}
+
+		return ArchiveFingerprint.toKey( fingerprint, IndexProfile.discriminator( packageFilter, profile ) );
+	}
+
+	private File entryFile(String key) {
+		return new File( new File( storeDirectory, key.substring( 0, 2 ) ), key + ENTRY_SUFFIX );
+	}
+
+	/**
+	 * Copy the stored index for the given key, if one, to the `target` file.
+	 *
+	 * @return {@code true} if the store contained an entry for the key and it was copied; {@code false} otherwise
+	 */
+	public boolean retrieve(String key, File target) {
+		final File entryFile = entryFile( key );
+		if ( ! entryFile.exists() ) {
+			return false;
+		}
+
+		try {
+			IndexFiles.copy( entryFile, target );
+
+			// record the access for LRU eviction
+			//noinspection ResultOfMethodCallIgnored
+			entryFile.setLastModified( System.currentTimeMillis() );
+
+			return true;
+		}
+		catch (IOException e) {
+			// most likely the entry was concurrently evicted
+			Logging.LOGGER.debug( "Unable to retrieve entry `{}` from shared index store : {}", key, e.getMessage() );
+			return false;
+		}
+	}
+
+	/**
+	 * Add the given index file to the store under the given key
+	 */
+	public void store(String key, File indexFile) {
+		final File entryFile = entryFile( key );
+		if ( entryFile.exists() ) {
+			return;
+		}
+
+		try {
+			Files.createDirectories( entryFile.getParentFile().toPath() );
+
+			final File tempFile = File.createTempFile( key, ".tmp", entryFile.getParentFile() );
+			try {
+				Files.copy( indexFile.toPath(), tempFile.toPath(), StandardCopyOption.REPLACE_EXISTING );
+				Files.move( tempFile.toPath(), entryFile.toPath(), StandardCopyOption.ATOMIC_MOVE );
+			}
+			finally {
+				Files.deleteIfExists( tempFile.toPath() );
+			}
+		}
+		catch (IOException e) {
+			// another process may have stored the same entry concurrently
+			Logging.LOGGER.debug( "Unable to add entry `{}` to shared index store : {}", key, e.getMessage() );
+			return;
+		}
+
+		evictIfNecessary();
+	}
+
+	private void evictIfNecessary() {
+		final long maxSize = indexingConfig.getSharedCacheSize() * 1024 * 1024;
+
+		synchronized ( EVICTION_GUARD ) {
+			try ( final RandomAccessFile lockFile = new RandomAccessFile( new File( storeDirectory, LOCK_FILE_NAME ), "rw" );
+					final FileChannel lockChannel = lockFile.getChannel();
+					final FileLock ignored = lockChannel.lock() ) {
+				final List<File> entries = new ArrayList<>();
+				long totalSize = 0;
+
+				final File[] buckets = storeDirectory.listFiles( File::isDirectory );
+				if ( buckets == null ) {
+					return;
+				}
+
+				for ( int i = 0; i < buckets.length; i++ ) {
+					final File[] bucketEntries = buckets[ i ].listFiles( (dir, name) -> name.endsWith( ENTRY_SUFFIX ) );
+					if ( bucketEntries == null ) {
+						continue;
+					}
+
+					for ( int j = 0; j < bucketEntries.length; j++ ) {
+						entries.add( bucketEntries[ j ] );
+						totalSize += bucketEntries[ j ].length();
+					}
+				}
+
+				if ( totalSize <= maxSize ) {
+					return;
+				}
+
+				entries.sort( Comparator.comparingLong( File::lastModified ) );
+
+				for ( File entry : entries ) {
+					if ( totalSize <= maxSize ) {
+						break;
+					}
+
+					final long entrySize = entry.length();
+					if ( entry.delete() ) {
+						totalSize -= entrySize;
+						Logging.LOGGER.debug( "Evicted entry from shared index store : {}", entry.getName() );
+					}
+				}
+			}
+			catch (IOException e) {
+				Logging.LOGGER.debug( "Unable to perform shared index store eviction : {}", e.getMessage() );
+			}
+		}
+	}
+}
@@ -14,6 +14,10 @@ import org.jboss.jandex.MethodInfo;
 
 import com.github.sebersole.gradle.quarkus.Logging;
 import com.github.sebersole.gradle.quarkus.dependency.ResolvedDependency;
+import com.github.sebersole.gradle.quarkus.indexing.HierarchyClosure;
+import com.github.sebersole.gradle.quarkus.indexing.IndexAccess;
+import com.github.sebersole.gradle.quarkus.indexing.IndexStreams;
+import com.github.sebersole.gradle.quarkus.indexing.IndexSummary;
 import com.github.sebersole.gradle.quarkus.indexing.MutableCompositeIndex;
 import com.github.sebersole.gradle.quarkus.service.Services;
 
@@ -44,8 +48,20 @@ public class PersistenceUnitResolutionSupport {
 			return;
 		}
 
+		final IndexAccess indexAccess = resolvedDependency.getIndexAccess();
+
 		final MutableCompositeIndex compositeIndex = services.getIndexingService().getCompositeIndex();
-		final IndexView jandexIndex = resolvedDependency.getIndexAccess().getIndex();
+
+		final IndexSummary summary = indexAccess.getSummary();
+		final boolean mayImplementConverter = summary == null || mayImplement( summary, compositeIndex, JPA_CONVERTER );
+		if ( summary != null
+				&& ! summary.containsAnyAnnotation( JPA_ENTITY, JPA_CONVERTER_ANN, JPA_EMBEDDABLE, HHH_ENTITY, JPA_EMBEDDED, JPA_EMBEDDED_ID )
+				&& ! mayImplementConverter ) {
+			Logging.LOGGER.debug( "Skipping dependency for persistence-unit resolution based on index summary : {}", resolvedDependency.groupArtifactVersion() );
+			return;
+		}
+
+		final IndexView jandexIndex = indexAccess.getIndex();
 
 		// first look for things which have identifying annotations on the classes...
 		applyFromClass(
@@ -69,13 +85,25 @@ public class PersistenceUnitResolutionSupport {
 				JPA_EMBEDDED_ID
 		);
 
-		// look for implementors of special contracts identifying managed types
-		consumeImplementors(
-				jandexIndex,
-				unit,
-				services,
-				JPA_CONVERTER
-		);
+		// look for implementors of special contracts identifying managed types - only when the summary
+		// says some class of the dependency may implement the contract
+		if ( mayImplementConverter ) {
+			consumeImplementors( jandexIndex, unit, compositeIndex, services, JPA_CONVERTER );
+		}
+	}
+
+	/**
+	 * Whether any class of the summarized dependency may implement the named interface - directly, or
+	 * through a sub-interface or a superclass, possibly from another dependency (see HierarchyClosure)
+	 */
+	private static boolean mayImplement(IndexSummary summary, MutableCompositeIndex compositeIndex, DotName interfaceName) {
+		if ( summary.containsImplementor( interfaceName ) ) {
+			return true;
+		}
+
+		final HierarchyClosure hierarchyClosure = compositeIndex.getHierarchyClosure();
+		return summary.containsAnySubtype( hierarchyClosure.getAllKnownSubInterfaces( interfaceName ) )
+				|| summary.containsAnySubtype( hierarchyClosure.getAllKnownImplementors( interfaceName ) );
 	}
 
 	private static void applyFromClass(
@@ -102,51 +130,58 @@ public class PersistenceUnitResolutionSupport {
 			PersistenceUnit unit,
 			IndexView compositeJandexIndex,
 			Services services, DotName... annotationNames) {
-		for ( int i = 0; i < annotationNames.length; i++ ) {
-			final Collection<AnnotationInstance> uses = jandexIndex.getAnnotations( annotationNames[ i ] );
-			uses.forEach(
-					usage -> {
-						final AnnotationTarget target = usage.target();
-						final DotName referencedClassName;
-
-						// target needs to be either a field or method (getter)
-
-						if ( target instanceof FieldInfo ) {
-							final FieldInfo fieldInfo = (FieldInfo) target;
-							referencedClassName = fieldInfo.type().name();
-						}
-						else if ( target instanceof MethodInfo ) {
-							final MethodInfo methodInfo = (MethodInfo) target;
-							final String methodName = methodInfo.name();
-							assert methodName.startsWith( "get" );
-							referencedClassName = methodInfo.returnType().name();
-						}
-						else {
-							throw new GradleException(
-									"Unexpected AnnotationInstance target type `" + target.kind() + "`; expecting METHOD or FIELD"
-							);
-						}
-
-						final ClassInfo referencedClassInfo = compositeJandexIndex.getClassByName( referencedClassName );
-						if ( referencedClassInfo == null ) {
-							Logging.LOGGER.debug( "Could not locate referenced class type : {}", referencedClassName.toString() );
-						}
-						else {
-							collectClass( referencedClassInfo, unit, services );
-						}
+		IndexStreams.visitAnnotations(
+				jandexIndex,
+				usage -> {
+					final AnnotationTarget target = usage.target();
+					final DotName referencedClassName;
+
+					// target needs to be either a field or method (getter)
+
+					if ( target instanceof FieldInfo ) {
+						final FieldInfo fieldInfo = (FieldInfo) target;
+						referencedClassName = fieldInfo.type().name();
 					}
-			);
-		}
+					else if ( target instanceof MethodInfo ) {
+						final MethodInfo methodInfo = (MethodInfo) target;
+						final String methodName = methodInfo.name();
+						assert methodName.startsWith( "get" );
+						referencedClassName = methodInfo.returnType().name();
+					}
+					else {
+						throw new GradleException(
+								"Unexpected AnnotationInstance target type `" + target.kind() + "`; expecting METHOD or FIELD"
+						);
+					}
+
+					final ClassInfo referencedClassInfo = compositeJandexIndex.getClassByName( referencedClassName );
+					if ( referencedClassInfo == null ) {
+						Logging.LOGGER.debug( "Could not locate referenced class type : {}", referencedClassName.toString() );
+					}
+					else {
+						collectClass( referencedClassInfo, unit, services );
+					}
+					return true;
+				},
+				annotationNames
+		);
 	}
 
 	private static void consumeImplementors(
 			IndexView jandexIndex,
 			PersistenceUnit unit,
+			MutableCompositeIndex compositeIndex,
 			Services services,
 			DotName... typeNames) {
 		for ( int i = 0; i < typeNames.length; i++ ) {
-			final Collection<ClassInfo> implementors = jandexIndex.getAllKnownImplementors( typeNames[ i ] );
-			implementors.forEach( classInfo -> collectClass( classInfo, unit, services ) );
+			// the composite hierarchy spans all dependencies, so implementations via a supertype from
+			// another dependency are found as well - only this dependency's classes are collected though
+			for ( DotName implementorName : compositeIndex.getAllKnownImplementorNames( typeNames[ i ] ) ) {
+				final ClassInfo classInfo = jandexIndex.getClassByName( implementorName );
+				if ( classInfo != null ) {
+					collectClass( classInfo, unit, services );
+				}
+			}
 		}
 	}
 
@@ -0,0 +1,244 @@
+package com.github.sebersole.gradle.quarkus.service;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.JarFile;
+
+import org.gradle.api.Project;
+import org.gradle.api.provider.Property;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+
+import com.github.sebersole.gradle.quarkus.Logging;
+import com.github.sebersole.gradle.quarkus.indexing.NamePool;
+import com.github.sebersole.gradle.quarkus.indexing.ParsedIndexCache;
+
+/**
+ * Build-scoped access to archives (jars).  All reads of archives go through here so that each
+ * archive is opened once and its handle re-used, rather than opening (and leaking) a new handle
+ * per read.
+ *
+ * Open handles are pooled with a bound on the number kept open - the least recently used,
+ * not currently in use, handles are closed first.  All handles are closed when the build finishes.
+ * Archives are also probed (see ArtifactProbe) at most once for all the information the plugin needs
+ * from them, so that checks such as "is the archive an extension" do not need to open the archive again.
+ */
+public abstract class ArchiveAccess implements BuildService<ArchiveAccess.Parameters>, AutoCloseable {
+	public static final String SERVICE_NAME = "quarkusArchiveAccess";
+	public static final String PROBES_DIRECTORY_NAME = "quarkus-poc-probes-1";
+
+	/**
+	 * Default maximum number of archives kept open
+	 */
+	public static final int DEFAULT_MAX_OPEN_ARCHIVES = 64;
+
+	/**
+	 * Parameters for ArchiveAccess
+	 */
+	public interface Parameters extends BuildServiceParameters {
+		Property<Integer> getMaxOpenArchives();
+		Property<File> getProbeStoreFile();
+	}
+
+	/**
+	 * Work to be performed against an open archive
+	 */
+	@FunctionalInterface
+	public interface ArchiveWork<T> {
+		T perform(JarFile jarFile) throws IOException;
+	}
+
+	private final Map<File, PooledArchive> pool = new LinkedHashMap<>( 64, 0.75f, true );
+	private final Map<File, ArtifactProbe> probes = new ConcurrentHashMap<>();
+
+	private ArtifactProbeStore probeStore;
+
+	/**
+	 * Register the service with the build, if not already
+	 */
+	public static Provider<ArchiveAccess> register(Project project) {
+		return project.getGradle().getSharedServices().registerIfAbsent(
+				SERVICE_NAME,
+				ArchiveAccess.class,
+				spec -> {
+					final File gradleUserHome = project.getGradle().getGradleUserHomeDir();
+					final File probesDirectory = new File( new File( gradleUserHome, "caches" ), PROBES_DIRECTORY_NAME );
+
+					spec.getParameters().getMaxOpenArchives().convention( DEFAULT_MAX_OPEN_ARCHIVES );
+					spec.getParameters().getProbeStoreFile().convention( new File( probesDirectory, ArtifactProbeStore.STORE_FILE_NAME ) );
+				}
+		);
+	}
+
+	/**
+	 * Perform work against the given archive using `archiveAccess`, or against a directly
+	 * opened (and closed) handle if `archiveAccess` is {@code null}
+	 */
+	public static <T> T withArchive(ArchiveAccess archiveAccess, File archive, ArchiveWork<T> work) throws IOException {
+		if ( archiveAccess != null ) {
+			return archiveAccess.withArchive( archive, work );
+		}
+
+		try ( final JarFile jarFile = new JarFile( archive ) ) {
+			return work.perform( jarFile );
+		}
+	}
+
+	/**
+	 * Perform work against the (pooled) handle for the given archive.  The handle must not
+	 * be used after the work completes
+	 */
+	public <T> T withArchive(File archive, ArchiveWork<T> work) throws IOException {
+		final PooledArchive pooledArchive = lease( archive );
+		try {
+			return work.perform( pooledArchive.jarFile );
+		}
+		finally {
+			release( pooledArchive );
+		}
+	}
+
+	/**
+	 * Probe the archive (see ArtifactProbe).  Probes are remembered across builds (see ArtifactProbeStore),
+	 * so the archive is only read if it was not probed before or changed since
+	 *
+	 * @return The probe, or {@code null} if the file is not an archive
+	 */
+	public ArtifactProbe probe(File archive) {
+		final ArtifactProbe known = probes.get( archive );
+		if ( known != null ) {
+			return known;
+		}
+
+		final ArtifactProbeStore probeStore = getProbeStore();
+		final ArtifactProbe stored = probeStore.find( archive );
+		if ( stored != null ) {
+			probes.put( archive, stored );
+			return stored;
+		}
+
+		final ArtifactProbe probe;
+		try {
+			probe = withArchive( archive, ArtifactProbe::probe );
+		}
+		catch (IOException e) {
+			Logging.LOGGER.debug( "Unable to probe `{}` as an archive : {}", archive.getAbsolutePath(), e.getMessage() );
+			return null;
+		}
+
+		probeStore.record( archive, probe );
+		probes.put( archive, probe );
+		return probe;
+	}
+
+	private synchronized ArtifactProbeStore getProbeStore() {
+		if ( probeStore == null ) {
+			probeStore = ArtifactProbeStore.load( getParameters().getProbeStoreFile().get() );
+		}
+		return probeStore;
+	}
+
+	private synchronized PooledArchive lease(File archive) throws IOException {
+		PooledArchive pooledArchive = pool.get( archive );
+
+		if ( pooledArchive != null && ! pooledArchive.isCurrent( archive ) ) {
+			// the archive changed on disk
+			pool.remove( archive );
+			pooledArchive.retire();
+			pooledArchive = null;
+		}
+
+		if ( pooledArchive == null ) {
+			pooledArchive = new PooledArchive( archive );
+			pool.put( archive, pooledArchive );
+			evictIfNecessary();
+		}
+
+		pooledArchive.leases++;
+		return pooledArchive;
+	}
+
+	private synchronized void release(PooledArchive pooledArchive) {
+		pooledArchive.leases--;
+		if ( pooledArchive.retired ) {
+			pooledArchive.closeIfUnused();
+		}
+	}
+
+	private void evictIfNecessary() {
+		assert Thread.holdsLock( this );
+
+		final int maxOpenArchives = getParameters().getMaxOpenArchives().get();
+
+		final Iterator<PooledArchive> archives = pool.values().iterator();
+		while ( pool.size() > maxOpenArchives && archives.hasNext() ) {
+			final PooledArchive pooledArchive = archives.next();
+			if ( pooledArchive.leases == 0 ) {
+				archives.remove();
+				pooledArchive.retire();
+			}
+		}
+	}
+
+	@Override
+	public synchronized void close() {
+		Logging.LOGGER.debug( "Closing {} pooled archives", pool.size() );
+		pool.values().forEach( PooledArchive::retire );
+		pool.clear();
+
+		if ( probeStore != null ) {
+			probeStore.save();
+		}
+		probes.clear();
+
+		// this service is used by every build applying the plugin (dependency and extension resolution),
+		// unlike the SharedIndexRegistry which only exists once indexes are shared
+		NamePool.logStatistics();
+		NamePool.clear();
+
+		// the parsed index cache outlives the build, its statistics do not
+		ParsedIndexCache.logAndResetStatistics();
+	}
+
+	private static class PooledArchive {
+		private final JarFile jarFile;
+		private final long size;
+		private final long lastModified;
+
+		private int leases;
+		private boolean retired;
+
+		private PooledArchive(File archive) throws IOException {
+			this.size = archive.length();
+			this.lastModified = archive.lastModified();
+			this.jarFile = new JarFile( archive );
+		}
+
+		private boolean isCurrent(File archive) {
+			return archive.length() == size && archive.lastModified() == lastModified;
+		}
+
+		private void retire() {
+			retired = true;
+			closeIfUnused();
+		}
+
+		private void closeIfUnused() {
+			if ( leases > 0 ) {
+				return;
+			}
+
+			try {
+				jarFile.close();
+			}
+			catch (IOException e) {
+				Logging.LOGGER.debug( "Unable to close archive `{}` : {}", jarFile.getName(), e.getMessage() );
+			}
+		}
+	}
+}
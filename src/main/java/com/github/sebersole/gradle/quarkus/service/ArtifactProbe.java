@@ -0,0 +1,144 @@
+package com.github.sebersole.gradle.quarkus.service;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.zip.ZipEntry;
+
+import org.gradle.api.GradleException;
+
+import com.github.sebersole.gradle.quarkus.indexing.ArchiveFingerprint;
+
+import static com.github.sebersole.gradle.quarkus.Helper.EXTENSION_PROP_FILE;
+import static com.github.sebersole.gradle.quarkus.Helper.JANDEX_INDEX_FILE_PATH;
+
+/**
+ * Everything the plugin needs to know about an archive, extracted in a single pass over it:
+ * whether it is a Quarkus extension (and its extension properties), whether it contains an embedded
+ * Jandex index, how many classes it contains and its fingerprint (see ArchiveFingerprint).
+ *
+ * @see ArchiveAccess#probe
+ * @see ArtifactProbeStore
+ */
+public class ArtifactProbe {
+	private static final String CLASS_FILE_SUFFIX = ".class";
+
+	private final String fingerprint;
+	private final boolean extension;
+	private final Map<String, String> extensionProperties;
+	private final boolean embeddedIndex;
+	private final int classEntryCount;
+
+	ArtifactProbe(
+			String fingerprint,
+			boolean extension,
+			Map<String, String> extensionProperties,
+			boolean embeddedIndex,
+			int classEntryCount) {
+		this.fingerprint = fingerprint;
+		this.extension = extension;
+		this.extensionProperties = Collections.unmodifiableMap( extensionProperties );
+		this.embeddedIndex = embeddedIndex;
+		this.classEntryCount = classEntryCount;
+	}
+
+	/**
+	 * Probe the archive
+	 */
+	public static ArtifactProbe probe(JarFile jarFile) {
+		boolean extension = false;
+		boolean embeddedIndex = false;
+		int classEntryCount = 0;
+
+		final Enumeration<JarEntry> entries = jarFile.entries();
+		while ( entries.hasMoreElements() ) {
+			final String entryName = entries.nextElement().getName();
+			if ( entryName.endsWith( CLASS_FILE_SUFFIX ) ) {
+				classEntryCount++;
+			}
+			else if ( EXTENSION_PROP_FILE.equals( entryName ) ) {
+				extension = true;
+			}
+			else if ( JANDEX_INDEX_FILE_PATH.equals( entryName ) ) {
+				embeddedIndex = true;
+			}
+		}
+
+		return new ArtifactProbe(
+				// the raw central directory, rather than the entries as decoded by the JarFile, so that
+				// the fingerprint is the same as for an archive which was never probed
+				ArchiveFingerprint.of( new File( jarFile.getName() ) ),
+				extension,
+				extension ? readExtensionProperties( jarFile ) : Collections.emptyMap(),
+				embeddedIndex,
+				classEntryCount
+		);
+	}
+
+	private static Map<String, String> readExtensionProperties(JarFile jarFile) {
+		final ZipEntry entry = jarFile.getEntry( EXTENSION_PROP_FILE );
+		final Properties properties = new Properties();
+
+		try ( final InputStream propsStream = jarFile.getInputStream( entry ) ) {
+			properties.load( propsStream );
+		}
+		catch (IOException e) {
+			throw new GradleException( "Error accessing the Quarkus extension properties file", e );
+		}
+
+		final Map<String, String> extensionProperties = new TreeMap<>();
+		properties.stringPropertyNames().forEach( name -> extensionProperties.put( name, properties.getProperty( name ) ) );
+		return extensionProperties;
+	}
+
+	/**
+	 * The fingerprint of the archive's contents, or {@code null} if it could not be determined
+	 */
+	public String getFingerprint() {
+		return fingerprint;
+	}
+
+	/**
+	 * Whether the archive contains the Quarkus extension marker
+	 */
+	public boolean isExtension() {
+		return extension;
+	}
+
+	/**
+	 * The contents of the Quarkus extension marker; empty if the archive is not an extension
+	 */
+	public Map<String, String> getExtensionProperties() {
+		return extensionProperties;
+	}
+
+	/**
+	 * The extension properties as a (new) Properties
+	 */
+	public Properties toExtensionProperties() {
+		final Properties properties = new Properties();
+		properties.putAll( extensionProperties );
+		return properties;
+	}
+
+	/**
+	 * Whether the archive contains an embedded Jandex index
+	 */
+	public boolean hasEmbeddedIndex() {
+		return embeddedIndex;
+	}
+
+	/**
+	 * The number of class files in the archive
+	 */
+	public int getClassEntryCount() {
+		return classEntryCount;
+	}
+}
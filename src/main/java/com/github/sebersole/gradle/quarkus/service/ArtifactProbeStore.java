@@ -0,0 +1,296 @@
+package com.github.sebersole.gradle.quarkus.service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import com.github.sebersole.gradle.quarkus.Logging;
+import com.github.sebersole.gradle.quarkus.indexing.NamePool;
+
+/**
+ * Persistent store of ArtifactProbe results, so that later builds do not need to read the
+ * archives at all.  Entries are keyed by the archive's path and are only used while the archive's
+ * size and last-modified timestamp are unchanged; each entry carries the archive's fingerprint,
+ * which is what the probed information is ultimately associated with (index store keys, index manifest).
+ *
+ * Entries are dropped once their archive no longer exists or was not probed for {@link #MAX_IDLE_MILLIS},
+ * and the store keeps at most {@link #MAX_ENTRIES} (the most recently used) entries.
+ *
+ * @implNote The store is keyed by path rather than by fingerprint because the fingerprint can only be
+ * determined by reading the archive, which is what the store avoids.  Stored as a single compact binary
+ * file (strings as length-prefixed UTF-8), written to a temporary file and moved into place.  Saving merges
+ * with the file's current contents under a file lock, so concurrent builds sharing the store do not lose
+ * each other's entries
+ */
+public class ArtifactProbeStore {
+	public static final String STORE_FILE_NAME = "artifact-probes.bin";
+
+	public static final long MAX_IDLE_MILLIS = TimeUnit.DAYS.toMillis( 30 );
+	public static final int MAX_ENTRIES = 10_000;
+
+	// how stale the recorded last use of an entry may get before a hit alone causes the store to be saved
+	private static final long LAST_USED_GRANULARITY = TimeUnit.DAYS.toMillis( 1 );
+
+	private static final int MAGIC = 0x51505242;
+	private static final int VERSION = 3;
+
+	// guards against allocating huge arrays for a corrupt string length
+	private static final int MAX_STRING_LENGTH = 16 * 1024 * 1024;
+
+	private static final int FLAG_FINGERPRINT = 1;
+	private static final int FLAG_EXTENSION = 1 << 1;
+	private static final int FLAG_EMBEDDED_INDEX = 1 << 2;
+
+	// file locks are held per JVM, so guard against overlapping locks from within the same daemon
+	private static final Object SAVE_GUARD = new Object();
+
+	private final File storeFile;
+	private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+	// the entries recorded or used since the store was loaded, which are merged into the file when saving
+	private final Set<String> updatedPaths = ConcurrentHashMap.newKeySet();
+
+	private volatile boolean dirty;
+
+	private ArtifactProbeStore(File storeFile) {
+		this.storeFile = storeFile;
+	}
+
+	/**
+	 * Load the store from the given file.  A missing, unreadable or incompatible file results in an empty store
+	 */
+	public static ArtifactProbeStore load(File storeFile) {
+		final ArtifactProbeStore store = new ArtifactProbeStore( storeFile );
+		store.entries.putAll( readEntries( storeFile ) );
+		return store;
+	}
+
+	private static Map<String, Entry> readEntries(File storeFile) {
+		final Map<String, Entry> entries = new HashMap<>();
+		if ( ! storeFile.exists() ) {
+			return entries;
+		}
+
+		try ( final DataInputStream input = new DataInputStream( new BufferedInputStream( Files.newInputStream( storeFile.toPath() ) ) ) ) {
+			if ( input.readInt() != MAGIC || input.readInt() != VERSION ) {
+				Logging.LOGGER.debug( "Ignoring incompatible artifact probe store {}", storeFile.getAbsolutePath() );
+				return entries;
+			}
+
+			final int count = input.readInt();
+			for ( int i = 0; i < count; i++ ) {
+				final String path = readString( input );
+				final long size = input.readLong();
+				final long lastModified = input.readLong();
+				final long lastUsed = input.readLong();
+				final int flags = input.readByte();
+				final String fingerprint = ( flags & FLAG_FINGERPRINT ) != 0 ? readString( input ) : null;
+				final int classEntryCount = input.readInt();
+
+				final int propertyCount = input.readInt();
+				final Map<String, String> properties = new TreeMap<>();
+				for ( int p = 0; p < propertyCount; p++ ) {
+					properties.put( NamePool.intern( readString( input ) ), NamePool.intern( readString( input ) ) );
+				}
+
+				final ArtifactProbe probe = new ArtifactProbe(
+						fingerprint,
+						( flags & FLAG_EXTENSION ) != 0,
+						properties,
+						( flags & FLAG_EMBEDDED_INDEX ) != 0,
+						classEntryCount
+				);
+				entries.put( path, new Entry( size, lastModified, lastUsed, probe ) );
+			}
+		}
+		catch (IOException e) {
+			Logging.LOGGER.debug( "Unable to read artifact probe store {} : {}", storeFile.getAbsolutePath(), e.getMessage() );
+			entries.clear();
+		}
+
+		return entries;
+	}
+
+	/**
+	 * Find the stored probe for the archive, provided the archive did not change since
+	 */
+	public ArtifactProbe find(File archive) {
+		final String path = archive.getAbsolutePath();
+		final Entry entry = entries.get( path );
+		if ( entry == null || entry.size != archive.length() || entry.lastModified != archive.lastModified() ) {
+			return null;
+		}
+
+		final long now = System.currentTimeMillis();
+		if ( now - entry.lastUsed > LAST_USED_GRANULARITY ) {
+			// keep the entry from being dropped as idle
+			entries.put( path, new Entry( entry.size, entry.lastModified, now, entry.probe ) );
+			updatedPaths.add( path );
+			dirty = true;
+		}
+		return entry.probe;
+	}
+
+	public void record(File archive, ArtifactProbe probe) {
+		final String path = archive.getAbsolutePath();
+		entries.put( path, new Entry( archive.length(), archive.lastModified(), System.currentTimeMillis(), probe ) );
+		updatedPaths.add( path );
+		dirty = true;
+	}
+
+	/**
+	 * Write the store, if anything was recorded since it was loaded.  The entries recorded are merged
+	 * with those (concurrently) written by other builds; idle entries and entries for archives which
+	 * no longer exist are dropped
+	 */
+	public void save() {
+		if ( ! dirty ) {
+			return;
+		}
+
+		synchronized ( SAVE_GUARD ) {
+			try {
+				Files.createDirectories( storeFile.getParentFile().toPath() );
+
+				try ( final RandomAccessFile lockFile = new RandomAccessFile( new File( storeFile.getParentFile(), storeFile.getName() + ".lock" ), "rw" );
+						final FileChannel lockChannel = lockFile.getChannel();
+						final FileLock ignored = lockChannel.lock() ) {
+					final Map<String, Entry> merged = readEntries( storeFile );
+					for ( String path : updatedPaths ) {
+						final Entry entry = entries.get( path );
+						if ( entry != null ) {
+							merged.put( path, entry );
+						}
+					}
+
+					prune( merged );
+					write( merged );
+
+					// pick up the entries written by other builds
+					entries.clear();
+					entries.putAll( merged );
+					updatedPaths.clear();
+				}
+
+				dirty = false;
+			}
+			catch (IOException e) {
+				Logging.LOGGER.warn( "Unable to write artifact probe store {} : {}", storeFile.getAbsolutePath(), e.getMessage() );
+			}
+		}
+	}
+
+	private static void prune(Map<String, Entry> entries) {
+		final long idleCutoff = System.currentTimeMillis() - MAX_IDLE_MILLIS;
+		entries.entrySet().removeIf( entry -> entry.getValue().lastUsed < idleCutoff || ! new File( entry.getKey() ).exists() );
+
+		if ( entries.size() > MAX_ENTRIES ) {
+			final List<Map.Entry<String, Entry>> byLastUse = new ArrayList<>( entries.entrySet() );
+			byLastUse.sort( Comparator.comparingLong( entry -> entry.getValue().lastUsed ) );
+			byLastUse.subList( 0, byLastUse.size() - MAX_ENTRIES ).forEach( entry -> entries.remove( entry.getKey() ) );
+		}
+	}
+
+	private void write(Map<String, Entry> entries) throws IOException {
+		final File tempFile = File.createTempFile( STORE_FILE_NAME, ".tmp", storeFile.getParentFile() );
+
+		try {
+			try ( final DataOutputStream output = new DataOutputStream( new BufferedOutputStream( Files.newOutputStream( tempFile.toPath() ) ) ) ) {
+				output.writeInt( MAGIC );
+				output.writeInt( VERSION );
+
+				final Map<String, Entry> sorted = new TreeMap<>( entries );
+				output.writeInt( sorted.size() );
+				for ( Map.Entry<String, Entry> mapEntry : sorted.entrySet() ) {
+					final Entry entry = mapEntry.getValue();
+					final ArtifactProbe probe = entry.probe;
+
+					writeString( output, mapEntry.getKey() );
+					output.writeLong( entry.size );
+					output.writeLong( entry.lastModified );
+					output.writeLong( entry.lastUsed );
+
+					int flags = 0;
+					if ( probe.getFingerprint() != null ) {
+						flags |= FLAG_FINGERPRINT;
+					}
+					if ( probe.isExtension() ) {
+						flags |= FLAG_EXTENSION;
+					}
+					if ( probe.hasEmbeddedIndex() ) {
+						flags |= FLAG_EMBEDDED_INDEX;
+					}
+					output.writeByte( flags );
+
+					if ( probe.getFingerprint() != null ) {
+						writeString( output, probe.getFingerprint() );
+					}
+					output.writeInt( probe.getClassEntryCount() );
+
+					output.writeInt( probe.getExtensionProperties().size() );
+					for ( Map.Entry<String, String> property : probe.getExtensionProperties().entrySet() ) {
+						writeString( output, property.getKey() );
+						writeString( output, property.getValue() );
+					}
+				}
+			}
+
+			Files.move( tempFile.toPath(), storeFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE );
+		}
+		finally {
+			Files.deleteIfExists( tempFile.toPath() );
+		}
+	}
+
+	/**
+	 * Write the string as its length-prefixed UTF-8 bytes - unlike DataOutput#writeUTF, not limited to 64KB
+	 */
+	private static void writeString(DataOutputStream output, String value) throws IOException {
+		final byte[] bytes = value.getBytes( StandardCharsets.UTF_8 );
+		output.writeInt( bytes.length );
+		output.write( bytes );
+	}
+
+	private static String readString(DataInputStream input) throws IOException {
+		final int length = input.readInt();
+		if ( length < 0 || length > MAX_STRING_LENGTH ) {
+			throw new IOException( "Invalid string length : " + length );
+		}
+
+		final byte[] bytes = new byte[ length ];
+		input.readFully( bytes );
+		return new String( bytes, StandardCharsets.UTF_8 );
+	}
+
+	private static class Entry {
+		private final long size;
+		private final long lastModified;
+		private final long lastUsed;
+		private final ArtifactProbe probe;
+
+		private Entry(long size, long lastModified, long lastUsed, ArtifactProbe probe) {
+			this.size = size;
+			this.lastModified = lastModified;
+			this.lastUsed = lastUsed;
+			this.probe = probe;
+		}
+	}
+}
@@ -10,6 +10,7 @@ import org.gradle.api.provider.Property;
 import org.gradle.api.provider.Provider;
 
 import com.github.sebersole.gradle.quarkus.Helper;
+import com.github.sebersole.gradle.quarkus.dsl.IndexingConfig;
 import com.github.sebersole.gradle.quarkus.dsl.NativeArguments;
 
 import static com.github.sebersole.gradle.quarkus.Helper.QUARKUS;
@@ -19,6 +20,7 @@ public class BuildDetails {
 	private final Services services;
 	private final DirectoryProperty workingDirectoryProperty;
 	private final Provider<NativeArguments> nativeArgumentsProvider;
+	private final Provider<IndexingConfig> indexingConfigProvider;
 
 	private final Project mainProject;
 
@@ -40,6 +42,9 @@ public class BuildDetails {
 		final NativeArguments nativeArguments = new NativeArguments();
 		nativeArgumentsProvider = mainProject.provider( () -> nativeArguments );
 
+		final IndexingConfig indexingConfig = new IndexingConfig();
+		indexingConfigProvider = mainProject.provider( () -> indexingConfig );
+
 		this.mainProject = mainProject;
 
 		this.platforms = mainProject.getConfigurations().maybeCreate( "quarkusPlatforms" );
@@ -90,6 +95,10 @@ public class BuildDetails {
 		return nativeArgumentsProvider;
 	}
 
+	public Provider<IndexingConfig> getIndexingConfigProvider() {
+		return indexingConfigProvider;
+	}
+
 	public Configuration getPlatforms() {
 		return platforms;
 	}
@@ -5,6 +5,7 @@ import java.util.Map;
 
 import org.gradle.api.GradleException;
 import org.gradle.api.Project;
+import org.gradle.api.provider.Provider;
 
 import com.github.sebersole.gradle.quarkus.dependency.DependencyService;
 import com.github.sebersole.gradle.quarkus.extension.ExtensionService;
@@ -21,6 +22,8 @@ public class Services {
 	private final DependencyService dependencyService;
 	private final ExtensionService extensionService;
 
+	private Provider<ArchiveAccess> archiveAccess;
+
 	private Map<Class<?>, Object> additionalServices;
 
 	public Services(Project project) {
@@ -52,6 +55,16 @@ public class Services {
 		return extensionService;
 	}
 
+	/**
+	 * Build-scoped access to archives - all reads of archives should go through it
+	 */
+	public Provider<ArchiveAccess> getArchiveAccess() {
+		if ( archiveAccess == null ) {
+			archiveAccess = ArchiveAccess.register( buildDetails.getMainProject() );
+		}
+		return archiveAccess;
+	}
+
 	public <T> void registerService(Service<T> service) {
 		if ( additionalServices == null ) {
 			additionalServices = new HashMap<>();
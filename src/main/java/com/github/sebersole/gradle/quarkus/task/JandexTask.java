@@ -1,33 +1,68 @@
 package com.github.sebersole.gradle.quarkus.task;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 import javax.inject.Inject;
 
 import org.gradle.api.DefaultTask;
+import org.gradle.api.GradleException;
 import org.gradle.api.Project;
+import org.gradle.api.artifacts.ArtifactCollection;
+import org.gradle.api.artifacts.component.ComponentIdentifier;
+import org.gradle.api.artifacts.component.ModuleComponentIdentifier;
+import org.gradle.api.artifacts.result.ResolvedArtifactResult;
 import org.gradle.api.file.Directory;
+import org.gradle.api.file.FileCollection;
+import org.gradle.api.file.FileType;
+import org.gradle.api.tasks.CacheableTask;
 import org.gradle.api.tasks.Input;
 import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.Optional;
 import org.gradle.api.tasks.OutputDirectory;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
 import org.gradle.api.tasks.SourceSetOutput;
 import org.gradle.api.tasks.TaskAction;
+import org.gradle.work.ChangeType;
 import org.gradle.work.FileChange;
 import org.gradle.work.Incremental;
 import org.gradle.work.InputChanges;
 
-import org.jboss.jandex.Index;
-
+import com.github.sebersole.gradle.quarkus.Helper;
+import com.github.sebersole.gradle.quarkus.indexing.CompositeSnapshot;
+import com.github.sebersole.gradle.quarkus.indexing.CompositeTables;
+import com.github.sebersole.gradle.quarkus.indexing.ExternalArtifactIndexManager;
+import com.github.sebersole.gradle.quarkus.indexing.IndexChangeSet;
 import com.github.sebersole.gradle.quarkus.indexing.IndexManager;
+import com.github.sebersole.gradle.quarkus.indexing.IndexManifest;
+import com.github.sebersole.gradle.quarkus.indexing.IndexingService;
+import com.github.sebersole.gradle.quarkus.indexing.JandexTransform;
+import com.github.sebersole.gradle.quarkus.indexing.PackageFilter;
+import com.github.sebersole.gradle.quarkus.indexing.ParsedIndexCache;
+import com.github.sebersole.gradle.quarkus.indexing.ProjectIndexManager;
+import com.github.sebersole.gradle.quarkus.service.BuildDetails;
 import com.github.sebersole.gradle.quarkus.service.Services;
 
 import static com.github.sebersole.gradle.quarkus.Helper.QUARKUS;
 
 /**
- * Jandex task for managing Indexes for each dependency
+ * Jandex task for managing Indexes for each dependency.
+ *
+ * @implNote The inputs are normalized (classpath and relative paths) and each dependency's
+ * index is written to its own, stably named file so that the outputs can be reused from the
+ * build cache - even from a different checkout location
  */
+@CacheableTask
 public abstract class JandexTask extends DefaultTask {
 	public static final String REGISTRATION_NAME = "quarkusJandex";
 
@@ -40,6 +75,10 @@ public abstract class JandexTask extends DefaultTask {
 		jandexTask.setGroup( QUARKUS );
 		jandexTask.setDescription( "Jandex Index management for Quarkus augmentation" );
 
+		// bounds the number of projects indexing concurrently (see `IndexingConfig#maxParallelIndexing`)
+		jandexTask.usesService( services.getIndexingService().getSharedIndexRegistry() );
+		jandexTask.usesService( services.getArchiveAccess() );
+
 //		services.getProjectService().visitAllProjects(
 //				projectInfo -> {
 //					final SourceSet mainSourceSet = projectInfo.getMainSourceSet();
@@ -57,7 +96,8 @@ public abstract class JandexTask extends DefaultTask {
 
 	private final Services services;
 
-	private Set<String> externalDependencies;
+	private FileCollection externalDependencies;
+	private List<ArtifactCollection> transformedArtifacts;
 
 	@Inject
 	public JandexTask(Services services) {
@@ -69,26 +109,71 @@ public abstract class JandexTask extends DefaultTask {
 		return services.getIndexingService().getJandexDirectory();
 	}
 
-	@Input
-	public Set<String> getIndexedExternalArtifacts() {
+	@InputFiles
+	@PathSensitive( PathSensitivity.NONE )
+	public FileCollection getIndexedExternalArtifacts() {
 		// NOTE : this should be called when determining the task-execution-graph
 		//		which happens after project configuration/evaluation.  At this point,
 		//		all dependencies should have been registered
 		//
-		// NOTE2 : for the external dependencies, we only care about the artifact id (group-artifact-id), not the file contents
+		// NOTE2 : the order of the jars does not matter to the task, and neither does where they
+		//		happen to live (the Gradle user home, the checkout location, ...).  Fingerprinting
+		//		them by content only, unordered, keeps the task relocatable for the build cache
 		if ( externalDependencies == null ) {
-			externalDependencies = services.getIndexingService()
-					.getIndexedExternalArtifactBases()
-					.stream()
-					.map( File::getAbsolutePath )
-					.collect( Collectors.toSet() );
+			externalDependencies = getProject().files( services.getIndexingService().getIndexedExternalArtifactBases() );
 		}
 
 		return externalDependencies;
 	}
 
+	@InputFiles
+	@PathSensitive( PathSensitivity.NAME_ONLY )
+	public FileCollection getTransformedExternalIndexes() {
+		// NOTE : consuming these as input files is what triggers Gradle to run the
+		//		(cached, parallel) JandexTransform for each external artifact
+		final FileCollection[] artifactFiles = getTransformedArtifacts().stream()
+				.map( ArtifactCollection::getArtifactFiles )
+				.toArray( FileCollection[]::new );
+		return getProject().files( (Object[]) artifactFiles );
+	}
+
+	private List<ArtifactCollection> getTransformedArtifacts() {
+		if ( transformedArtifacts == null ) {
+			final BuildDetails buildDetails = services.getBuildDetails();
+			transformedArtifacts = Arrays.asList(
+					JandexTransform.transformedArtifacts( buildDetails.getRuntimeDependencies() ),
+					JandexTransform.transformedArtifacts( buildDetails.getDeploymentDependencies() )
+			);
+		}
+
+		return transformedArtifacts;
+	}
+
+	@Input
+	@Optional
+	public String getSparseIndexingFilter() {
+		final PackageFilter packageFilter = services.getIndexingService().getPackageFilter();
+		return packageFilter == null ? null : packageFilter.getKey();
+	}
+
+	@Input
+	public String getIndexProfile() {
+		return services.getIndexingService().getIndexProfile().getKey();
+	}
+
+	@Input
+	public boolean isCompressIndexes() {
+		return services.getBuildDetails().getIndexingConfigProvider().get().isCompressIndexes();
+	}
+
+	@Input
+	public boolean isOffHeapIndex() {
+		return services.getIndexingService().isOffHeapIndex();
+	}
+
 	@Incremental
 	@InputFiles
+	@PathSensitive( PathSensitivity.RELATIVE )
 	public SourceSetOutput getIndexedProjectOutput() {
 		// todo : need to figure out the best way to apply this to multiple projects.
 		//		- one option is to generate a task per project-to-be-indexed
@@ -99,63 +184,254 @@ public abstract class JandexTask extends DefaultTask {
 	public void manageIndexes(InputChanges inputChanges) {
 		getLogger().trace( "Starting {} task", REGISTRATION_NAME );
 
+		ParsedIndexCache.configure( services.getBuildDetails().getIndexingConfigProvider().get() );
+
 		final HashSet<String> existingIndexFiles = new HashSet<>();
 		getOutputDirectory().getAsFileTree().forEach( file -> existingIndexFiles.add( file.getAbsolutePath() ) );
 
-		manageExternalArtifactIndexes( existingIndexFiles );
-		manageProjectIndexes( existingIndexFiles, inputChanges );
+		final IndexChangeSet.Builder changes = new IndexChangeSet.Builder();
+
+		manageExternalArtifactIndexes( existingIndexFiles, changes );
+		manageProjectIndexes( existingIndexFiles, inputChanges, changes );
+		writeCompositeSnapshot( existingIndexFiles );
 
 		existingIndexFiles.forEach(
 				noLongerNeededIndexFileName -> {
 					final File file = getProject().file( noLongerNeededIndexFileName );
+					if ( IndexChangeSet.isArtifactIndexFile( file ) ) {
+						changes.removed( file );
+					}
 					file.delete();
 				}
 		);
+
+		final IndexingService indexingService = services.getIndexingService();
+		final IndexChangeSet changeSet = changes.build( indexingService.getAllIndexManagers() );
+
+		// summarize the embedded indexes copied verbatim which had to be parsed anyway (for the composite
+		// snapshot, e.g.).  summaries are only ever written here, as part of the task's outputs
+		indexingService.forEachExternalArtifactIndexer( ExternalArtifactIndexManager::writeMissingSummary );
+
+		indexingService.publishChanges( changeSet );
+	}
+
+	private void writeCompositeSnapshot(Set<String> existingIndexFiles) {
+		final IndexingService indexingService = services.getIndexingService();
+		final CompositeSnapshot compositeSnapshot = indexingService.getCompositeSnapshot();
+
+		existingIndexFiles.remove( compositeSnapshot.getSnapshotFile().getAbsolutePath() );
+		existingIndexFiles.remove( compositeSnapshot.getManifestFile().getAbsolutePath() );
+
+		if ( indexingService.isOffHeapIndex() ) {
+			// the tables replace the snapshot (any stale one is dropped) - never flatten the composite into the heap
+			final CompositeTables compositeTables = indexingService.getCompositeTables();
+			existingIndexFiles.remove( compositeTables.getTablesFile().getAbsolutePath() );
+			existingIndexFiles.add( compositeSnapshot.getSnapshotFile().getAbsolutePath() );
+			existingIndexFiles.add( compositeSnapshot.getManifestFile().getAbsolutePath() );
+
+			if ( ! compositeTables.isCurrent( indexingService.getAllIndexManagers() ) ) {
+				compositeTables.write( indexingService.getAllIndexManagers() );
+			}
+			indexingService.useCompositeTables( compositeTables );
+			return;
+		}
+
+		// only flatten the composite if a contributing index changed
+		if ( ! compositeSnapshot.isCurrent( indexingService.getAllIndexManagers() ) ) {
+			compositeSnapshot.write( indexingService.getCompositeIndex().flattened(), indexingService.getAllIndexManagers() );
+		}
 	}
 
-	private void manageExternalArtifactIndexes(Set<String> existingIndexFiles) {
+	private void manageExternalArtifactIndexes(Set<String> existingIndexFiles, IndexChangeSet.Builder changes) {
+		final Map<ExternalArtifactIndexManager, File> transformedIndexes = collectTransformedIndexes();
+
+		final IndexManifest indexManifest = IndexManifest.load( getOutputDirectory().getAsFile() );
+		existingIndexFiles.remove( indexManifest.getManifestFile().getAbsolutePath() );
+
+		final List<ExternalArtifactIndexManager> indexManagers = new ArrayList<>();
+		final List<Callable<IndexManager.Resolution>> generations = new ArrayList<>();
+
 		services.getIndexingService().forEachExternalArtifactIndexer(
 				indexManager -> {
 					// notes:
 					//		`artifact` is the jar
 					//		`indexManager#getIndexFile` is the index file
+					indexManagers.add( indexManager );
+
 					final boolean previouslyIndexed = existingIndexFiles.remove( indexManager.getIndexFile().getAbsolutePath() );
-					if ( previouslyIndexed ) {
-						reloadIndex( indexManager );
+					existingIndexFiles.remove( indexManager.getSummaryFile().getAbsolutePath() );
+
+					final boolean current = previouslyIndexed
+							&& indexManifest.isCurrent( indexManager.getIndexFile(), indexManager.getFingerprint() );
+					if ( ! previouslyIndexed ) {
+						changes.added( indexManager.getIndexFile() );
 					}
-					else {
-						generateIndex( indexManager );
+					else if ( ! current ) {
+						// capture what is about to be replaced
+						changes.before( indexManager.getIndexFile(), indexManager.getHeldIndex() );
+					}
+
+					final File transformedIndex = transformedIndexes.get( indexManager );
+					if ( transformedIndex != null ) {
+						// always reflects the current artifact contents, and is cheap to adopt
+						indexManager.adoptIndex( transformedIndex );
 					}
+					else if ( ! current ) {
+						// not available as a transformed artifact (a file dependency, e.g.) and either not
+						// yet indexed or the artifact changed since it was indexed (a SNAPSHOT, e.g.)
+						generations.add( indexManager::resolve );
+					}
+					// otherwise, the existing index file is loaded on first use
+				}
+		);
+
+		// each manager only touches its own state, so the generations can happen in parallel.  the
+		// composite index is not thread-safe though, so we expand it afterwards from this thread
+		generateInParallel( generations );
+		indexManagers.forEach( indexManager -> services.getIndexingService().getCompositeIndex().expand( indexManager ) );
+
+		final List<File> indexFiles = new ArrayList<>( indexManagers.size() );
+		indexManagers.forEach(
+				indexManager -> {
+					indexFiles.add( indexManager.getIndexFile() );
+					indexManifest.record( indexManager.getIndexFile(), indexManager.getFingerprint() );
 				}
 		);
+		indexManifest.retainAll( indexFiles );
+		indexManifest.save();
+	}
+
+	/**
+	 * Map the indexes produced by JandexTransform to the manager for the corresponding artifact
+	 */
+	private Map<ExternalArtifactIndexManager, File> collectTransformedIndexes() {
+		final Map<ExternalArtifactIndexManager, File> transformedIndexes = new HashMap<>();
+
+		for ( ArtifactCollection artifacts : getTransformedArtifacts() ) {
+			for ( ResolvedArtifactResult artifact : artifacts ) {
+				if ( ! artifact.getFile().getName().endsWith( JandexTransform.INDEX_FILE_SUFFIX ) ) {
+					// the summary
+					continue;
+				}
+
+				final ComponentIdentifier componentIdentifier = artifact.getId().getComponentIdentifier();
+				if ( ! ( componentIdentifier instanceof ModuleComponentIdentifier ) ) {
+					continue;
+				}
+
+				final ModuleComponentIdentifier moduleIdentifier = (ModuleComponentIdentifier) componentIdentifier;
+				// the module may have several artifacts (classifiers, e.g.) - the name of the transformed
+				// artifact identifies the one it was transformed from
+				final ExternalArtifactIndexManager indexManager = services.getIndexingService().findExternalArtifactIndexManager(
+						Helper.groupArtifactVersion( moduleIdentifier.getGroup(), moduleIdentifier.getModule(), moduleIdentifier.getVersion() ),
+						JandexTransform.artifactFileName( artifact.getFile() )
+				);
+
+				if ( indexManager != null ) {
+					transformedIndexes.putIfAbsent( indexManager, artifact.getFile() );
+				}
+			}
+		}
+
+		return transformedIndexes;
+	}
+
+	private void generateInParallel(List<Callable<IndexManager.Resolution>> generations) {
+		if ( generations.isEmpty() ) {
+			return;
+		}
+
+		// honor `--max-workers`
+		final int maxWorkers = getProject().getGradle().getStartParameter().getMaxWorkerCount();
+		final ForkJoinPool pool = new ForkJoinPool( Math.max( 1, Math.min( maxWorkers, generations.size() ) ) );
+
+		try {
+			final List<Future<IndexManager.Resolution>> futures = new ArrayList<>( generations.size() );
+			generations.forEach( generation -> futures.add( pool.submit( generation ) ) );
+
+			for ( Future<IndexManager.Resolution> future : futures ) {
+				future.get();
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new GradleException( "Interrupted while generating Jandex indexes", e );
+		}
+		catch (ExecutionException e) {
+			throw new GradleException( "Unable to generate Jandex index", e.getCause() );
+		}
+		finally {
+			pool.shutdown();
+		}
 	}
 
 	private void generateIndex(IndexManager indexManager) {
-		final Index index = indexManager.generateIndex();
-		services.getIndexingService().getCompositeIndex().expand( index );
+		indexManager.resolve();
+		services.getIndexingService().getCompositeIndex().expand( indexManager );
 	}
 
-	private void reloadIndex(IndexManager indexManager) {
-		final Index index = indexManager.readIndex();
-		services.getIndexingService().getCompositeIndex().expand( index );
+	private void registerExistingIndex(IndexManager indexManager) {
+		// the index is loaded on first use
+		services.getIndexingService().getCompositeIndex().expand( indexManager );
 	}
 
-	private void manageProjectIndexes(Set<String> existingIndexFiles, InputChanges inputChanges) {
-		final IndexManager indexManager = services.getIndexingService().findIndexManagerByBase(
+	private void manageProjectIndexes(Set<String> existingIndexFiles, InputChanges inputChanges, IndexChangeSet.Builder changes) {
+		final ProjectIndexManager indexManager = services.getIndexingService().findProjectIndexManager(
 				services.getProjectService().getMainProject().getProjectDirectory().getAsFile()
 		);
 
 		assert indexManager != null;
 
-		existingIndexFiles.remove( indexManager.getIndexFile().getAbsolutePath() );
+		final boolean previouslyIndexed = existingIndexFiles.remove( indexManager.getIndexFile().getAbsolutePath() );
+		existingIndexFiles.remove( indexManager.getSummaryFile().getAbsolutePath() );
 
-		final Iterable<FileChange> fileChanges = inputChanges.getFileChanges( getIndexedProjectOutput() );
-		final boolean hadChanges = fileChanges.iterator().hasNext();
-		if ( hadChanges ) {
+		if ( ! previouslyIndexed ) {
+			changes.added( indexManager.getIndexFile() );
 			generateIndex( indexManager );
+			return;
+		}
+
+		if ( ! inputChanges.isIncremental() ) {
+			changes.before( indexManager.getIndexFile(), indexManager.getHeldIndex() );
+			generateIndex( indexManager );
+			return;
+		}
+
+		final List<File> changedClassFiles = new ArrayList<>();
+		final List<File> removedClassFiles = new ArrayList<>();
+
+		final Iterable<FileChange> fileChanges = inputChanges.getFileChanges( getIndexedProjectOutput() );
+		fileChanges.forEach(
+				fileChange -> {
+					if ( fileChange.getFileType() == FileType.DIRECTORY ) {
+						return;
+					}
+
+					if ( ! fileChange.getFile().getName().endsWith( ".class" ) ) {
+						return;
+					}
+
+					if ( fileChange.getChangeType() == ChangeType.REMOVED ) {
+						removedClassFiles.add( fileChange.getFile() );
+					}
+					else {
+						changedClassFiles.add( fileChange.getFile() );
+					}
+				}
+		);
+
+		if ( changedClassFiles.isEmpty() && removedClassFiles.isEmpty() ) {
+			registerExistingIndex( indexManager );
 		}
 		else {
-			reloadIndex( indexManager );
+			getLogger().debug(
+					"Incrementally indexing project - {} changed and {} removed class files",
+					changedClassFiles.size(),
+					removedClassFiles.size()
+			);
+			changes.before( indexManager.getIndexFile(), indexManager.getHeldIndex() );
+			indexManager.updateIndex( changedClassFiles, removedClassFiles );
+			services.getIndexingService().getCompositeIndex().expand( indexManager );
 		}
 	}
 }
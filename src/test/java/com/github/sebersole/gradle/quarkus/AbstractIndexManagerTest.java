@@ -0,0 +1,102 @@
+package com.github.sebersole.gradle.quarkus;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.gradle.api.GradleException;
+
+import org.jboss.jandex.IndexView;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.github.sebersole.gradle.quarkus.indexing.ExternalArtifactIndexManager;
+import com.github.sebersole.gradle.quarkus.indexing.IndexAccess;
+import com.github.sebersole.gradle.quarkus.indexing.IndexManager;
+
+import static com.github.sebersole.gradle.quarkus.IndexingFixtures.classNames;
+import static com.github.sebersole.gradle.quarkus.IndexingFixtures.names;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for the on-demand loading of indexes by AbstractIndexManager
+ */
+public class AbstractIndexManagerTest {
+	private File directory;
+
+	@BeforeEach
+	public void createDirectory() {
+		directory = IndexingFixtures.createTempDirectory();
+	}
+
+	@AfterEach
+	public void deleteDirectory() {
+		IndexingFixtures.deleteRecursively( directory );
+	}
+
+	@Test
+	public void testLoadedFromPreviousBuild() {
+		final File jar = IndexingFixtures.createJar( new File( directory, "lib.jar" ), null, IndexingFixtures.MarkedOne.class );
+		final File indexFile = new File( directory, "jandex/lib.idx" );
+		new ExternalArtifactIndexManager( jar, indexFile ).resolve();
+
+		// the Jandex task was up-to-date - the index is never resolved, only loaded from its file on first use
+		final ExternalArtifactIndexManager indexManager = new ExternalArtifactIndexManager( jar, indexFile );
+		final IndexAccess indexAccess = new IndexAccess( indexManager );
+		assertThat( indexManager.getHeldIndex(), nullValue() );
+
+		final IndexView index = indexAccess.getIndex();
+		assertThat( classNames( index.getKnownClasses() ), is( names( IndexingFixtures.MarkedOne.class ) ) );
+		assertThat( indexAccess.getIndex(), sameInstance( index ) );
+	}
+
+	@Test
+	public void testNotResolved() {
+		final File jar = IndexingFixtures.createJar( new File( directory, "lib.jar" ), null, IndexingFixtures.MarkedOne.class );
+		final ExternalArtifactIndexManager indexManager = new ExternalArtifactIndexManager( jar, new File( directory, "jandex/lib.idx" ) );
+
+		assertThrows( GradleException.class, indexManager::getIndex );
+	}
+
+	@Test
+	public void testEmbeddedIndexLoadedOnFirstUse() {
+		final File jar = IndexingFixtures.createJar(
+				new File( directory, "lib.jar" ),
+				IndexingFixtures.index( IndexingFixtures.MarkedOne.class ),
+				IndexingFixtures.MarkedOne.class
+		);
+		final ExternalArtifactIndexManager indexManager = new ExternalArtifactIndexManager( jar, new File( directory, "jandex/lib.idx" ) );
+
+		assertThat( indexManager.resolve(), is( IndexManager.Resolution.INDEX_FILE ) );
+		assertThat( indexManager.getHeldIndex(), nullValue() );
+		assertThat( classNames( indexManager.getIndex().getKnownClasses() ), is( names( IndexingFixtures.MarkedOne.class ) ) );
+	}
+
+	@Test
+	public void testCorruptIndexFileRegenerated() throws IOException {
+		final File jar = IndexingFixtures.createJar(
+				new File( directory, "lib.jar" ),
+				null,
+				IndexingFixtures.Base.class,
+				IndexingFixtures.Sub.class
+		);
+		final File indexFile = new File( directory, "jandex/lib.idx" );
+		new ExternalArtifactIndexManager( jar, indexFile ).resolve();
+
+		Files.write( indexFile.toPath(), "not an index".getBytes( StandardCharsets.UTF_8 ) );
+
+		final ExternalArtifactIndexManager indexManager = new ExternalArtifactIndexManager( jar, indexFile );
+		assertThat(
+				classNames( indexManager.getIndex().getKnownClasses() ),
+				is( names( IndexingFixtures.Base.class, IndexingFixtures.Sub.class ) )
+		);
+		assertThat( indexManager.isResolved(), is( true ) );
+	}
+}
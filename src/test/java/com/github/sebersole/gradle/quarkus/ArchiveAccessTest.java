@@ -0,0 +1,116 @@
+package com.github.sebersole.gradle.quarkus;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.jar.JarFile;
+
+import org.gradle.api.Project;
+import org.gradle.testfixtures.ProjectBuilder;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.github.sebersole.gradle.quarkus.service.ArchiveAccess;
+import com.github.sebersole.gradle.quarkus.service.ArtifactProbeStore;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for the pooling of archive handles by ArchiveAccess
+ */
+public class ArchiveAccessTest {
+	private static final int MAX_OPEN_ARCHIVES = 2;
+
+	private File directory;
+	private ArchiveAccess archiveAccess;
+
+	@BeforeEach
+	public void createArchiveAccess() {
+		directory = IndexingFixtures.createTempDirectory();
+
+		final Project project = ProjectBuilder.builder().withProjectDir( new File( directory, "project" ) ).build();
+		archiveAccess = project.getGradle().getSharedServices().registerIfAbsent(
+				ArchiveAccess.SERVICE_NAME,
+				ArchiveAccess.class,
+				spec -> {
+					spec.getParameters().getMaxOpenArchives().set( MAX_OPEN_ARCHIVES );
+					spec.getParameters().getProbeStoreFile().set( new File( directory, ArtifactProbeStore.STORE_FILE_NAME ) );
+				}
+		).get();
+	}
+
+	@AfterEach
+	public void deleteDirectory() {
+		archiveAccess.close();
+		IndexingFixtures.deleteRecursively( directory );
+	}
+
+	@Test
+	public void testHandleReused() throws IOException {
+		final File jar = IndexingFixtures.createJar( new File( directory, "lib.jar" ), null, IndexingFixtures.MarkedOne.class );
+
+		final JarFile first = archiveAccess.withArchive( jar, jarFile -> jarFile );
+		assertThat( archiveAccess.withArchive( jar, jarFile -> jarFile ), sameInstance( first ) );
+	}
+
+	@Test
+	public void testLeastRecentlyUsedClosed() throws IOException {
+		final File first = IndexingFixtures.createJar( new File( directory, "first.jar" ), null, IndexingFixtures.MarkedOne.class );
+		final File second = IndexingFixtures.createJar( new File( directory, "second.jar" ), null, IndexingFixtures.MarkedTwo.class );
+		final File third = IndexingFixtures.createJar( new File( directory, "third.jar" ), null, IndexingFixtures.Plain.class );
+
+		final JarFile firstHandle = archiveAccess.withArchive( first, jarFile -> jarFile );
+		final JarFile secondHandle = archiveAccess.withArchive( second, jarFile -> jarFile );
+		archiveAccess.withArchive( first, jarFile -> jarFile );
+		archiveAccess.withArchive( third, jarFile -> jarFile );
+
+		// `second` was the least recently used
+		assertThrows( IllegalStateException.class, secondHandle::entries );
+		firstHandle.entries();
+	}
+
+	@Test
+	public void testLeasedHandleNotClosed() throws IOException {
+		final File first = IndexingFixtures.createJar( new File( directory, "first.jar" ), null, IndexingFixtures.MarkedOne.class );
+		final File second = IndexingFixtures.createJar( new File( directory, "second.jar" ), null, IndexingFixtures.MarkedTwo.class );
+		final File third = IndexingFixtures.createJar( new File( directory, "third.jar" ), null, IndexingFixtures.Plain.class );
+
+		final int entryCount = archiveAccess.withArchive(
+				first,
+				firstHandle -> {
+					archiveAccess.withArchive( second, jarFile -> jarFile );
+					archiveAccess.withArchive( third, jarFile -> jarFile );
+					return firstHandle.size();
+				}
+		);
+		assertThat( entryCount > 0, is( true ) );
+	}
+
+	@Test
+	public void testChangedArchiveReopened() throws IOException {
+		final File jar = IndexingFixtures.createJar( new File( directory, "lib.jar" ), null, IndexingFixtures.MarkedOne.class );
+		final JarFile original = archiveAccess.withArchive( jar, jarFile -> jarFile );
+
+		IndexingFixtures.createJar( jar, null, IndexingFixtures.MarkedOne.class, IndexingFixtures.MarkedTwo.class );
+		//noinspection ResultOfMethodCallIgnored
+		jar.setLastModified( jar.lastModified() + 60_000 );
+
+		final JarFile reopened = archiveAccess.withArchive( jar, jarFile -> jarFile );
+		assertThat( reopened, not( sameInstance( original ) ) );
+		assertThrows( IllegalStateException.class, original::entries );
+	}
+
+	@Test
+	public void testClosedWithBuild() throws IOException {
+		final File jar = IndexingFixtures.createJar( new File( directory, "lib.jar" ), null, IndexingFixtures.MarkedOne.class );
+		final JarFile handle = archiveAccess.withArchive( jar, jarFile -> jarFile );
+
+		archiveAccess.close();
+		assertThrows( IllegalStateException.class, handle::entries );
+	}
+}
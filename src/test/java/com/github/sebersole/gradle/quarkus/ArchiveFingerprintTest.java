@@ -0,0 +1,110 @@
+package com.github.sebersole.gradle.quarkus;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.jar.JarFile;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.github.sebersole.gradle.quarkus.indexing.ArchiveFingerprint;
+import com.github.sebersole.gradle.quarkus.service.ArtifactProbe;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.startsWith;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Tests for the stability of ArchiveFingerprint
+ */
+public class ArchiveFingerprintTest {
+	private File directory;
+
+	@BeforeEach
+	public void createDirectory() {
+		directory = IndexingFixtures.createTempDirectory();
+	}
+
+	@AfterEach
+	public void deleteDirectory() {
+		IndexingFixtures.deleteRecursively( directory );
+	}
+
+	@Test
+	public void testStableAcrossLocationAndTimestamps() throws IOException {
+		final Map<String, String> entries = entries( "version 1" );
+
+		final File original = createArchive( new File( directory, "original.jar" ), entries, 1_000_000L );
+		final File relocated = createArchive( new File( new File( directory, "elsewhere" ), "renamed.jar" ), entries, 2_000_000_000L );
+		//noinspection ResultOfMethodCallIgnored
+		relocated.setLastModified( original.lastModified() + 60_000 );
+
+		final String fingerprint = ArchiveFingerprint.of( original );
+		assertThat( fingerprint, notNullValue() );
+		assertThat( ArchiveFingerprint.of( original ), is( fingerprint ) );
+		assertThat( ArchiveFingerprint.of( relocated ), is( fingerprint ) );
+	}
+
+	@Test
+	public void testChangedContents() throws IOException {
+		final File original = createArchive( new File( directory, "original.jar" ), entries( "version 1" ), 1_000_000L );
+		final File changed = createArchive( new File( directory, "changed.jar" ), entries( "version 2" ), 1_000_000L );
+
+		assertThat( ArchiveFingerprint.of( changed ), not( ArchiveFingerprint.of( original ) ) );
+	}
+
+	@Test
+	public void testProbeMatchesFile() throws IOException {
+		final File archive = createArchive( new File( directory, "probed.jar" ), entries( "version 1" ), 1_000_000L );
+
+		try ( final JarFile jarFile = new JarFile( archive ) ) {
+			assertThat( ArtifactProbe.probe( jarFile ).getFingerprint(), is( ArchiveFingerprint.of( archive ) ) );
+		}
+	}
+
+	@Test
+	public void testNonArchive() throws IOException {
+		final File file = new File( directory, "not-an-archive.txt" );
+		Files.write( file.toPath(), "just some text".getBytes( StandardCharsets.UTF_8 ) );
+
+		final String fingerprint = ArchiveFingerprint.of( file );
+		assertThat( fingerprint, startsWith( "sha-" ) );
+		assertThat( ArchiveFingerprint.of( file ), is( fingerprint ) );
+	}
+
+	private static Map<String, String> entries(String version) {
+		final Map<String, String> entries = new LinkedHashMap<>();
+		entries.put( "META-INF/MANIFEST.MF", "Manifest-Version: 1.0\n" );
+		entries.put( "com/acme/Thing.class", "not really a class - " + version );
+		// non-ASCII names must be digested the same way whichever way the archive is read
+		entries.put( "com/acme/r\u00e9sum\u00e9.txt", "r\u00e9sum\u00e9" );
+		return entries;
+	}
+
+	private static File createArchive(File archive, Map<String, String> entries, long entryTime) throws IOException {
+		Files.createDirectories( archive.getParentFile().toPath() );
+
+		try ( final OutputStream fileStream = Files.newOutputStream( archive.toPath() );
+				final ZipOutputStream zipStream = new ZipOutputStream( fileStream, StandardCharsets.UTF_8 ) ) {
+			for ( Map.Entry<String, String> entry : entries.entrySet() ) {
+				final ZipEntry zipEntry = new ZipEntry( entry.getKey() );
+				zipEntry.setTime( entryTime );
+				zipStream.putNextEntry( zipEntry );
+				zipStream.write( entry.getValue().getBytes( StandardCharsets.UTF_8 ) );
+				zipStream.closeEntry();
+			}
+		}
+
+		return archive;
+	}
+}
@@ -0,0 +1,114 @@
+package com.github.sebersole.gradle.quarkus;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.github.sebersole.gradle.quarkus.service.ArtifactProbe;
+import com.github.sebersole.gradle.quarkus.service.ArtifactProbeStore;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Tests for persisting ArtifactProbe results across builds
+ */
+public class ArtifactProbeStoreTest {
+	private File directory;
+	private File storeFile;
+
+	@BeforeEach
+	public void createDirectory() {
+		directory = IndexingFixtures.createTempDirectory();
+		storeFile = new File( new File( directory, "probes" ), ArtifactProbeStore.STORE_FILE_NAME );
+	}
+
+	@AfterEach
+	public void deleteDirectory() {
+		IndexingFixtures.deleteRecursively( directory );
+	}
+
+	@Test
+	public void testProbeSurvivesSaveAndLoad() throws IOException {
+		// well beyond the 64KB limit of DataOutput#writeUTF
+		final char[] longValue = new char[ 100_000 ];
+		Arrays.fill( longValue, 'x' );
+		final File archive = createExtensionArchive( new File( directory, "extension.jar" ), new String( longValue ) );
+
+		final ArtifactProbe probe = probe( archive );
+		final ArtifactProbeStore store = ArtifactProbeStore.load( storeFile );
+		store.record( archive, probe );
+		store.save();
+
+		final ArtifactProbe loaded = ArtifactProbeStore.load( storeFile ).find( archive );
+		assertThat( loaded, notNullValue() );
+		assertThat( loaded.getFingerprint(), is( probe.getFingerprint() ) );
+		assertThat( loaded.isExtension(), is( true ) );
+		assertThat( loaded.getExtensionProperties(), is( probe.getExtensionProperties() ) );
+		assertThat( loaded.getExtensionProperties().get( "deployment-artifact" ).length(), is( longValue.length ) );
+		assertThat( loaded.getClassEntryCount(), is( 1 ) );
+	}
+
+	@Test
+	public void testChangedArchiveNotFound() throws IOException {
+		final File archive = createExtensionArchive( new File( directory, "extension.jar" ), "org.acme:acme-deployment:1.0" );
+
+		final ArtifactProbeStore store = ArtifactProbeStore.load( storeFile );
+		store.record( archive, probe( archive ) );
+		store.save();
+
+		createExtensionArchive( archive, "org.acme:acme-deployment:2.0-with-a-longer-version" );
+		assertThat( ArtifactProbeStore.load( storeFile ).find( archive ), nullValue() );
+	}
+
+	@Test
+	public void testSavesMergeEntries() throws IOException {
+		final File first = createExtensionArchive( new File( directory, "first.jar" ), "org.acme:first-deployment:1.0" );
+		final File second = createExtensionArchive( new File( directory, "second.jar" ), "org.acme:second-deployment:1.0" );
+
+		// two builds sharing the store, each probing a different archive
+		final ArtifactProbeStore firstBuild = ArtifactProbeStore.load( storeFile );
+		final ArtifactProbeStore secondBuild = ArtifactProbeStore.load( storeFile );
+		firstBuild.record( first, probe( first ) );
+		secondBuild.record( second, probe( second ) );
+		firstBuild.save();
+		secondBuild.save();
+
+		final ArtifactProbeStore loaded = ArtifactProbeStore.load( storeFile );
+		assertThat( loaded.find( first ), notNullValue() );
+		assertThat( loaded.find( second ), notNullValue() );
+	}
+
+	private static ArtifactProbe probe(File archive) throws IOException {
+		try ( final JarFile jarFile = new JarFile( archive ) ) {
+			return ArtifactProbe.probe( jarFile );
+		}
+	}
+
+	private static File createExtensionArchive(File archive, String deploymentArtifact) throws IOException {
+		try ( final OutputStream fileStream = Files.newOutputStream( archive.toPath() );
+				final JarOutputStream jarStream = new JarOutputStream( fileStream ) ) {
+			jarStream.putNextEntry( new JarEntry( Helper.EXTENSION_PROP_FILE ) );
+			jarStream.write( ( "deployment-artifact=" + deploymentArtifact + "\n" ).getBytes( StandardCharsets.UTF_8 ) );
+			jarStream.closeEntry();
+
+			jarStream.putNextEntry( new JarEntry( "org/acme/Extension.class" ) );
+			jarStream.write( new byte[] { 1, 2, 3 } );
+			jarStream.closeEntry();
+		}
+
+		return archive;
+	}
+}
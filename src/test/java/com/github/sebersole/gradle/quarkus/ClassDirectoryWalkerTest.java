@@ -0,0 +1,102 @@
+package com.github.sebersole.gradle.quarkus;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.gradle.api.GradleException;
+
+import org.jboss.jandex.Index;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.github.sebersole.gradle.quarkus.indexing.ClassDirectoryWalker;
+import com.github.sebersole.gradle.quarkus.indexing.ClassIndexingPipeline;
+
+import static com.github.sebersole.gradle.quarkus.IndexingFixtures.classNames;
+import static com.github.sebersole.gradle.quarkus.IndexingFixtures.names;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for indexing classes directories through ClassDirectoryWalker
+ */
+public class ClassDirectoryWalkerTest {
+	private File directory;
+	private File classesDirectory;
+
+	@BeforeEach
+	public void createDirectory() {
+		directory = IndexingFixtures.createTempDirectory();
+		classesDirectory = new File( directory, "classes" );
+
+		IndexingFixtures.copyClassFile( IndexingFixtures.Base.class, classesDirectory );
+		IndexingFixtures.copyClassFile( IndexingFixtures.Sub.class, classesDirectory );
+		IndexingFixtures.copyClassFile( IndexingFixtures.MarkedOne.class, classesDirectory );
+	}
+
+	@AfterEach
+	public void deleteDirectory() {
+		IndexingFixtures.deleteRecursively( directory );
+	}
+
+	@Test
+	public void testSequentialWalk() {
+		final Index index = ClassDirectoryWalker.index( Collections.singleton( classesDirectory ), false );
+		assertThat(
+				classNames( index.getKnownClasses() ),
+				is( names( IndexingFixtures.Base.class, IndexingFixtures.Sub.class, IndexingFixtures.MarkedOne.class ) )
+		);
+	}
+
+	@Test
+	public void testParallelWalk() throws IOException {
+		// enough (unparseable, hence skipped) class files spread over sub-directories to walk the tree in parallel
+		for ( int i = 0; i < ClassIndexingPipeline.MINIMUM_PIPELINED_CLASSES; i++ ) {
+			final File padding = new File( classesDirectory, "padding/p" + ( i % 16 ) + "/Padding" + i + ".class" );
+			Files.createDirectories( padding.getParentFile().toPath() );
+			Files.write( padding.toPath(), "not a class".getBytes( StandardCharsets.UTF_8 ) );
+		}
+
+		final Index parallel = ClassDirectoryWalker.index( Collections.singleton( classesDirectory ), true );
+		final Index sequential = ClassDirectoryWalker.index( Collections.singleton( classesDirectory ), false );
+
+		assertThat(
+				classNames( parallel.getKnownClasses() ),
+				is( names( IndexingFixtures.Base.class, IndexingFixtures.Sub.class, IndexingFixtures.MarkedOne.class ) )
+		);
+		assertThat( classNames( parallel.getKnownClasses() ), is( classNames( sequential.getKnownClasses() ) ) );
+	}
+
+	@Test
+	public void testLinkCycle() throws IOException {
+		final File link = new File( classesDirectory, "nested/cycle" );
+		Files.createDirectories( link.getParentFile().toPath() );
+		Files.createSymbolicLink( link.toPath(), classesDirectory.toPath() );
+
+		final Index index = ClassDirectoryWalker.index( Collections.singleton( classesDirectory ), false );
+		assertThat(
+				classNames( index.getKnownClasses() ),
+				is( names( IndexingFixtures.Base.class, IndexingFixtures.Sub.class, IndexingFixtures.MarkedOne.class ) )
+		);
+	}
+
+	@Test
+	public void testMissingAndInvalidDirectories() throws IOException {
+		final Index index = ClassDirectoryWalker.index( Arrays.asList( new File( directory, "missing" ), classesDirectory ), false );
+		assertThat( index.getKnownClasses().size(), is( 3 ) );
+
+		final File notADirectory = new File( directory, "file.txt" );
+		Files.write( notADirectory.toPath(), "just some text".getBytes( StandardCharsets.UTF_8 ) );
+		assertThrows(
+				GradleException.class,
+				() -> ClassDirectoryWalker.index( Collections.singleton( notADirectory ), false )
+		);
+	}
+}
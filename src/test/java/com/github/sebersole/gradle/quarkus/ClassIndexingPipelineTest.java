@@ -0,0 +1,80 @@
+package com.github.sebersole.gradle.quarkus;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import org.gradle.api.GradleException;
+
+import org.jboss.jandex.Index;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.sebersole.gradle.quarkus.indexing.ClassIndexingPipeline;
+
+import static com.github.sebersole.gradle.quarkus.IndexingFixtures.classNames;
+import static com.github.sebersole.gradle.quarkus.IndexingFixtures.dotName;
+import static com.github.sebersole.gradle.quarkus.IndexingFixtures.names;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for indexing classes through the worker pipeline of ClassIndexingPipeline
+ */
+public class ClassIndexingPipelineTest {
+	private static final List<Class<?>> CLASSES = Arrays.asList(
+			IndexingFixtures.Marker.class,
+			IndexingFixtures.Named.class,
+			IndexingFixtures.Base.class,
+			IndexingFixtures.Sub.class,
+			IndexingFixtures.SubSub.class,
+			IndexingFixtures.MarkedOne.class,
+			IndexingFixtures.MarkedTwo.class,
+			IndexingFixtures.Plain.class
+	);
+
+	private static void visitFixtures(ClassIndexingPipeline.ClassVisitor visitor) {
+		CLASSES.forEach( type -> visitor.visitClass( type.getName(), IndexingFixtures.classBytes( type ) ) );
+	}
+
+	@Test
+	public void testPipelinedMatchesSequential() {
+		final ClassIndexingPipeline pipeline = new ClassIndexingPipeline( 4, 2 );
+
+		// claim a large source, so the workers are started
+		final Index pipelined = pipeline.index( ClassIndexingPipelineTest::visitFixtures, ClassIndexingPipeline.MINIMUM_PIPELINED_CLASSES );
+		final Index sequential = ClassIndexingPipeline.SEQUENTIAL.index( ClassIndexingPipelineTest::visitFixtures, -1 );
+
+		assertThat( classNames( pipelined.getKnownClasses() ), is( names( CLASSES.toArray( new Class<?>[0] ) ) ) );
+		assertThat( classNames( pipelined.getKnownClasses() ), is( classNames( sequential.getKnownClasses() ) ) );
+		assertThat(
+				classNames( pipelined.getAllKnownSubclasses( dotName( IndexingFixtures.Base.class ) ) ),
+				is( names( IndexingFixtures.Sub.class, IndexingFixtures.SubSub.class ) )
+		);
+		assertThat( pipelined.getAnnotations( dotName( IndexingFixtures.Marker.class ) ).size(), is( 2 ) );
+	}
+
+	@Test
+	public void testSmallSourceOfUnknownSize() {
+		// never proves large enough to start the workers
+		final Index index = new ClassIndexingPipeline( 4, 2 ).index( ClassIndexingPipelineTest::visitFixtures, -1 );
+		assertThat( classNames( index.getKnownClasses() ), is( names( CLASSES.toArray( new Class<?>[0] ) ) ) );
+	}
+
+	@Test
+	public void testFailedSourceCancelsRun() {
+		final ClassIndexingPipeline pipeline = new ClassIndexingPipeline( 4, 1 );
+
+		assertThrows(
+				GradleException.class,
+				() -> pipeline.index(
+						visitor -> {
+							visitFixtures( visitor );
+							throw new IOException( "Simulated read failure" );
+						},
+						ClassIndexingPipeline.MINIMUM_PIPELINED_CLASSES
+				)
+		);
+	}
+}
@@ -0,0 +1,65 @@
+package com.github.sebersole.gradle.quarkus;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.github.sebersole.gradle.quarkus.IndexingFixtures.TestIndexManager;
+import com.github.sebersole.gradle.quarkus.indexing.CompositeSnapshot;
+import com.github.sebersole.gradle.quarkus.indexing.MutableCompositeIndex;
+
+import static com.github.sebersole.gradle.quarkus.IndexingFixtures.classNames;
+import static com.github.sebersole.gradle.quarkus.IndexingFixtures.names;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Tests for the currency checks of CompositeSnapshot
+ */
+public class CompositeSnapshotTest {
+	private File directory;
+
+	@BeforeEach
+	public void createDirectory() {
+		directory = IndexingFixtures.createTempDirectory();
+	}
+
+	@AfterEach
+	public void deleteDirectory() {
+		IndexingFixtures.deleteRecursively( directory );
+	}
+
+	@Test
+	public void testSnapshotCurrency() {
+		final TestIndexManager first = new TestIndexManager( new File( directory, "first.idx" ), IndexingFixtures.index( IndexingFixtures.MarkedOne.class ) );
+		final TestIndexManager second = new TestIndexManager( new File( directory, "second.idx" ), IndexingFixtures.index( IndexingFixtures.MarkedTwo.class ) );
+		final List<TestIndexManager> contributors = Arrays.asList( first, second );
+
+		final MutableCompositeIndex compositeIndex = new MutableCompositeIndex();
+		contributors.forEach( compositeIndex::expand );
+
+		final CompositeSnapshot snapshot = new CompositeSnapshot( directory );
+		snapshot.write( compositeIndex.flattened(), contributors );
+
+		assertThat( snapshot.isCurrent( contributors ), is( true ) );
+		assertThat(
+				classNames( snapshot.load().getKnownClasses() ),
+				is( names( IndexingFixtures.MarkedOne.class, IndexingFixtures.MarkedTwo.class ) )
+		);
+
+		// the same contents rewritten (restored from the build cache, e.g.) is still current
+		second.regenerate( IndexingFixtures.index( IndexingFixtures.MarkedTwo.class ) );
+		//noinspection ResultOfMethodCallIgnored
+		second.getIndexFile().setLastModified( second.getIndexFile().lastModified() + 60_000 );
+		assertThat( snapshot.isCurrent( contributors ), is( true ) );
+
+		// but not changed contents, nor a different set of contributors
+		second.regenerate( IndexingFixtures.index( IndexingFixtures.Plain.class ) );
+		assertThat( snapshot.isCurrent( contributors ), is( false ) );
+		assertThat( snapshot.isCurrent( Arrays.asList( first ) ), is( false ) );
+	}
+}
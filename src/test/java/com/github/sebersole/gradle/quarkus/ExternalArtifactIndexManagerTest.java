@@ -0,0 +1,139 @@
+package com.github.sebersole.gradle.quarkus;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import org.jboss.jandex.Index;
+import org.jboss.jandex.IndexWriter;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.github.sebersole.gradle.quarkus.indexing.ExternalArtifactIndexManager;
+import com.github.sebersole.gradle.quarkus.indexing.IndexManager;
+
+import static com.github.sebersole.gradle.quarkus.IndexingFixtures.classNames;
+import static com.github.sebersole.gradle.quarkus.IndexingFixtures.dotName;
+import static com.github.sebersole.gradle.quarkus.IndexingFixtures.names;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Tests for resolving the index of an external artifact
+ */
+public class ExternalArtifactIndexManagerTest {
+	private File directory;
+
+	@BeforeEach
+	public void createDirectory() {
+		directory = IndexingFixtures.createTempDirectory();
+	}
+
+	@AfterEach
+	public void deleteDirectory() {
+		IndexingFixtures.deleteRecursively( directory );
+	}
+
+	@Test
+	public void testEmbeddedIndexCopiedUnparsed() throws IOException {
+		final Index embedded = IndexingFixtures.index( IndexingFixtures.MarkedOne.class );
+		final File jar = IndexingFixtures.createJar( new File( directory, "lib.jar" ), embedded, IndexingFixtures.MarkedOne.class );
+		final ExternalArtifactIndexManager indexManager = new ExternalArtifactIndexManager( jar, new File( directory, "jandex/lib.idx" ) );
+
+		assertThat( indexManager.resolve(), is( IndexManager.Resolution.INDEX_FILE ) );
+
+		final ByteArrayOutputStream embeddedBytes = new ByteArrayOutputStream();
+		new IndexWriter( embeddedBytes ).write( embedded );
+		// copied unchanged behind the header (see IndexFiles#wrap)
+		final byte[] indexFileBytes = Files.readAllBytes( indexManager.getIndexFile().toPath() );
+		assertThat(
+				Arrays.equals(
+						Arrays.copyOfRange( indexFileBytes, indexFileBytes.length - embeddedBytes.size(), indexFileBytes.length ),
+						embeddedBytes.toByteArray()
+				),
+				is( true )
+		);
+
+		assertThat( classNames( indexManager.getIndex().getKnownClasses() ), is( names( IndexingFixtures.MarkedOne.class ) ) );
+	}
+
+	@Test
+	public void testSummaryOnlyWrittenOnRequest() {
+		final File jar = IndexingFixtures.createJar(
+				new File( directory, "lib.jar" ),
+				IndexingFixtures.index( IndexingFixtures.MarkedOne.class ),
+				IndexingFixtures.MarkedOne.class
+		);
+		final ExternalArtifactIndexManager indexManager = new ExternalArtifactIndexManager( jar, new File( directory, "jandex/lib.idx" ) );
+		indexManager.resolve();
+
+		// parsing the index (outside the Jandex task, e.g.) does not write into the task's outputs
+		indexManager.getIndex();
+		assertThat( indexManager.getSummaryFile().exists(), is( false ) );
+		assertThat( indexManager.getSummary().containsAnnotation( dotName( IndexingFixtures.Marker.class ) ), is( true ) );
+
+		indexManager.writeMissingSummary();
+		assertThat( indexManager.getSummaryFile().exists(), is( true ) );
+	}
+
+	@Test
+	public void testClassesIndexedWithoutEmbeddedIndex() {
+		final File jar = IndexingFixtures.createJar(
+				new File( directory, "lib.jar" ),
+				null,
+				IndexingFixtures.Base.class,
+				IndexingFixtures.Sub.class
+		);
+		final ExternalArtifactIndexManager indexManager = new ExternalArtifactIndexManager( jar, new File( directory, "jandex/lib.idx" ) );
+
+		assertThat( indexManager.resolve(), is( IndexManager.Resolution.GENERATED ) );
+		assertThat( indexManager.getSummaryFile().exists(), is( true ) );
+		assertThat(
+				classNames( indexManager.getIndex().getKnownClasses() ),
+				is( names( IndexingFixtures.Base.class, IndexingFixtures.Sub.class ) )
+		);
+	}
+
+	@Test
+	public void testConcurrentResolution() throws Exception {
+		// as the Jandex task generates the external artifact indexes in parallel
+		final List<ExternalArtifactIndexManager> indexManagers = new ArrayList<>();
+		for ( int i = 0; i < 8; i++ ) {
+			final File jar = IndexingFixtures.createJar(
+					new File( directory, "lib-" + i + ".jar" ),
+					i % 2 == 0 ? IndexingFixtures.index( IndexingFixtures.MarkedOne.class ) : null,
+					IndexingFixtures.MarkedOne.class
+			);
+			indexManagers.add( new ExternalArtifactIndexManager( jar, new File( directory, "jandex/lib-" + i + ".idx" ) ) );
+		}
+
+		final ForkJoinPool pool = new ForkJoinPool( 4 );
+		try {
+			final List<Future<IndexManager.Resolution>> futures = new ArrayList<>();
+			indexManagers.forEach( indexManager -> futures.add( pool.submit( indexManager::resolve ) ) );
+
+			for ( int i = 0; i < futures.size(); i++ ) {
+				assertThat(
+						futures.get( i ).get(),
+						is( i % 2 == 0 ? IndexManager.Resolution.INDEX_FILE : IndexManager.Resolution.GENERATED )
+				);
+			}
+		}
+		finally {
+			pool.shutdown();
+		}
+
+		for ( ExternalArtifactIndexManager indexManager : indexManagers ) {
+			assertThat( indexManager.isResolved(), is( true ) );
+			assertThat( classNames( indexManager.getIndex().getKnownClasses() ), is( names( IndexingFixtures.MarkedOne.class ) ) );
+		}
+	}
+}
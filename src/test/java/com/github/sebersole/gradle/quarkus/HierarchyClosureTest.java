@@ -0,0 +1,118 @@
+package com.github.sebersole.gradle.quarkus;
+
+import java.io.File;
+
+import org.jboss.jandex.Index;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.sebersole.gradle.quarkus.IndexingFixtures.TestIndexManager;
+import com.github.sebersole.gradle.quarkus.indexing.HierarchyClosure;
+import com.github.sebersole.gradle.quarkus.indexing.MutableCompositeIndex;
+
+import static com.github.sebersole.gradle.quarkus.IndexingFixtures.classNames;
+import static com.github.sebersole.gradle.quarkus.IndexingFixtures.dotName;
+import static com.github.sebersole.gradle.quarkus.IndexingFixtures.names;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Tests for HierarchyClosure, and for the composite starting a new closure once expanded
+ */
+public class HierarchyClosureTest {
+	@Test
+	public void testClosureMatchesJandex() {
+		final Index index = IndexingFixtures.index(
+				IndexingFixtures.Named.class,
+				IndexingFixtures.LabelledNamed.class,
+				IndexingFixtures.Base.class,
+				IndexingFixtures.Sub.class,
+				IndexingFixtures.SubSub.class,
+				IndexingFixtures.Labelled.class
+		);
+
+		final HierarchyClosure closure = new HierarchyClosure( index );
+
+		// `Labelled` implements `Named` through a sub-interface, `Sub` and `SubSub` through a superclass
+		assertThat(
+				names( closure.getAllKnownImplementors( dotName( IndexingFixtures.Named.class ) ) ),
+				is(
+						names(
+								IndexingFixtures.Base.class,
+								IndexingFixtures.Sub.class,
+								IndexingFixtures.SubSub.class,
+								IndexingFixtures.Labelled.class
+						)
+				)
+		);
+		assertThat(
+				names( closure.getAllKnownImplementors( dotName( IndexingFixtures.Named.class ) ) ),
+				is( classNames( index.getAllKnownImplementors( dotName( IndexingFixtures.Named.class ) ) ) )
+		);
+		assertThat(
+				names( closure.getAllKnownSubclasses( dotName( IndexingFixtures.Base.class ) ) ),
+				is( classNames( index.getAllKnownSubclasses( dotName( IndexingFixtures.Base.class ) ) ) )
+		);
+		assertThat(
+				names( closure.getAllKnownSubInterfaces( dotName( IndexingFixtures.Named.class ) ) ),
+				is( names( IndexingFixtures.LabelledNamed.class ) )
+		);
+
+		// memoized
+		assertThat(
+				closure.getAllKnownSubclasses( dotName( IndexingFixtures.Base.class ) ),
+				sameInstance( closure.getAllKnownSubclasses( dotName( IndexingFixtures.Base.class ) ) )
+		);
+	}
+
+	@Test
+	public void testClosureSpansAdditions() {
+		final MutableCompositeIndex compositeIndex = new MutableCompositeIndex();
+		compositeIndex.expand( IndexingFixtures.index( IndexingFixtures.Named.class, IndexingFixtures.Base.class ) );
+		compositeIndex.expand( IndexingFixtures.index( IndexingFixtures.Sub.class ) );
+		compositeIndex.expand( IndexingFixtures.index( IndexingFixtures.SubSub.class ) );
+
+		assertThat(
+				names( compositeIndex.getAllKnownImplementorNames( dotName( IndexingFixtures.Named.class ) ) ),
+				is( names( IndexingFixtures.Base.class, IndexingFixtures.Sub.class, IndexingFixtures.SubSub.class ) )
+		);
+	}
+
+	@Test
+	public void testCompositeExpansionStartsNewClosure() {
+		final File directory = IndexingFixtures.createTempDirectory();
+		try {
+			final TestIndexManager indexManager = new TestIndexManager(
+					new File( directory, "artifact.idx" ),
+					IndexingFixtures.index( IndexingFixtures.Base.class, IndexingFixtures.Sub.class )
+			);
+
+			final MutableCompositeIndex compositeIndex = new MutableCompositeIndex();
+			compositeIndex.expand( indexManager );
+			final HierarchyClosure closure = compositeIndex.getHierarchyClosure();
+			assertThat(
+					names( closure.getAllKnownSubclasses( dotName( IndexingFixtures.Base.class ) ) ),
+					is( names( IndexingFixtures.Sub.class ) )
+			);
+			assertThat( compositeIndex.getHierarchyClosure(), sameInstance( closure ) );
+
+			indexManager.regenerate( IndexingFixtures.index( IndexingFixtures.Base.class, IndexingFixtures.Sub.class, IndexingFixtures.SubSub.class ) );
+			compositeIndex.expand( indexManager );
+
+			assertThat( compositeIndex.getHierarchyClosure(), not( sameInstance( closure ) ) );
+			assertThat(
+					names( compositeIndex.getHierarchyClosure().getAllKnownSubclasses( dotName( IndexingFixtures.Base.class ) ) ),
+					is( names( IndexingFixtures.Sub.class, IndexingFixtures.SubSub.class ) )
+			);
+			assertThat(
+					classNames( compositeIndex.getAllKnownSubclasses( dotName( IndexingFixtures.Base.class ) ) ),
+					is( names( IndexingFixtures.Sub.class, IndexingFixtures.SubSub.class ) )
+			);
+		}
+		finally {
+			IndexingFixtures.deleteRecursively( directory );
+		}
+	}
+}
@@ -0,0 +1,135 @@
+package com.github.sebersole.gradle.quarkus;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+import org.jboss.jandex.DotName;
+import org.jboss.jandex.Index;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.github.sebersole.gradle.quarkus.IndexingFixtures.TestIndexManager;
+import com.github.sebersole.gradle.quarkus.indexing.IndexChangeSet;
+
+import static com.github.sebersole.gradle.quarkus.IndexingFixtures.dotName;
+import static com.github.sebersole.gradle.quarkus.IndexingFixtures.names;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Tests for the changes reported by IndexChangeSet
+ */
+public class IndexChangeSetTest {
+	private static final DotName MARKER = dotName( IndexingFixtures.Marker.class );
+	private static final DotName UNUSED = DotName.createSimple( "com.acme.Unused" );
+
+	private File directory;
+
+	@BeforeEach
+	public void createDirectory() {
+		directory = IndexingFixtures.createTempDirectory();
+	}
+
+	@AfterEach
+	public void deleteDirectory() {
+		IndexingFixtures.deleteRecursively( directory );
+	}
+
+	@Test
+	public void testAnnotationMovedBetweenClasses() {
+		final TestIndexManager indexManager = new TestIndexManager(
+				new File( directory, "artifact.idx" ),
+				IndexingFixtures.index( IndexingFixtures.MarkedOne.class, IndexingFixtures.Plain.class )
+		);
+
+		final IndexChangeSet.Builder builder = new IndexChangeSet.Builder();
+		// the index held by the manager is used as-is, rather than reading the index file
+		final Index held = indexManager.getHeldIndex();
+		assertThat( held, notNullValue() );
+		//noinspection ResultOfMethodCallIgnored
+		indexManager.getIndexFile().delete();
+		builder.before( indexManager.getIndexFile(), held );
+		// the artifact still uses @Marker, but on a different class
+		indexManager.regenerate( IndexingFixtures.index( IndexingFixtures.MarkedTwo.class, IndexingFixtures.Plain.class ) );
+
+		final IndexChangeSet changeSet = builder.build( Collections.singletonList( indexManager ) );
+		final IndexChangeSet.ArtifactChange change = changeSet.getChange( indexManager.getIndexFile() );
+
+		assertThat( change, notNullValue() );
+		assertThat( change.getKind(), is( IndexChangeSet.Kind.CHANGED ) );
+		assertThat( change.getAddedClasses(), is( names( IndexingFixtures.MarkedTwo.class ) ) );
+		assertThat( change.getRemovedClasses(), is( names( IndexingFixtures.MarkedOne.class ) ) );
+		assertThat( change.getAddedAnnotationUsages(), is( usages( IndexingFixtures.MarkedTwo.class ) ) );
+		assertThat( change.getRemovedAnnotationUsages(), is( usages( IndexingFixtures.MarkedOne.class ) ) );
+
+		assertThat( changeSet.affectsAnnotation( MARKER ), is( true ) );
+		assertThat( changeSet.affectsAnnotation( UNUSED ), is( false ) );
+	}
+
+	@Test
+	public void testUnchangedContentsNotReported() {
+		final Index index = IndexingFixtures.index( IndexingFixtures.MarkedOne.class, IndexingFixtures.Plain.class );
+		final TestIndexManager indexManager = new TestIndexManager( new File( directory, "artifact.idx" ), index );
+
+		final IndexChangeSet.Builder builder = new IndexChangeSet.Builder();
+		builder.before( indexManager.getIndexFile() );
+		indexManager.regenerate( IndexingFixtures.index( IndexingFixtures.MarkedOne.class, IndexingFixtures.Plain.class ) );
+
+		final IndexChangeSet changeSet = builder.build( Collections.singletonList( indexManager ) );
+		assertThat( changeSet.isEmpty(), is( true ) );
+		assertThat( changeSet.affectsAnnotation( MARKER ), is( false ) );
+	}
+
+	@Test
+	public void testAddedAndRemovedArtifacts() {
+		final TestIndexManager added = new TestIndexManager(
+				new File( directory, "added.idx" ),
+				IndexingFixtures.index( IndexingFixtures.MarkedOne.class )
+		) {
+			@Override
+			public synchronized Index getIndex() {
+				throw new AssertionError( "The index of an added artifact should not be loaded to build the change-set" );
+			}
+		};
+		final TestIndexManager removed = new TestIndexManager(
+				new File( directory, "removed.idx" ),
+				IndexingFixtures.index( IndexingFixtures.MarkedTwo.class, IndexingFixtures.Plain.class )
+		);
+
+		final IndexChangeSet.Builder builder = new IndexChangeSet.Builder();
+		builder.added( added.getIndexFile() );
+		builder.removed( removed.getIndexFile() );
+		//noinspection ResultOfMethodCallIgnored
+		removed.getIndexFile().delete();
+
+		final IndexChangeSet changeSet = builder.build( Collections.singletonList( added ) );
+
+		final IndexChangeSet.ArtifactChange addedChange = changeSet.getChange( added.getIndexFile() );
+		assertThat( addedChange.getKind(), is( IndexChangeSet.Kind.ADDED ) );
+		// answered from the summary
+		assertThat( addedChange.affectsAnnotation( MARKER ), is( true ) );
+		assertThat( addedChange.affectsAnnotation( UNUSED ), is( false ) );
+
+		final IndexChangeSet.ArtifactChange removedChange = changeSet.getChange( removed.getIndexFile() );
+		assertThat( removedChange.getKind(), is( IndexChangeSet.Kind.REMOVED ) );
+		assertThat( removedChange.getRemovedClasses(), is( names( IndexingFixtures.MarkedTwo.class, IndexingFixtures.Plain.class ) ) );
+		assertThat( removedChange.getRemovedAnnotationUsages(), is( usages( IndexingFixtures.MarkedTwo.class ) ) );
+	}
+
+	@Test
+	public void testUnknownChanges() {
+		final IndexChangeSet changeSet = IndexChangeSet.unknown();
+		assertThat( changeSet.isComplete(), is( false ) );
+		assertThat( changeSet.isEmpty(), is( false ) );
+		assertThat( changeSet.affectsAnnotation( UNUSED ), is( true ) );
+	}
+
+	private static Map<String, Set<String>> usages(Class<?>... classes) {
+		return Collections.singletonMap( MARKER.toString(), names( classes ) );
+	}
+}
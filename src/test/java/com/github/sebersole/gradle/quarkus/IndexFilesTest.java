@@ -0,0 +1,147 @@
+package com.github.sebersole.gradle.quarkus;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.jboss.jandex.Index;
+import org.jboss.jandex.IndexWriter;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.github.sebersole.gradle.quarkus.indexing.CorruptIndexException;
+import com.github.sebersole.gradle.quarkus.indexing.IndexFiles;
+
+import static com.github.sebersole.gradle.quarkus.IndexingFixtures.classNames;
+import static com.github.sebersole.gradle.quarkus.IndexingFixtures.names;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for writing, reading and verifying index files
+ */
+public class IndexFilesTest {
+	private File directory;
+
+	@BeforeEach
+	public void createDirectory() {
+		directory = IndexingFixtures.createTempDirectory();
+	}
+
+	@AfterEach
+	public void deleteDirectory() {
+		IndexingFixtures.deleteRecursively( directory );
+	}
+
+	@Test
+	public void testRoundTrip() throws IOException {
+		final Index index = IndexingFixtures.index( IndexingFixtures.Base.class, IndexingFixtures.Sub.class, IndexingFixtures.MarkedOne.class );
+
+		final File plainFile = new File( directory, "plain.idx" );
+		IndexFiles.write( plainFile, index, false );
+		assertThat( classNames( IndexFiles.read( plainFile ).getKnownClasses() ), is( classNames( index.getKnownClasses() ) ) );
+
+		final File compressedFile = new File( directory, "compressed.idx" );
+		IndexFiles.write( compressedFile, index, true );
+		final Index read = IndexFiles.read( compressedFile );
+		assertThat( classNames( read.getKnownClasses() ), is( classNames( index.getKnownClasses() ) ) );
+		assertThat(
+				classNames( read.getKnownDirectSubclasses( IndexingFixtures.dotName( IndexingFixtures.Base.class ) ) ),
+				is( names( IndexingFixtures.Sub.class ) )
+		);
+	}
+
+	@Test
+	public void testCorruptPayloadDetected() throws IOException {
+		final File indexFile = new File( directory, "corrupt.idx" );
+		IndexFiles.write( indexFile, IndexingFixtures.index( IndexingFixtures.Base.class, IndexingFixtures.Sub.class ), false );
+
+		try ( final RandomAccessFile file = new RandomAccessFile( indexFile, "rw" ) ) {
+			final long position = file.length() - 2;
+			file.seek( position );
+			final int original = file.read();
+			file.seek( position );
+			file.write( original ^ 0xFF );
+		}
+
+		assertThrows( CorruptIndexException.class, () -> IndexFiles.read( indexFile ) );
+	}
+
+	@Test
+	public void testTruncationDetected() throws IOException {
+		final File indexFile = new File( directory, "truncated.idx" );
+		IndexFiles.write( indexFile, IndexingFixtures.index( IndexingFixtures.Base.class, IndexingFixtures.Sub.class ), true );
+
+		try ( final RandomAccessFile file = new RandomAccessFile( indexFile, "rw" ) ) {
+			file.setLength( file.length() - 8 );
+		}
+
+		assertThrows( CorruptIndexException.class, () -> IndexFiles.read( indexFile ) );
+	}
+
+	@Test
+	public void testContentHashSurvivesCopies() throws IOException {
+		final File indexFile = new File( directory, "original.idx" );
+		IndexFiles.write( indexFile, IndexingFixtures.index( IndexingFixtures.Base.class ), false );
+
+		final File copiedFile = new File( new File( directory, "restored" ), "original.idx" );
+		IndexFiles.copy( indexFile, copiedFile );
+		//noinspection ResultOfMethodCallIgnored
+		copiedFile.setLastModified( indexFile.lastModified() - 60_000 );
+
+		assertThat( IndexFiles.contentHash( copiedFile ), is( IndexFiles.contentHash( indexFile ) ) );
+
+		final File otherFile = new File( directory, "other.idx" );
+		IndexFiles.write( otherFile, IndexingFixtures.index( IndexingFixtures.Plain.class ), false );
+		assertThat( IndexFiles.contentHash( otherFile ), not( IndexFiles.contentHash( indexFile ) ) );
+	}
+
+	@Test
+	public void testWrappedIndexCarriesHeader() throws IOException {
+		final byte[] plainBytes = plainIndexBytes( IndexingFixtures.index( IndexingFixtures.Base.class, IndexingFixtures.Sub.class ) );
+
+		final File wrappedFile = new File( directory, "wrapped.idx" );
+		IndexFiles.wrap( new ByteArrayInputStream( plainBytes ), wrappedFile );
+
+		// the plain index is kept unchanged behind the header
+		final byte[] wrappedBytes = Files.readAllBytes( wrappedFile.toPath() );
+		assertThat(
+				Arrays.equals( Arrays.copyOfRange( wrappedBytes, wrappedBytes.length - plainBytes.length, wrappedBytes.length ), plainBytes ),
+				is( true )
+		);
+		assertThat(
+				classNames( IndexFiles.read( wrappedFile ).getKnownClasses() ),
+				is( names( IndexingFixtures.Base.class, IndexingFixtures.Sub.class ) )
+		);
+
+		// the hash comes from the header, and differs from the one of a different index
+		final File otherFile = new File( directory, "other.idx" );
+		IndexFiles.wrap( new ByteArrayInputStream( plainIndexBytes( IndexingFixtures.index( IndexingFixtures.Plain.class ) ) ), otherFile );
+		assertThat( IndexFiles.contentHash( wrappedFile ).startsWith( "plain:" ), is( false ) );
+		assertThat( IndexFiles.contentHash( otherFile ), not( IndexFiles.contentHash( wrappedFile ) ) );
+
+		// and the payload is verified like that of any other index file
+		try ( final RandomAccessFile file = new RandomAccessFile( wrappedFile, "rw" ) ) {
+			final long position = file.length() - 2;
+			file.seek( position );
+			final int original = file.read();
+			file.seek( position );
+			file.write( original ^ 0xFF );
+		}
+		assertThrows( CorruptIndexException.class, () -> IndexFiles.read( wrappedFile ) );
+	}
+
+	private static byte[] plainIndexBytes(Index index) throws IOException {
+		final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+		new IndexWriter( stream ).write( index );
+		return stream.toByteArray();
+	}
+}
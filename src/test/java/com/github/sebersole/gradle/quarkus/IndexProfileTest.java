@@ -0,0 +1,103 @@
+package com.github.sebersole.gradle.quarkus;
+
+import java.io.File;
+
+import org.gradle.api.GradleException;
+
+import org.jboss.jandex.ClassInfo;
+import org.jboss.jandex.Index;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.github.sebersole.gradle.quarkus.indexing.ClassIndexingPipeline;
+import com.github.sebersole.gradle.quarkus.indexing.ExternalArtifactIndexManager;
+import com.github.sebersole.gradle.quarkus.indexing.IndexProfile;
+
+import static com.github.sebersole.gradle.quarkus.IndexingFixtures.classNames;
+import static com.github.sebersole.gradle.quarkus.IndexingFixtures.dotName;
+import static com.github.sebersole.gradle.quarkus.IndexingFixtures.names;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for the detail kept by the index profiles
+ */
+public class IndexProfileTest {
+	private File directory;
+
+	@BeforeEach
+	public void createDirectory() {
+		directory = IndexingFixtures.createTempDirectory();
+	}
+
+	@AfterEach
+	public void deleteDirectory() {
+		IndexingFixtures.deleteRecursively( directory );
+	}
+
+	@Test
+	public void testFromName() {
+		assertThat( IndexProfile.fromName( null ), is( IndexProfile.FULL ) );
+		assertThat( IndexProfile.fromName( " Slim " ), is( IndexProfile.SLIM ) );
+		assertThat( IndexProfile.SLIM.getKey(), is( "slim" ) );
+		assertThrows( GradleException.class, () -> IndexProfile.fromName( "partial" ) );
+	}
+
+	@Test
+	public void testFullUnchanged() {
+		final Index index = IndexingFixtures.index( IndexingFixtures.Plain.class );
+		assertThat( IndexProfile.FULL.apply( index ), sameInstance( index ) );
+	}
+
+	@Test
+	public void testSlimStripsMembers() {
+		final Index slim = IndexProfile.SLIM.apply(
+				IndexingFixtures.index( IndexingFixtures.Sub.class, IndexingFixtures.Labelled.class, IndexingFixtures.MarkedOne.class )
+		);
+
+		// the hierarchy is kept...
+		final ClassInfo sub = slim.getClassByName( dotName( IndexingFixtures.Sub.class ) );
+		assertThat( sub.superName(), is( dotName( IndexingFixtures.Base.class ) ) );
+		assertThat( sub.hasNoArgsConstructor(), is( true ) );
+		assertThat( sub.methods().isEmpty(), is( true ) );
+		assertThat(
+				classNames( slim.getKnownDirectImplementors( dotName( IndexingFixtures.LabelledNamed.class ) ) ),
+				is( names( IndexingFixtures.Labelled.class ) )
+		);
+
+		// ... as are the members of annotated classes
+		final ClassInfo marked = slim.getClassByName( dotName( IndexingFixtures.MarkedOne.class ) );
+		assertThat( marked.methods().isEmpty(), is( false ) );
+		assertThat( slim.getAnnotations( dotName( IndexingFixtures.Marker.class ) ).size(), is( 1 ) );
+	}
+
+	@Test
+	public void testSlimArtifactIndex() {
+		final File jar = IndexingFixtures.createJar(
+				new File( directory, "lib.jar" ),
+				IndexingFixtures.index( IndexingFixtures.Plain.class ),
+				IndexingFixtures.Plain.class
+		);
+		final ExternalArtifactIndexManager indexManager = new ExternalArtifactIndexManager(
+				jar,
+				new File( directory, "jandex/lib.idx" ),
+				false,
+				null,
+				ClassIndexingPipeline.SEQUENTIAL,
+				null,
+				IndexProfile.SLIM,
+				null,
+				null
+		);
+		indexManager.resolve();
+
+		// the (full) embedded index is not used for a slim index
+		final Index index = indexManager.getIndex();
+		assertThat( classNames( index.getKnownClasses() ), is( names( IndexingFixtures.Plain.class ) ) );
+		assertThat( index.getClassByName( dotName( IndexingFixtures.Plain.class ) ).methods().isEmpty(), is( true ) );
+	}
+}
@@ -0,0 +1,89 @@
+package com.github.sebersole.gradle.quarkus;
+
+import java.lang.annotation.Retention;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.jboss.jandex.DotName;
+import org.jboss.jandex.Index;
+import org.jboss.jandex.IndexView;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.sebersole.gradle.quarkus.indexing.IndexStreams;
+import com.github.sebersole.gradle.quarkus.indexing.MutableCompositeIndex;
+
+import static com.github.sebersole.gradle.quarkus.IndexingFixtures.dotName;
+import static com.github.sebersole.gradle.quarkus.IndexingFixtures.names;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Tests for the streaming queries of IndexStreams
+ */
+public class IndexStreamsTest {
+	private static final DotName MARKER = dotName( IndexingFixtures.Marker.class );
+	private static final DotName RETENTION = dotName( Retention.class );
+
+	@Test
+	public void testAnnotationsOfAllNames() {
+		final Index index = IndexingFixtures.index(
+				IndexingFixtures.Marker.class,
+				IndexingFixtures.MarkedOne.class,
+				IndexingFixtures.MarkedTwo.class,
+				IndexingFixtures.Plain.class
+		);
+		final Set<String> expected = names( IndexingFixtures.Marker.class, IndexingFixtures.MarkedOne.class, IndexingFixtures.MarkedTwo.class );
+
+		assertThat( targetNames( index, false ), is( expected ) );
+		assertThat( targetNames( index, true ), is( expected ) );
+		assertThat( IndexStreams.annotations( index, false, MARKER, RETENTION ).count(), is( 3L ) );
+	}
+
+	@Test
+	public void testVisitorStops() {
+		final Index index = IndexingFixtures.index( IndexingFixtures.MarkedOne.class, IndexingFixtures.MarkedTwo.class );
+
+		final List<DotName> visited = new ArrayList<>();
+		final boolean completed = IndexStreams.visitKnownClasses(
+				index,
+				classInfo -> {
+					visited.add( classInfo.name() );
+					return false;
+				}
+		);
+
+		assertThat( completed, is( false ) );
+		assertThat( visited.size(), is( 1 ) );
+		assertThat( IndexStreams.visitAnnotations( index, usage -> true, MARKER ), is( true ) );
+	}
+
+	@Test
+	public void testCompositeWalksItsView() {
+		final MutableCompositeIndex compositeIndex = new MutableCompositeIndex();
+		// an addition which must not be loaded while the composite is served from a backend
+		compositeIndex.expand( (IndexView) Proxy.newProxyInstance(
+				IndexStreamsTest.class.getClassLoader(),
+				new Class<?>[] { IndexView.class },
+				(proxy, method, args) -> {
+					throw new AssertionError( "Addition accessed : " + method.getName() );
+				}
+		) );
+		compositeIndex.useBackend( IndexingFixtures.index( IndexingFixtures.MarkedOne.class, IndexingFixtures.Plain.class ) );
+
+		assertThat(
+				IndexStreams.knownClasses( compositeIndex, true ).map( classInfo -> classInfo.name().toString() ).collect( Collectors.toSet() ),
+				is( names( IndexingFixtures.MarkedOne.class, IndexingFixtures.Plain.class ) )
+		);
+		assertThat( IndexStreams.annotations( compositeIndex, false, MARKER ).count(), is( 1L ) );
+	}
+
+	private static Set<String> targetNames(IndexView index, boolean parallel) {
+		return IndexStreams.annotations( index, parallel, MARKER, RETENTION )
+				.map( usage -> usage.target().asClass().name().toString() )
+				.collect( Collectors.toSet() );
+	}
+}
@@ -0,0 +1,87 @@
+package com.github.sebersole.gradle.quarkus;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.github.sebersole.gradle.quarkus.indexing.ExternalArtifactIndexManager;
+import com.github.sebersole.gradle.quarkus.indexing.IndexSummary;
+
+import static com.github.sebersole.gradle.quarkus.IndexingFixtures.dotName;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Tests for writing and reading IndexSummary files
+ */
+public class IndexSummaryTest {
+	private File directory;
+
+	@BeforeEach
+	public void createDirectory() {
+		directory = IndexingFixtures.createTempDirectory();
+	}
+
+	@AfterEach
+	public void deleteDirectory() {
+		IndexingFixtures.deleteRecursively( directory );
+	}
+
+	@Test
+	public void testRoundTrip() {
+		final IndexSummary summary = IndexSummary.from(
+				IndexingFixtures.index( IndexingFixtures.Sub.class, IndexingFixtures.Labelled.class, IndexingFixtures.MarkedOne.class )
+		);
+		final File summaryFile = new File( directory, "artifact.idx.summary" );
+		summary.write( summaryFile );
+
+		final IndexSummary read = IndexSummary.read( summaryFile );
+		assertThat( read.getAnnotationNames(), is( summary.getAnnotationNames() ) );
+		assertThat( read.getInterfaceNames(), is( summary.getInterfaceNames() ) );
+		assertThat( read.getSuperclassNames(), is( summary.getSuperclassNames() ) );
+
+		assertThat( read.containsAnnotation( dotName( IndexingFixtures.Marker.class ) ), is( true ) );
+		assertThat( read.containsImplementor( dotName( IndexingFixtures.LabelledNamed.class ) ), is( true ) );
+		// `Sub` extends `Base`, `Labelled` implements `LabelledNamed` - neither extends `Sub`
+		assertThat( read.containsAnySubtype( Collections.singleton( dotName( IndexingFixtures.Base.class ) ) ), is( true ) );
+		assertThat( read.containsAnySubtype( Collections.singleton( dotName( IndexingFixtures.Sub.class ) ) ), is( false ) );
+	}
+
+	@Test
+	public void testEarlierVersionIgnored() throws IOException {
+		final File summaryFile = new File( directory, "artifact.idx.summary" );
+		Files.write( summaryFile.toPath(), "Ajavax.persistence.Entity\nIjava.io.Serializable\n".getBytes( StandardCharsets.UTF_8 ) );
+
+		assertThat( IndexSummary.read( summaryFile ), nullValue() );
+	}
+
+	@Test
+	public void testWrittenWithIndex() {
+		final File jar = IndexingFixtures.createJar( new File( directory, "lib.jar" ), null, IndexingFixtures.Labelled.class );
+		final File indexFile = new File( directory, "jandex/lib.idx" );
+		new ExternalArtifactIndexManager( jar, indexFile ).resolve();
+		assertThat( IndexSummary.summaryFile( indexFile ).exists(), is( true ) );
+
+		// read from the sidecar, without loading the index
+		final ExternalArtifactIndexManager indexManager = new ExternalArtifactIndexManager( jar, indexFile );
+		final IndexSummary summary = indexManager.getSummary();
+		assertThat( summary, notNullValue() );
+		assertThat( indexManager.getHeldIndex(), nullValue() );
+
+		assertThat( summary.containsImplementor( dotName( IndexingFixtures.LabelledNamed.class ) ), is( true ) );
+		assertThat( summary.containsAnyAnnotation( dotName( IndexingFixtures.Marker.class ) ), is( false ) );
+	}
+
+	@Test
+	public void testMissingSummary() {
+		assertThat( IndexSummary.read( new File( directory, "missing.idx.summary" ) ), nullValue() );
+	}
+}
@@ -0,0 +1,218 @@
+package com.github.sebersole.gradle.quarkus;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import org.jboss.jandex.ClassInfo;
+import org.jboss.jandex.DotName;
+import org.jboss.jandex.Index;
+import org.jboss.jandex.IndexWriter;
+import org.jboss.jandex.Indexer;
+
+import com.github.sebersole.gradle.quarkus.indexing.AbstractIndexManager;
+
+/**
+ * Classes to index in the indexing tests, along with support for indexing them
+ */
+public class IndexingFixtures {
+	@Retention( RetentionPolicy.RUNTIME )
+	public @interface Marker {
+	}
+
+	public interface Named {
+	}
+
+	public interface LabelledNamed extends Named {
+	}
+
+	public static class Base implements Named {
+	}
+
+	public static class Sub extends Base {
+	}
+
+	public static class SubSub extends Sub {
+	}
+
+	public static class Labelled implements LabelledNamed {
+	}
+
+	@Marker
+	public static class MarkedOne {
+	}
+
+	@Marker
+	public static class MarkedTwo {
+	}
+
+	public static class Plain {
+	}
+
+	public static DotName dotName(Class<?> type) {
+		return DotName.createSimple( type.getName() );
+	}
+
+	/**
+	 * Index the given (fixture) classes
+	 */
+	public static Index index(Class<?>... classes) {
+		final Indexer indexer = new Indexer();
+		for ( Class<?> type : classes ) {
+			try ( final InputStream stream = openClassFile( type ) ) {
+				indexer.index( stream );
+			}
+			catch (IOException e) {
+				throw new UncheckedIOException( e );
+			}
+		}
+		return indexer.complete();
+	}
+
+	/**
+	 * The bytes of the class file for the given (fixture) class
+	 */
+	public static byte[] classBytes(Class<?> type) {
+		try ( final InputStream stream = openClassFile( type ) ) {
+			final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			final byte[] buffer = new byte[ 4096 ];
+			int read;
+			while ( ( read = stream.read( buffer ) ) != -1 ) {
+				bytes.write( buffer, 0, read );
+			}
+			return bytes.toByteArray();
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException( e );
+		}
+	}
+
+	private static InputStream openClassFile(Class<?> type) {
+		return IndexingFixtures.class.getResourceAsStream( "/" + type.getName().replace( '.', '/' ) + ".class" );
+	}
+
+	/**
+	 * Copy the class file for the given class into the classes directory
+	 *
+	 * @return The copied class file
+	 */
+	public static File copyClassFile(Class<?> type, File classesDirectory) {
+		final File classFile = new File( classesDirectory, type.getName().replace( '.', File.separatorChar ) + ".class" );
+		try ( final InputStream stream = openClassFile( type ) ) {
+			Files.createDirectories( classFile.getParentFile().toPath() );
+			Files.copy( stream, classFile.toPath(), StandardCopyOption.REPLACE_EXISTING );
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException( e );
+		}
+		return classFile;
+	}
+
+	/**
+	 * Create a jar containing the class files of the given (fixture) classes, plus the embedded
+	 * Jandex index if one is given
+	 */
+	public static File createJar(File jar, Index embeddedIndex, Class<?>... classes) {
+		try ( final JarOutputStream output = new JarOutputStream( new FileOutputStream( jar ) ) ) {
+			for ( Class<?> type : classes ) {
+				output.putNextEntry( new JarEntry( type.getName().replace( '.', '/' ) + ".class" ) );
+				output.write( classBytes( type ) );
+				output.closeEntry();
+			}
+
+			if ( embeddedIndex != null ) {
+				output.putNextEntry( new JarEntry( "META-INF/jandex.idx" ) );
+				new IndexWriter( output ).write( embeddedIndex );
+				output.closeEntry();
+			}
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException( e );
+		}
+		return jar;
+	}
+
+	public static Set<String> classNames(Collection<ClassInfo> classes) {
+		final Set<String> names = new TreeSet<>();
+		classes.forEach( classInfo -> names.add( classInfo.name().toString() ) );
+		return names;
+	}
+
+	public static Set<String> names(Collection<DotName> dotNames) {
+		final Set<String> names = new TreeSet<>();
+		dotNames.forEach( name -> names.add( name.toString() ) );
+		return names;
+	}
+
+	public static Set<String> names(Class<?>... classes) {
+		final Set<String> names = new TreeSet<>();
+		for ( Class<?> type : classes ) {
+			names.add( type.getName() );
+		}
+		return names;
+	}
+
+	public static File createTempDirectory() {
+		try {
+			return Files.createTempDirectory( "quarkus-indexing-test" ).toFile();
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException( e );
+		}
+	}
+
+	public static void deleteRecursively(File file) {
+		final File[] children = file.listFiles();
+		if ( children != null ) {
+			for ( File child : children ) {
+				deleteRecursively( child );
+			}
+		}
+		//noinspection ResultOfMethodCallIgnored
+		file.delete();
+	}
+
+	/**
+	 * IndexManager over a given index, written to its index file (and summary) like the real ones
+	 */
+	public static class TestIndexManager extends AbstractIndexManager {
+		private Index index;
+
+		public TestIndexManager(File indexFile, Index index) {
+			super( indexFile );
+			this.index = index;
+			generateIndex();
+		}
+
+		/**
+		 * Replace the index, as if the artifact changed and was indexed again
+		 */
+		public void regenerate(Index index) {
+			this.index = index;
+			generateIndex();
+		}
+
+		@Override
+		public Index generateIndex() {
+			writeIndex( index );
+			return registerResolved( index );
+		}
+
+		@Override
+		public Index readIndex() {
+			return loadOrRegenerateIndex();
+		}
+	}
+}
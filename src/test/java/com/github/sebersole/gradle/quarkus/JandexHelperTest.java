@@ -0,0 +1,94 @@
+package com.github.sebersole.gradle.quarkus;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+
+import org.jboss.jandex.Index;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.github.sebersole.gradle.quarkus.indexing.JandexHelper;
+
+import static com.github.sebersole.gradle.quarkus.IndexingFixtures.classNames;
+import static com.github.sebersole.gradle.quarkus.IndexingFixtures.names;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Tests for resolving the index of an archive through JandexHelper
+ */
+public class JandexHelperTest {
+	private File directory;
+
+	@BeforeEach
+	public void createDirectory() {
+		directory = IndexingFixtures.createTempDirectory();
+	}
+
+	@AfterEach
+	public void deleteDirectory() {
+		IndexingFixtures.deleteRecursively( directory );
+	}
+
+	@Test
+	public void testEmbeddedIndexUsed() throws IOException {
+		final File jar = IndexingFixtures.createJar(
+				new File( directory, "embedded.jar" ),
+				IndexingFixtures.index( IndexingFixtures.MarkedOne.class ),
+				IndexingFixtures.MarkedOne.class,
+				IndexingFixtures.Plain.class
+		);
+
+		assertThat( classNames( resolve( jar ).getKnownClasses() ), is( names( IndexingFixtures.MarkedOne.class ) ) );
+	}
+
+	@Test
+	public void testGarbageEmbeddedIndexFallsBackToClasses() throws IOException {
+		final File jar = createJarWithEmbeddedIndex( new File( directory, "garbage.jar" ), new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 } );
+
+		assertThat(
+				classNames( resolve( jar ).getKnownClasses() ),
+				is( names( IndexingFixtures.MarkedOne.class, IndexingFixtures.Plain.class ) )
+		);
+	}
+
+	@Test
+	public void testUnsupportedEmbeddedIndexVersionFallsBackToClasses() throws IOException {
+		// the Jandex magic, followed by a version this Jandex does not know
+		final File jar = createJarWithEmbeddedIndex( new File( directory, "unsupported.jar" ), new byte[] { (byte) 0xBA, (byte) 0xBE, 0x1F, 0x15, 99 } );
+
+		assertThat(
+				classNames( resolve( jar ).getKnownClasses() ),
+				is( names( IndexingFixtures.MarkedOne.class, IndexingFixtures.Plain.class ) )
+		);
+	}
+
+	private static Index resolve(File jar) throws IOException {
+		try ( final JarFile jarFile = new JarFile( jar ) ) {
+			return JandexHelper.resolveIndexFromArchive( jarFile, jar );
+		}
+	}
+
+	private static File createJarWithEmbeddedIndex(File jar, byte[] embeddedIndexBytes) throws IOException {
+		try ( final OutputStream fileStream = Files.newOutputStream( jar.toPath() );
+				final JarOutputStream jarStream = new JarOutputStream( fileStream ) ) {
+			for ( Class<?> type : new Class<?>[] { IndexingFixtures.MarkedOne.class, IndexingFixtures.Plain.class } ) {
+				jarStream.putNextEntry( new JarEntry( type.getName().replace( '.', '/' ) + ".class" ) );
+				jarStream.write( IndexingFixtures.classBytes( type ) );
+				jarStream.closeEntry();
+			}
+
+			jarStream.putNextEntry( new JarEntry( Helper.JANDEX_INDEX_FILE_PATH ) );
+			jarStream.write( embeddedIndexBytes );
+			jarStream.closeEntry();
+		}
+		return jar;
+	}
+}
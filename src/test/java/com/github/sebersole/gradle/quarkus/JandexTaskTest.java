@@ -0,0 +1,44 @@
+package com.github.sebersole.gradle.quarkus;
+
+import java.lang.reflect.Method;
+
+import org.gradle.api.tasks.CacheableTask;
+import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.sebersole.gradle.quarkus.task.JandexTask;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Tests that the inputs of JandexTask are declared so that its outputs can be restored from the
+ * build cache by a checkout in another location (or with another Gradle user home)
+ */
+public class JandexTaskTest {
+	@Test
+	public void testCacheable() {
+		assertThat( JandexTask.class.getAnnotation( CacheableTask.class ), notNullValue() );
+	}
+
+	@Test
+	public void testExternalArtifactsFingerprintedByContents() throws NoSuchMethodException {
+		assertPathSensitivity( "getIndexedExternalArtifacts", PathSensitivity.NONE );
+		assertPathSensitivity( "getTransformedExternalIndexes", PathSensitivity.NAME_ONLY );
+	}
+
+	@Test
+	public void testProjectOutputFingerprintedRelatively() throws NoSuchMethodException {
+		assertPathSensitivity( "getIndexedProjectOutput", PathSensitivity.RELATIVE );
+	}
+
+	private static void assertPathSensitivity(String getterName, PathSensitivity expected) throws NoSuchMethodException {
+		final Method getter = JandexTask.class.getMethod( getterName );
+		assertThat( getter.getAnnotation( InputFiles.class ), notNullValue() );
+		assertThat( getter.getAnnotation( PathSensitive.class ).value(), is( expected ) );
+	}
+}
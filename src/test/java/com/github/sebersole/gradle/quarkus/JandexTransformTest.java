@@ -0,0 +1,140 @@
+package com.github.sebersole.gradle.quarkus;
+
+import java.io.File;
+
+import org.gradle.api.Project;
+import org.gradle.api.artifacts.transform.TransformOutputs;
+import org.gradle.api.file.FileSystemLocation;
+import org.gradle.api.provider.Provider;
+import org.gradle.testfixtures.ProjectBuilder;
+
+import org.jboss.jandex.Index;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.github.sebersole.gradle.quarkus.indexing.IndexFiles;
+import com.github.sebersole.gradle.quarkus.indexing.IndexProfile;
+import com.github.sebersole.gradle.quarkus.indexing.IndexSummary;
+import com.github.sebersole.gradle.quarkus.indexing.JandexTransform;
+
+import static com.github.sebersole.gradle.quarkus.IndexingFixtures.classNames;
+import static com.github.sebersole.gradle.quarkus.IndexingFixtures.dotName;
+import static com.github.sebersole.gradle.quarkus.IndexingFixtures.names;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Tests for indexing jars through JandexTransform
+ */
+public class JandexTransformTest {
+	private File directory;
+	private File outputDirectory;
+	private Project project;
+
+	@BeforeEach
+	public void createProject() {
+		directory = IndexingFixtures.createTempDirectory();
+		outputDirectory = new File( directory, "transformed" );
+		project = ProjectBuilder.builder().withProjectDir( new File( directory, "project" ) ).build();
+	}
+
+	@AfterEach
+	public void deleteProject() {
+		IndexingFixtures.deleteRecursively( directory );
+	}
+
+	@Test
+	public void testIndexNamedAfterArtifactFile() throws Exception {
+		// the classified artifact of a module, next to its main artifact
+		final File jar = IndexingFixtures.createJar(
+				new File( directory, "lib-1.0-tests.jar" ),
+				null,
+				IndexingFixtures.MarkedOne.class,
+				IndexingFixtures.Plain.class
+		);
+
+		transform( jar );
+
+		final File indexFile = new File( outputDirectory, "lib-1.0-tests.jar" + JandexTransform.INDEX_FILE_SUFFIX );
+		assertThat( indexFile.exists(), is( true ) );
+		assertThat( JandexTransform.artifactFileName( indexFile ), is( jar.getName() ) );
+
+		final Index index = IndexFiles.read( indexFile );
+		assertThat( classNames( index.getKnownClasses() ), is( names( IndexingFixtures.MarkedOne.class, IndexingFixtures.Plain.class ) ) );
+
+		final IndexSummary summary = IndexSummary.read( IndexSummary.summaryFile( indexFile ) );
+		assertThat( summary.containsAnnotation( dotName( IndexingFixtures.Marker.class ) ), is( true ) );
+	}
+
+	@Test
+	public void testEmbeddedIndexCopied() throws Exception {
+		final Index embedded = IndexingFixtures.index( IndexingFixtures.MarkedTwo.class );
+		final File jar = IndexingFixtures.createJar(
+				new File( directory, "lib-1.0.jar" ),
+				embedded,
+				IndexingFixtures.MarkedTwo.class,
+				IndexingFixtures.Plain.class
+		);
+
+		transform( jar );
+
+		// the embedded index is used as-is, rather than indexing the jar's classes
+		final Index index = IndexFiles.read( new File( outputDirectory, "lib-1.0.jar" + JandexTransform.INDEX_FILE_SUFFIX ) );
+		assertThat( classNames( index.getKnownClasses() ), is( names( IndexingFixtures.MarkedTwo.class ) ) );
+	}
+
+	private void transform(File jar) {
+		final JandexTransform.Parameters parameters = project.getObjects().newInstance( JandexTransform.Parameters.class );
+		parameters.getSparseIndexing().set( false );
+		parameters.getCompressIndexes().set( false );
+		parameters.getIndexProfile().set( IndexProfile.FULL.name() );
+		parameters.getIndexingThreads().set( 1 );
+		parameters.getIndexingQueueDepth().set( 1 );
+
+		final Provider<FileSystemLocation> inputArtifact = project.getLayout()
+				.file( project.provider( () -> jar ) )
+				.map( file -> file );
+
+		final JandexTransform transform = new JandexTransform() {
+			@Override
+			public Parameters getParameters() {
+				return parameters;
+			}
+
+			@Override
+			public Provider<FileSystemLocation> getInputArtifact() {
+				return inputArtifact;
+			}
+		};
+
+		transform.transform( new DirectoryTransformOutputs( outputDirectory ) );
+	}
+
+	/**
+	 * TransformOutputs registering the outputs in a directory
+	 */
+	private static class DirectoryTransformOutputs implements TransformOutputs {
+		private final File directory;
+
+		private DirectoryTransformOutputs(File directory) {
+			this.directory = directory;
+			//noinspection ResultOfMethodCallIgnored
+			directory.mkdirs();
+		}
+
+		@Override
+		public File dir(Object path) {
+			final File dir = new File( directory, path.toString() );
+			//noinspection ResultOfMethodCallIgnored
+			dir.mkdirs();
+			return dir;
+		}
+
+		@Override
+		public File file(Object path) {
+			return new File( directory, path.toString() );
+		}
+	}
+}
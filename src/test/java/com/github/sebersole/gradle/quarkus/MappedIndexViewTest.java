@@ -0,0 +1,205 @@
+package com.github.sebersole.gradle.quarkus;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jboss.jandex.AnnotationInstance;
+import org.jboss.jandex.ClassInfo;
+import org.jboss.jandex.DotName;
+import org.jboss.jandex.Index;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.github.sebersole.gradle.quarkus.IndexingFixtures.TestIndexManager;
+import com.github.sebersole.gradle.quarkus.indexing.CompositeTables;
+import com.github.sebersole.gradle.quarkus.indexing.MappedIndexView;
+import com.github.sebersole.gradle.quarkus.indexing.MutableCompositeIndex;
+
+import static com.github.sebersole.gradle.quarkus.IndexingFixtures.classNames;
+import static com.github.sebersole.gradle.quarkus.IndexingFixtures.dotName;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests that MappedIndexView answers queries the same as the flattened composite index
+ */
+public class MappedIndexViewTest {
+	private File directory;
+	private TestIndexManager first;
+	private TestIndexManager second;
+	private List<TestIndexManager> indexManagers;
+	private AtomicInteger contributorAccesses;
+
+	@BeforeEach
+	public void createIndexes() {
+		directory = IndexingFixtures.createTempDirectory();
+
+		first = new TestIndexManager(
+				new File( directory, "first.idx" ),
+				IndexingFixtures.index(
+						IndexingFixtures.Named.class,
+						IndexingFixtures.LabelledNamed.class,
+						IndexingFixtures.Base.class,
+						IndexingFixtures.Sub.class,
+						IndexingFixtures.MarkedOne.class
+				)
+		);
+		second = new TestIndexManager(
+				new File( directory, "second.idx" ),
+				IndexingFixtures.index(
+						IndexingFixtures.Marker.class,
+						IndexingFixtures.SubSub.class,
+						IndexingFixtures.Labelled.class,
+						IndexingFixtures.MarkedTwo.class,
+						IndexingFixtures.Plain.class
+				)
+		);
+		indexManagers = Arrays.asList( first, second );
+		contributorAccesses = new AtomicInteger();
+	}
+
+	@AfterEach
+	public void deleteIndexes() {
+		IndexingFixtures.deleteRecursively( directory );
+	}
+
+	private MappedIndexView openTables() {
+		final CompositeTables compositeTables = new CompositeTables( directory );
+		compositeTables.write( indexManagers );
+		assertThat( compositeTables.isCurrent( indexManagers ), is( true ) );
+
+		final MappedIndexView view = compositeTables.open(
+				indexFileName -> {
+					contributorAccesses.incrementAndGet();
+					for ( TestIndexManager indexManager : indexManagers ) {
+						if ( indexManager.getIndexFile().getName().equals( indexFileName ) ) {
+							return indexManager.getIndex();
+						}
+					}
+					return null;
+				}
+		);
+		assertThat( view, notNullValue() );
+		return view;
+	}
+
+	@Test
+	public void testParityWithFlattenedIndex() {
+		final MutableCompositeIndex compositeIndex = new MutableCompositeIndex();
+		indexManagers.forEach( compositeIndex::expand );
+		final Index flattened = compositeIndex.flattened();
+
+		final MappedIndexView view = openTables();
+
+		assertThat( classNames( view.getKnownClasses() ), is( classNames( flattened.getKnownClasses() ) ) );
+		assertThat( view.getKnownClasses().size(), is( flattened.getKnownClasses().size() ) );
+
+		for ( ClassInfo classInfo : flattened.getKnownClasses() ) {
+			final ClassInfo mapped = view.getClassByName( classInfo.name() );
+			assertThat( mapped, notNullValue() );
+			assertThat( mapped.name().toString(), is( classInfo.name().toString() ) );
+		}
+		assertThat( view.getClassByName( DotName.createSimple( "com.acme.DoesNotExist" ) ), nullValue() );
+
+		final List<Class<?>> types = Arrays.asList(
+				Object.class,
+				IndexingFixtures.Named.class,
+				IndexingFixtures.LabelledNamed.class,
+				IndexingFixtures.Base.class,
+				IndexingFixtures.Sub.class,
+				IndexingFixtures.Plain.class
+		);
+		for ( Class<?> type : types ) {
+			final DotName name = dotName( type );
+			assertThat( classNames( view.getKnownDirectSubclasses( name ) ), is( classNames( flattened.getKnownDirectSubclasses( name ) ) ) );
+			assertThat( classNames( view.getAllKnownSubclasses( name ) ), is( classNames( flattened.getAllKnownSubclasses( name ) ) ) );
+			assertThat( classNames( view.getKnownDirectImplementors( name ) ), is( classNames( flattened.getKnownDirectImplementors( name ) ) ) );
+			assertThat( classNames( view.getAllKnownImplementors( name ) ), is( classNames( flattened.getAllKnownImplementors( name ) ) ) );
+		}
+
+		// the hierarchy is described from the tables
+		for ( ClassInfo classInfo : view.getAllKnownImplementors( dotName( IndexingFixtures.Named.class ) ) ) {
+			final ClassInfo flattenedClassInfo = flattened.getClassByName( classInfo.name() );
+			assertThat( classInfo.flags(), is( flattenedClassInfo.flags() ) );
+			assertThat( classInfo.superName(), is( flattenedClassInfo.superName() ) );
+			assertThat( classInfo.interfaceNames(), is( flattenedClassInfo.interfaceNames() ) );
+			assertThat( classInfo.hasNoArgsConstructor(), is( flattenedClassInfo.hasNoArgsConstructor() ) );
+		}
+
+		final DotName marker = dotName( IndexingFixtures.Marker.class );
+		assertThat( targetNames( view.getAnnotations( marker ) ), is( targetNames( flattened.getAnnotations( marker ) ) ) );
+		assertThat( targetNames( view.getAnnotations( marker ) ).size(), is( 2 ) );
+	}
+
+	@Test
+	public void testHierarchyQueriesLeaveContributorsUnloaded() {
+		final MappedIndexView view = openTables();
+
+		assertThat( view.getAllKnownImplementors( dotName( IndexingFixtures.Named.class ) ).size(), is( 4 ) );
+		assertThat( view.getAllKnownSubclasses( dotName( IndexingFixtures.Base.class ) ).size(), is( 2 ) );
+		assertThat( view.getKnownDirectImplementors( dotName( IndexingFixtures.LabelledNamed.class ) ).size(), is( 1 ) );
+		assertThat( contributorAccesses.get(), is( 0 ) );
+
+		// whereas annotations need the contributing index
+		assertThat( view.getAnnotations( dotName( IndexingFixtures.Marker.class ) ).size(), is( 2 ) );
+		assertThat( contributorAccesses.get(), greaterThan( 0 ) );
+	}
+
+	@Test
+	public void testWriteReadsUnheldContributors() {
+		final CompositeTables compositeTables = new CompositeTables( directory );
+
+		// contributors whose index is not held (any more) are read just for writing the tables
+		final TestIndexManager unheld = new TestIndexManager( first.getIndexFile(), first.getIndex() ) {
+			@Override
+			public Index getHeldIndex() {
+				return null;
+			}
+
+			@Override
+			public synchronized Index getIndex() {
+				throw new AssertionError( "Contributor index loaded and held" );
+			}
+		};
+		compositeTables.write( Arrays.asList( unheld, second ) );
+
+		final MappedIndexView view = compositeTables.open( indexFileName -> null );
+		assertThat( view.getKnownDirectSubclasses( dotName( IndexingFixtures.Base.class ) ).size(), is( 1 ) );
+	}
+
+	@Test
+	public void testClosedView() {
+		final MappedIndexView view = openTables();
+		view.close();
+
+		assertThrows( IllegalStateException.class, () -> view.getClassByName( dotName( IndexingFixtures.Base.class ) ) );
+	}
+
+	@Test
+	public void testStaleTablesFailLoudly() {
+		final MappedIndexView view = openTables();
+
+		// the tables still list SubSub
+		second.regenerate( IndexingFixtures.index( IndexingFixtures.Marker.class, IndexingFixtures.Plain.class ) );
+
+		final Collection<ClassInfo> knownClasses = view.getKnownClasses();
+		assertThrows( IllegalStateException.class, () -> knownClasses.forEach( classInfo -> {} ) );
+	}
+
+	private static Set<String> targetNames(Collection<AnnotationInstance> annotations) {
+		final Set<String> names = new TreeSet<>();
+		annotations.forEach( annotation -> names.add( annotation.target().asClass().name().toString() ) );
+		return names;
+	}
+}
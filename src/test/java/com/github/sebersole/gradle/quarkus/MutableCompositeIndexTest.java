@@ -0,0 +1,88 @@
+package com.github.sebersole.gradle.quarkus;
+
+import java.io.File;
+
+import org.jboss.jandex.Index;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.sebersole.gradle.quarkus.IndexingFixtures.TestIndexManager;
+import com.github.sebersole.gradle.quarkus.indexing.MutableCompositeIndex;
+
+import static com.github.sebersole.gradle.quarkus.IndexingFixtures.classNames;
+import static com.github.sebersole.gradle.quarkus.IndexingFixtures.dotName;
+import static com.github.sebersole.gradle.quarkus.IndexingFixtures.names;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Tests for the flattened lookups of MutableCompositeIndex
+ */
+public class MutableCompositeIndexTest {
+	@Test
+	public void testFlattenedLookups() {
+		final MutableCompositeIndex compositeIndex = new MutableCompositeIndex();
+		compositeIndex.expand( IndexingFixtures.index( IndexingFixtures.Base.class, IndexingFixtures.MarkedOne.class ) );
+		compositeIndex.expand( IndexingFixtures.index( IndexingFixtures.Sub.class, IndexingFixtures.MarkedTwo.class ) );
+
+		assertThat(
+				classNames( compositeIndex.getKnownClasses() ),
+				is(
+						names(
+								IndexingFixtures.Base.class,
+								IndexingFixtures.Sub.class,
+								IndexingFixtures.MarkedOne.class,
+								IndexingFixtures.MarkedTwo.class
+						)
+				)
+		);
+		// hierarchy and annotation tables span the additions
+		assertThat(
+				classNames( compositeIndex.getKnownDirectSubclasses( dotName( IndexingFixtures.Base.class ) ) ),
+				is( names( IndexingFixtures.Sub.class ) )
+		);
+		assertThat( compositeIndex.getAnnotations( dotName( IndexingFixtures.Marker.class ) ).size(), is( 2 ) );
+	}
+
+	@Test
+	public void testFirstDefinitionWins() {
+		final Index first = IndexingFixtures.index( IndexingFixtures.Base.class, IndexingFixtures.Sub.class );
+		final Index second = IndexingFixtures.index( IndexingFixtures.Sub.class );
+
+		final MutableCompositeIndex compositeIndex = new MutableCompositeIndex();
+		compositeIndex.expand( first );
+		compositeIndex.expand( second );
+
+		final Index flattened = compositeIndex.flattened();
+		assertThat(
+				flattened.getClassByName( dotName( IndexingFixtures.Sub.class ) ),
+				sameInstance( first.getClassByName( dotName( IndexingFixtures.Sub.class ) ) )
+		);
+		// the duplicate is not listed twice
+		assertThat( flattened.getKnownDirectSubclasses( dotName( IndexingFixtures.Base.class ) ).size(), is( 1 ) );
+		assertThat( flattened.getKnownClasses().size(), is( 2 ) );
+	}
+
+	@Test
+	public void testReExpansionReplacesAddition() {
+		final File directory = IndexingFixtures.createTempDirectory();
+		try {
+			final TestIndexManager indexManager = new TestIndexManager(
+					new File( directory, "artifact.idx" ),
+					IndexingFixtures.index( IndexingFixtures.MarkedOne.class )
+			);
+
+			final MutableCompositeIndex compositeIndex = new MutableCompositeIndex();
+			compositeIndex.expand( indexManager );
+			assertThat( classNames( compositeIndex.getKnownClasses() ), is( names( IndexingFixtures.MarkedOne.class ) ) );
+
+			indexManager.regenerate( IndexingFixtures.index( IndexingFixtures.MarkedTwo.class ) );
+			compositeIndex.expand( indexManager );
+			assertThat( classNames( compositeIndex.getKnownClasses() ), is( names( IndexingFixtures.MarkedTwo.class ) ) );
+		}
+		finally {
+			IndexingFixtures.deleteRecursively( directory );
+		}
+	}
+}
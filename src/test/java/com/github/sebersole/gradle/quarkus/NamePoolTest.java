@@ -0,0 +1,58 @@
+package com.github.sebersole.gradle.quarkus;
+
+import org.jboss.jandex.DotName;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.github.sebersole.gradle.quarkus.indexing.NamePool;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Tests for the build-wide NamePool
+ */
+public class NamePoolTest {
+	@BeforeEach
+	@AfterEach
+	public void clearPool() {
+		NamePool.clear();
+	}
+
+	@Test
+	public void testEqualStringsPooled() {
+		final String first = NamePool.intern( new String( "javax.inject.Inject" ) );
+		final String second = NamePool.intern( new String( "javax.inject.Inject" ) );
+
+		assertThat( second, sameInstance( first ) );
+		assertThat( NamePool.getLookupCount(), is( 2L ) );
+		assertThat( NamePool.getHitCount(), is( 1L ) );
+	}
+
+	@Test
+	public void testDotNamesPooled() {
+		final DotName first = NamePool.dotName( "org.acme.Entity" );
+		final DotName second = NamePool.dotName( new String( "org.acme.Entity" ) );
+
+		assertThat( second, sameInstance( first ) );
+		assertThat( first, is( DotName.createSimple( "org.acme.Entity" ) ) );
+		// the DotName's string is pooled as well
+		assertThat( first.toString(), sameInstance( NamePool.intern( new String( "org.acme.Entity" ) ) ) );
+	}
+
+	@Test
+	public void testClearReleasesNamesAndStatistics() {
+		NamePool.intern( "org.acme.Entity" );
+		NamePool.dotName( "org.acme.Entity" );
+
+		NamePool.clear();
+
+		assertThat( NamePool.size(), is( 0 ) );
+		assertThat( NamePool.getLookupCount(), is( 0L ) );
+		assertThat( NamePool.getHitCount(), is( 0L ) );
+		assertThat( NamePool.getBytesSaved(), is( 0L ) );
+	}
+}
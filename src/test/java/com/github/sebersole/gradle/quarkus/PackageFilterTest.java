@@ -0,0 +1,62 @@
+package com.github.sebersole.gradle.quarkus;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.sebersole.gradle.quarkus.indexing.PackageFilter;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Tests for the package filter used for sparse indexing
+ */
+public class PackageFilterTest {
+	@Test
+	public void testIncludesAndExcludes() {
+		final PackageFilter filter = new PackageFilter(
+				Arrays.asList( "org.acme", "com.example.*" ),
+				Collections.singletonList( "org.acme.internal" )
+		);
+
+		assertThat( filter.acceptsEntry( "org/acme/Entity.class" ), is( true ) );
+		assertThat( filter.acceptsEntry( "org/acme/model/Entity.class" ), is( true ) );
+		assertThat( filter.acceptsEntry( "com/example/Entity.class" ), is( true ) );
+		// sub-packages only, not packages sharing the prefix
+		assertThat( filter.acceptsEntry( "org/acmex/Entity.class" ), is( false ) );
+		assertThat( filter.acceptsEntry( "org/acme/internal/Impl.class" ), is( false ) );
+		assertThat( filter.acceptsEntry( "Default.class" ), is( false ) );
+	}
+
+	@Test
+	public void testNoIncludesAcceptsAllButExcludes() {
+		final PackageFilter filter = new PackageFilter( Collections.emptyList(), Collections.singletonList( "org.acme.internal" ) );
+
+		assertThat( filter.acceptsPackage( "" ), is( true ) );
+		assertThat( filter.acceptsPackage( "org.acme" ), is( true ) );
+		assertThat( filter.acceptsPackage( "org.acme.internal.impl" ), is( false ) );
+	}
+
+	@Test
+	public void testKeyIgnoresPatternOrder() {
+		final PackageFilter filter = new PackageFilter( Arrays.asList( "org.acme", "com.example" ), Collections.emptyList() );
+		final PackageFilter reordered = new PackageFilter( Arrays.asList( "com.example.*", " org.acme " ), Collections.emptyList() );
+
+		assertThat( reordered.getKey(), is( filter.getKey() ) );
+		assertThat( reordered.getKeyHash(), is( filter.getKeyHash() ) );
+	}
+
+	@Test
+	public void testKeyHashDistinguishesStringHashCollisions() {
+		// "Aa" and "BB" have the same String#hashCode
+		final PackageFilter first = new PackageFilter( Collections.singletonList( "Aa" ), Collections.emptyList() );
+		final PackageFilter second = new PackageFilter( Collections.singletonList( "BB" ), Collections.emptyList() );
+		assertThat( first.getKey().hashCode(), is( second.getKey().hashCode() ) );
+
+		assertThat( first.getKeyHash(), not( second.getKeyHash() ) );
+		assertThat( first.getKeyHash().matches( "[0-9a-f]{64}" ), is( true ) );
+	}
+}
@@ -0,0 +1,105 @@
+package com.github.sebersole.gradle.quarkus;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jboss.jandex.Index;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.github.sebersole.gradle.quarkus.indexing.IndexFiles;
+import com.github.sebersole.gradle.quarkus.indexing.ParsedIndexCache;
+
+import static com.github.sebersole.gradle.quarkus.IndexingFixtures.classNames;
+import static com.github.sebersole.gradle.quarkus.IndexingFixtures.names;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Tests for the daemon-lifetime cache of parsed index files
+ */
+public class ParsedIndexCacheTest {
+	private File directory;
+	private final AtomicInteger reads = new AtomicInteger();
+
+	@BeforeEach
+	public void createDirectory() {
+		directory = IndexingFixtures.createTempDirectory();
+		// other tests use the cache as well
+		ParsedIndexCache.logAndResetStatistics();
+	}
+
+	@AfterEach
+	public void deleteDirectory() {
+		IndexingFixtures.deleteRecursively( directory );
+	}
+
+	private Index read(File indexFile) {
+		return ParsedIndexCache.read(
+				indexFile,
+				file -> {
+					reads.incrementAndGet();
+					try {
+						return IndexFiles.read( file );
+					}
+					catch (IOException e) {
+						throw new UncheckedIOException( e );
+					}
+				}
+		);
+	}
+
+	@Test
+	public void testUnchangedFileServedFromCache() throws IOException {
+		final File indexFile = new File( directory, "artifact.idx" );
+		IndexFiles.write( indexFile, IndexingFixtures.index( IndexingFixtures.Base.class ), false );
+
+		final Index first = read( indexFile );
+		final Index second = read( indexFile );
+
+		assertThat( second, sameInstance( first ) );
+		assertThat( reads.get(), is( 1 ) );
+
+		final ParsedIndexCache.Statistics statistics = ParsedIndexCache.getStatistics();
+		assertThat( statistics.getHits(), is( 1 ) );
+		assertThat( statistics.getMisses(), is( 1 ) );
+	}
+
+	@Test
+	public void testRewrittenFileReadAgain() throws IOException {
+		final File indexFile = new File( directory, "artifact.idx" );
+		IndexFiles.write( indexFile, IndexingFixtures.index( IndexingFixtures.Base.class ), false );
+		read( indexFile );
+
+		// re-written within the timestamp granularity
+		IndexFiles.write( indexFile, IndexingFixtures.index( IndexingFixtures.Sub.class ), false );
+		//noinspection ResultOfMethodCallIgnored
+		indexFile.setLastModified( indexFile.lastModified() );
+
+		assertThat( classNames( read( indexFile ).getKnownClasses() ), is( names( IndexingFixtures.Sub.class ) ) );
+		assertThat( reads.get(), is( 2 ) );
+	}
+
+	@Test
+	public void testStatisticsResetPerBuild() throws IOException {
+		final File indexFile = new File( directory, "artifact.idx" );
+		IndexFiles.write( indexFile, IndexingFixtures.index( IndexingFixtures.Base.class ), false );
+		read( indexFile );
+		read( indexFile );
+
+		final ParsedIndexCache.Statistics lastBuild = ParsedIndexCache.logAndResetStatistics();
+		assertThat( lastBuild.getHits(), is( 1 ) );
+		assertThat( lastBuild.getMisses(), is( 1 ) );
+
+		// the next build starts counting afresh, but still finds the parsed index
+		assertThat( ParsedIndexCache.getStatistics().getHits(), is( 0 ) );
+		read( indexFile );
+		assertThat( ParsedIndexCache.getStatistics().getHits(), is( 1 ) );
+		assertThat( reads.get(), is( 1 ) );
+	}
+}
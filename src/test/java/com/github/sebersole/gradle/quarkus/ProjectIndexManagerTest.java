@@ -0,0 +1,105 @@
+package com.github.sebersole.gradle.quarkus;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.gradle.api.Project;
+import org.gradle.api.plugins.JavaPlugin;
+import org.gradle.api.tasks.SourceSet;
+import org.gradle.api.tasks.SourceSetContainer;
+import org.gradle.testfixtures.ProjectBuilder;
+
+import org.jboss.jandex.Index;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.github.sebersole.gradle.quarkus.indexing.ClassIndexingPipeline;
+import com.github.sebersole.gradle.quarkus.indexing.IndexFiles;
+import com.github.sebersole.gradle.quarkus.indexing.ProjectIndexManager;
+
+import static com.github.sebersole.gradle.quarkus.IndexingFixtures.classNames;
+import static com.github.sebersole.gradle.quarkus.IndexingFixtures.names;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Tests for incrementally updating the index of a project
+ */
+public class ProjectIndexManagerTest {
+	private File projectDirectory;
+	private SourceSet mainSourceSet;
+	private File classesDirectory;
+	private File indexFile;
+
+	@BeforeEach
+	public void createProject() {
+		projectDirectory = IndexingFixtures.createTempDirectory();
+
+		final Project project = ProjectBuilder.builder().withProjectDir( projectDirectory ).build();
+		project.getPlugins().apply( JavaPlugin.class );
+
+		mainSourceSet = project.getExtensions().getByType( SourceSetContainer.class )
+				.getByName( SourceSet.MAIN_SOURCE_SET_NAME );
+		classesDirectory = mainSourceSet.getOutput().getClassesDirs().getFiles().iterator().next();
+		indexFile = new File( projectDirectory, "build/jandex/project.idx" );
+	}
+
+	@AfterEach
+	public void deleteProject() {
+		IndexingFixtures.deleteRecursively( projectDirectory );
+	}
+
+	private ProjectIndexManager createIndexManager() {
+		return new ProjectIndexManager( mainSourceSet, indexFile, ClassIndexingPipeline.SEQUENTIAL );
+	}
+
+	@Test
+	public void testUpdateWithChangedAndRemovedClasses() throws IOException {
+		IndexingFixtures.copyClassFile( IndexingFixtures.Base.class, classesDirectory );
+		final File subClassFile = IndexingFixtures.copyClassFile( IndexingFixtures.Sub.class, classesDirectory );
+		final File markedClassFile = IndexingFixtures.copyClassFile( IndexingFixtures.MarkedOne.class, classesDirectory );
+
+		final Index fullIndex = createIndexManager().generateIndex();
+		assertThat(
+				classNames( fullIndex.getKnownClasses() ),
+				is( names( IndexingFixtures.Base.class, IndexingFixtures.Sub.class, IndexingFixtures.MarkedOne.class ) )
+		);
+
+		// a new build: one class removed, one class added and one class re-compiled
+		//noinspection ResultOfMethodCallIgnored
+		subClassFile.delete();
+		final File plainClassFile = IndexingFixtures.copyClassFile( IndexingFixtures.Plain.class, classesDirectory );
+
+		final Index updated = createIndexManager().updateIndex(
+				Arrays.asList( plainClassFile, markedClassFile ),
+				Collections.singletonList( subClassFile )
+		);
+
+		assertThat(
+				classNames( updated.getKnownClasses() ),
+				is( names( IndexingFixtures.Base.class, IndexingFixtures.MarkedOne.class, IndexingFixtures.Plain.class ) )
+		);
+		assertThat( updated.getKnownDirectSubclasses( IndexingFixtures.dotName( IndexingFixtures.Base.class ) ).isEmpty(), is( true ) );
+		assertThat(
+				updated.getAnnotations( IndexingFixtures.dotName( IndexingFixtures.Marker.class ) ).size(),
+				is( 1 )
+		);
+
+		// the updated index was written
+		assertThat( classNames( IndexFiles.read( indexFile ).getKnownClasses() ), is( classNames( updated.getKnownClasses() ) ) );
+	}
+
+	@Test
+	public void testUpdateWithoutPreviousIndex() {
+		IndexingFixtures.copyClassFile( IndexingFixtures.Base.class, classesDirectory );
+		final File subClassFile = IndexingFixtures.copyClassFile( IndexingFixtures.Sub.class, classesDirectory );
+
+		// falls back to indexing the whole project
+		final Index index = createIndexManager().updateIndex( Collections.singletonList( subClassFile ), Collections.emptyList() );
+		assertThat( classNames( index.getKnownClasses() ), is( names( IndexingFixtures.Base.class, IndexingFixtures.Sub.class ) ) );
+	}
+}
@@ -0,0 +1,127 @@
+package com.github.sebersole.gradle.quarkus;
+
+import java.io.File;
+
+import org.gradle.api.Project;
+import org.gradle.api.provider.Provider;
+import org.gradle.testfixtures.ProjectBuilder;
+
+import org.jboss.jandex.Index;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.github.sebersole.gradle.quarkus.dsl.IndexingConfig;
+import com.github.sebersole.gradle.quarkus.indexing.ClassIndexingPipeline;
+import com.github.sebersole.gradle.quarkus.indexing.ExternalArtifactIndexManager;
+import com.github.sebersole.gradle.quarkus.indexing.IndexProfile;
+import com.github.sebersole.gradle.quarkus.indexing.SharedIndexRegistry;
+
+import static com.github.sebersole.gradle.quarkus.IndexingFixtures.classNames;
+import static com.github.sebersole.gradle.quarkus.IndexingFixtures.names;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Tests for sharing the indexes of external artifacts between projects through the SharedIndexRegistry
+ */
+public class SharedIndexRegistryTest {
+	private File directory;
+	private Provider<SharedIndexRegistry> registryProvider;
+
+	@BeforeEach
+	public void createRegistry() {
+		directory = IndexingFixtures.createTempDirectory();
+
+		final Project project = ProjectBuilder.builder().withProjectDir( new File( directory, "project" ) ).build();
+		registryProvider = SharedIndexRegistry.register( project, project.provider( IndexingConfig::new ) );
+	}
+
+	@AfterEach
+	public void deleteDirectory() {
+		registryProvider.get().close();
+		IndexingFixtures.deleteRecursively( directory );
+	}
+
+	@Test
+	public void testCanonicalize() {
+		final File jar = IndexingFixtures.createJar( new File( directory, "lib.jar" ), null, IndexingFixtures.MarkedOne.class );
+		final SharedIndexRegistry registry = registryProvider.get();
+		final SharedIndexRegistry.ArtifactKey key = SharedIndexRegistry.ArtifactKey.from( jar, null );
+
+		assertThat( registry.find( key ), nullValue() );
+
+		final Index first = IndexingFixtures.index( IndexingFixtures.MarkedOne.class );
+		assertThat( registry.canonicalize( key, first ), sameInstance( first ) );
+		assertThat( registry.canonicalize( key, IndexingFixtures.index( IndexingFixtures.MarkedOne.class ) ), sameInstance( first ) );
+		assertThat( registry.resolve( key, () -> { throw new AssertionError( "Index should not be loaded" ); } ), sameInstance( first ) );
+		assertThat( registry.find( key ), sameInstance( first ) );
+	}
+
+	@Test
+	public void testArtifactKeys() {
+		final File jar = IndexingFixtures.createJar( new File( directory, "lib.jar" ), null, IndexingFixtures.MarkedOne.class );
+
+		final SharedIndexRegistry.ArtifactKey key = SharedIndexRegistry.ArtifactKey.from( jar, null );
+		assertThat( SharedIndexRegistry.ArtifactKey.from( jar, null ), is( key ) );
+		assertThat( SharedIndexRegistry.ArtifactKey.from( jar, null, IndexProfile.FULL ), is( key ) );
+		assertThat( SharedIndexRegistry.ArtifactKey.from( jar, null, IndexProfile.SLIM ), not( key ) );
+
+		//noinspection ResultOfMethodCallIgnored
+		jar.setLastModified( jar.lastModified() - 60_000 );
+		assertThat( SharedIndexRegistry.ArtifactKey.from( jar, null ), not( key ) );
+	}
+
+	@Test
+	public void testSharedBetweenProjects() {
+		final File jar = IndexingFixtures.createJar(
+				new File( directory, "lib.jar" ),
+				null,
+				IndexingFixtures.Base.class,
+				IndexingFixtures.Sub.class
+		);
+
+		final ExternalArtifactIndexManager first = indexManager( jar, new File( directory, "first/jandex/lib.idx" ) );
+		final ExternalArtifactIndexManager second = indexManager( jar, new File( directory, "second/jandex/lib.idx" ) );
+		first.resolve();
+		second.resolve();
+
+		assertThat( second.getHeldIndex(), sameInstance( first.getHeldIndex() ) );
+		// each project still has its own index file
+		assertThat( second.getIndexFile().exists(), is( true ) );
+		assertThat(
+				classNames( second.getIndex().getKnownClasses() ),
+				is( names( IndexingFixtures.Base.class, IndexingFixtures.Sub.class ) )
+		);
+	}
+
+	@Test
+	public void testReleasedOnClose() {
+		final SharedIndexRegistry registry = registryProvider.get();
+
+		final File jar = IndexingFixtures.createJar( new File( directory, "lib.jar" ), null, IndexingFixtures.MarkedOne.class );
+		final SharedIndexRegistry.ArtifactKey key = SharedIndexRegistry.ArtifactKey.from( jar, null );
+		registry.canonicalize( key, IndexingFixtures.index( IndexingFixtures.MarkedOne.class ) );
+
+		registry.close();
+		assertThat( registry.find( key ), nullValue() );
+	}
+
+	private ExternalArtifactIndexManager indexManager(File jar, File indexFile) {
+		return new ExternalArtifactIndexManager(
+				jar,
+				indexFile,
+				false,
+				null,
+				ClassIndexingPipeline.SEQUENTIAL,
+				null,
+				IndexProfile.FULL,
+				registryProvider,
+				null
+		);
+	}
+}
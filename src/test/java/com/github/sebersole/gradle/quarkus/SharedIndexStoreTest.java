@@ -0,0 +1,142 @@
+package com.github.sebersole.gradle.quarkus;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.github.sebersole.gradle.quarkus.dsl.IndexingConfig;
+import com.github.sebersole.gradle.quarkus.indexing.ArchiveFingerprint;
+import com.github.sebersole.gradle.quarkus.indexing.ClassIndexingPipeline;
+import com.github.sebersole.gradle.quarkus.indexing.ExternalArtifactIndexManager;
+import com.github.sebersole.gradle.quarkus.indexing.IndexManager;
+import com.github.sebersole.gradle.quarkus.indexing.IndexProfile;
+import com.github.sebersole.gradle.quarkus.indexing.PackageFilter;
+import com.github.sebersole.gradle.quarkus.indexing.SharedIndexStore;
+
+import static com.github.sebersole.gradle.quarkus.IndexingFixtures.classNames;
+import static com.github.sebersole.gradle.quarkus.IndexingFixtures.names;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Tests for sharing indexes across builds through the SharedIndexStore
+ */
+public class SharedIndexStoreTest {
+	private File directory;
+	private SharedIndexStore store;
+
+	@BeforeEach
+	public void createStore() {
+		directory = IndexingFixtures.createTempDirectory();
+		store = new SharedIndexStore( new File( directory, "store" ), new IndexingConfig() );
+	}
+
+	@AfterEach
+	public void deleteDirectory() {
+		IndexingFixtures.deleteRecursively( directory );
+	}
+
+	@Test
+	public void testStoreAndRetrieve() throws IOException {
+		final File jar = IndexingFixtures.createJar( new File( directory, "lib.jar" ), null, IndexingFixtures.MarkedOne.class );
+		final ExternalArtifactIndexManager indexManager = new ExternalArtifactIndexManager( jar, new File( directory, "jandex/lib.idx" ) );
+		indexManager.resolve();
+
+		final String key = store.determineKey( jar );
+		assertThat( store.retrieve( key, new File( directory, "missing.idx" ) ), is( false ) );
+
+		store.store( key, indexManager.getIndexFile() );
+
+		final File retrieved = new File( directory, "retrieved.idx" );
+		assertThat( store.retrieve( key, retrieved ), is( true ) );
+		assertThat(
+				Arrays.equals( Files.readAllBytes( retrieved.toPath() ), Files.readAllBytes( indexManager.getIndexFile().toPath() ) ),
+				is( true )
+		);
+	}
+
+	@Test
+	public void testKeys() throws IOException {
+		final File jar = IndexingFixtures.createJar( new File( directory, "lib.jar" ), null, IndexingFixtures.MarkedOne.class );
+		final File relocated = new File( new File( directory, "elsewhere" ), "renamed.jar" );
+		Files.createDirectories( relocated.getParentFile().toPath() );
+		Files.copy( jar.toPath(), relocated.toPath() );
+
+		final String key = store.determineKey( jar );
+		assertThat( key, notNullValue() );
+		assertThat( store.determineKey( relocated ), is( key ) );
+
+		final PackageFilter packageFilter = new PackageFilter( Collections.singleton( "com.acme" ), Collections.emptySet() );
+		final String filteredKey = store.determineKey( jar, packageFilter );
+		assertThat( filteredKey, not( key ) );
+
+		final String fingerprint = ArchiveFingerprint.of( jar );
+		assertThat( store.determineKey( fingerprint, null, IndexProfile.FULL ), is( key ) );
+		assertThat( store.determineKey( fingerprint, null, IndexProfile.SLIM ), not( key ) );
+		assertThat( store.determineKey( fingerprint, packageFilter, IndexProfile.SLIM ), not( filteredKey ) );
+	}
+
+	@Test
+	public void testSharedAcrossBuilds() throws IOException {
+		final File jar = IndexingFixtures.createJar(
+				new File( directory, "lib.jar" ),
+				null,
+				IndexingFixtures.Base.class,
+				IndexingFixtures.Sub.class
+		);
+
+		final ExternalArtifactIndexManager firstBuild = indexManager( jar, new File( directory, "first/jandex/lib.idx" ) );
+		assertThat( firstBuild.resolve(), is( IndexManager.Resolution.GENERATED ) );
+
+		final File retrieved = new File( directory, "retrieved.idx" );
+		assertThat( store.retrieve( store.determineKey( jar ), retrieved ), is( true ) );
+
+		final ExternalArtifactIndexManager secondBuild = indexManager( jar, new File( directory, "second/jandex/lib.idx" ) );
+		secondBuild.resolve();
+		assertThat(
+				Arrays.equals( Files.readAllBytes( secondBuild.getIndexFile().toPath() ), Files.readAllBytes( retrieved.toPath() ) ),
+				is( true )
+		);
+		assertThat(
+				classNames( secondBuild.getIndex().getKnownClasses() ),
+				is( names( IndexingFixtures.Base.class, IndexingFixtures.Sub.class ) )
+		);
+	}
+
+	@Test
+	public void testEviction() {
+		final IndexingConfig indexingConfig = new IndexingConfig();
+		indexingConfig.setSharedCacheSize( 0 );
+		final SharedIndexStore boundedStore = new SharedIndexStore( new File( directory, "bounded" ), indexingConfig );
+
+		final File jar = IndexingFixtures.createJar( new File( directory, "lib.jar" ), null, IndexingFixtures.MarkedOne.class );
+		final ExternalArtifactIndexManager indexManager = new ExternalArtifactIndexManager( jar, new File( directory, "jandex/lib.idx" ) );
+		indexManager.resolve();
+
+		final String key = boundedStore.determineKey( jar );
+		boundedStore.store( key, indexManager.getIndexFile() );
+		assertThat( boundedStore.retrieve( key, new File( directory, "retrieved.idx" ) ), is( false ) );
+	}
+
+	private ExternalArtifactIndexManager indexManager(File jar, File indexFile) {
+		return new ExternalArtifactIndexManager(
+				jar,
+				indexFile,
+				false,
+				store,
+				ClassIndexingPipeline.SEQUENTIAL,
+				null,
+				IndexProfile.FULL,
+				null,
+				null
+		);
+	}
+}